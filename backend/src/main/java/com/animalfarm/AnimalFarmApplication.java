@@ -2,8 +2,10 @@ package com.animalfarm;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class AnimalFarmApplication {
     public static void main(String[] args) {
         SpringApplication.run(AnimalFarmApplication.class, args);
@@ -0,0 +1,101 @@
+package com.animalfarm.auth;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verified access tokens keyed by their SHA-256 digest. Entries carry the decoded session and
+ * disappear at the token's own expiry, so a hit is exactly as valid as a fresh verification.
+ */
+@Component
+public class AccessTokenCache {
+    private final Map<TokenDigest, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final LongSupplier clock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public AccessTokenCache(@Value("${app.auth.token-cache.max-entries:10000}") int maxEntries) {
+        this(maxEntries, System::currentTimeMillis);
+    }
+
+    AccessTokenCache(int maxEntries, LongSupplier clock) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.clock = clock;
+    }
+
+    public AuthSession get(String token) {
+        TokenDigest key = TokenDigest.of(token);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.session();
+    }
+
+    public void put(String token, AuthSession session, long expiresAtMillis) {
+        long now = clock.getAsLong();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            makeRoom(now);
+        }
+        entries.put(TokenDigest.of(token), new Entry(session, expiresAtMillis));
+    }
+
+    public AccessTokenCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new AccessTokenCacheStats(
+                entries.size(), maxEntries, hitCount, missCount, evictions.sum(),
+                lookups == 0 ? 0.0 : (double) hitCount / lookups
+        );
+    }
+
+    private void makeRoom(long now) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        int target = maxEntries - Math.max(1, maxEntries / 10);
+        Iterator<TokenDigest> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry(AuthSession session, long expiresAtMillis) {
+    }
+
+    private record TokenDigest(long a, long b, long c, long d) {
+        static TokenDigest of(String token) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+                ByteBuffer buffer = ByteBuffer.wrap(hash);
+                return new TokenDigest(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("Unable to hash token", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.animalfarm.auth;
+
+public record AccessTokenCacheStats(
+        int size,
+        int maxEntries,
+        long hits,
+        long misses,
+        long evictions,
+        double hitRate
+) {
+}
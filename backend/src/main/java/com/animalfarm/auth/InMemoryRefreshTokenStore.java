@@ -0,0 +1,84 @@
+package com.animalfarm.auth;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-node refresh token store. Tokens do not survive a restart, which only forces users to log
+ * in again.
+ */
+@Component
+@ConditionalOnProperty(name = "app.auth.refresh-tokens.store", havingValue = "memory")
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+    private final Map<String, RefreshTokenRecord> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> families = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(RefreshTokenRecord token) {
+        tokens.put(token.tokenHash(), token);
+        if (token.familyId() != null) {
+            families.computeIfAbsent(token.familyId(), id -> ConcurrentHashMap.newKeySet()).add(token.tokenHash());
+        }
+    }
+
+    @Override
+    public Optional<RefreshTokenRecord> find(String tokenHash) {
+        return Optional.ofNullable(tokens.get(tokenHash));
+    }
+
+    @Override
+    public boolean revokeIfActive(String tokenHash, LocalDateTime now) {
+        RefreshTokenRecord current = tokens.get(tokenHash);
+        return current != null && !current.revoked() && tokens.replace(tokenHash, current, current.revokedAt(now));
+    }
+
+    @Override
+    public void revokeFamily(String familyId, LocalDateTime now) {
+        Set<String> members = familyId != null ? families.get(familyId) : null;
+        if (members == null) {
+            return;
+        }
+        for (String tokenHash : members) {
+            tokens.computeIfPresent(tokenHash, (hash, token) -> token.revoked() ? token : token.revokedAt(now));
+        }
+    }
+
+    /**
+     * Stops after {@code limit} deletions like the JPA store, so a caller looping until a short batch
+     * sees the same contract; with no lock held, each call is just a partial sweep of the map.
+     */
+    @Override
+    public int purge(LocalDateTime expiredBefore, int limit) {
+        int deleted = 0;
+        Iterator<RefreshTokenRecord> iterator = tokens.values().iterator();
+        while (deleted < limit && iterator.hasNext()) {
+            RefreshTokenRecord token = iterator.next();
+            if (token.expiresAt().isBefore(expiredBefore)) {
+                iterator.remove();
+                forget(token);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    int size() {
+        return tokens.size();
+    }
+
+    private void forget(RefreshTokenRecord token) {
+        if (token.familyId() == null) {
+            return;
+        }
+        families.computeIfPresent(token.familyId(), (id, members) -> {
+            members.remove(token.tokenHash());
+            return members.isEmpty() ? null : members;
+        });
+    }
+}
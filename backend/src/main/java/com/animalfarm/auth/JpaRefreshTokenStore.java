@@ -0,0 +1,79 @@
+package com.animalfarm.auth;
+
+import com.animalfarm.model.AppUser;
+import com.animalfarm.model.RefreshToken;
+import com.animalfarm.repository.RefreshTokenRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@ConditionalOnProperty(name = "app.auth.refresh-tokens.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaRefreshTokenStore implements RefreshTokenStore {
+    private static final String DELETE_EXPIRED = "delete from refresh_tokens where expires_at < ? limit ?";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JpaRefreshTokenStore(RefreshTokenRepository refreshTokenRepository, JdbcTemplate jdbcTemplate) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void save(RefreshTokenRecord token) {
+        RefreshToken entity = new RefreshToken();
+        entity.setUser(entityManager.getReference(AppUser.class, token.userId()));
+        entity.setTokenHash(token.tokenHash());
+        entity.setFamilyId(token.familyId());
+        entity.setExpiresAt(token.expiresAt());
+        entity.setRevoked(token.revoked());
+        entity.setRevokedAt(token.revokedAt());
+        refreshTokenRepository.save(entity);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<RefreshTokenRecord> find(String tokenHash) {
+        return refreshTokenRepository.findByTokenHash(tokenHash).map(token -> new RefreshTokenRecord(
+                token.getTokenHash(),
+                token.getUser().getId(),
+                token.getFamilyId(),
+                token.getExpiresAt(),
+                token.isRevoked() ? revokedAt(token) : null
+        ));
+    }
+
+    @Override
+    @Transactional
+    public boolean revokeIfActive(String tokenHash, LocalDateTime now) {
+        return refreshTokenRepository.revokeIfActive(tokenHash, now) == 1;
+    }
+
+    @Override
+    @Transactional
+    public void revokeFamily(String familyId, LocalDateTime now) {
+        if (familyId != null) {
+            refreshTokenRepository.revokeFamily(familyId, now);
+        }
+    }
+
+    @Override
+    public int purge(LocalDateTime expiredBefore, int limit) {
+        return jdbcTemplate.update(DELETE_EXPIRED, Timestamp.valueOf(expiredBefore), limit);
+    }
+
+    private static LocalDateTime revokedAt(RefreshToken token) {
+        return token.getRevokedAt() != null ? token.getRevokedAt() : token.getCreatedAt();
+    }
+}
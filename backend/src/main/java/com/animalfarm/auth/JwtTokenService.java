@@ -2,6 +2,7 @@ package com.animalfarm.auth;
 
 import com.animalfarm.model.ActorRole;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 @Service
 public class JwtTokenService {
     private final SecretKey secretKey;
+    private final JwtParser parser;
     private final long accessTokenMinutes;
     private final long refreshTokenDays;
 
@@ -28,6 +30,7 @@ public class JwtTokenService {
             @Value("${app.auth.refresh-token-days}") long refreshTokenDays
     ) {
         this.secretKey = deriveKey(jwtSecret);
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
         this.accessTokenMinutes = accessTokenMinutes;
         this.refreshTokenDays = refreshTokenDays;
     }
@@ -53,6 +56,7 @@ public class JwtTokenService {
         Instant expiry = now.plusSeconds(refreshTokenDays * 24 * 60 * 60);
         return Jwts.builder()
                 .subject(String.valueOf(userId))
+                .id(UUID.randomUUID().toString())
                 .claim("typ", "refresh")
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
@@ -61,7 +65,7 @@ public class JwtTokenService {
     }
 
     public Claims parse(String token) {
-        return Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public LocalDateTime getRefreshTokenExpiryTime() {
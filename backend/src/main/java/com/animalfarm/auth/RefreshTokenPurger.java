@@ -0,0 +1,39 @@
+package com.animalfarm.auth;
+
+import java.time.LocalDateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class RefreshTokenPurger {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenPurger.class);
+
+    private final RefreshTokenStore refreshTokenStore;
+    private final int batchSize;
+
+    public RefreshTokenPurger(
+            RefreshTokenStore refreshTokenStore,
+            @Value("${app.auth.refresh-tokens.purge-batch-size:1000}") int batchSize
+    ) {
+        this.refreshTokenStore = refreshTokenStore;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.refresh-tokens.purge-millis:600000}")
+    public int purge() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = refreshTokenStore.purge(now, batchSize);
+            total += deleted;
+        } while (deleted >= batchSize);
+        if (total > 0) {
+            log.info("Purged {} expired refresh tokens", total);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,19 @@
+package com.animalfarm.auth;
+
+import java.time.LocalDateTime;
+
+public record RefreshTokenRecord(
+        String tokenHash,
+        Long userId,
+        String familyId,
+        LocalDateTime expiresAt,
+        LocalDateTime revokedAt
+) {
+    public boolean revoked() {
+        return revokedAt != null;
+    }
+
+    RefreshTokenRecord revokedAt(LocalDateTime now) {
+        return new RefreshTokenRecord(tokenHash, userId, familyId, expiresAt, now);
+    }
+}
@@ -0,0 +1,29 @@
+package com.animalfarm.auth;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Persistence for hashed refresh tokens. Tokens issued from one login share a family id so that
+ * replaying an already rotated token can revoke every token descended from that login.
+ */
+public interface RefreshTokenStore {
+    void save(RefreshTokenRecord token);
+
+    Optional<RefreshTokenRecord> find(String tokenHash);
+
+    /**
+     * Atomically revokes a still-active token. Returns false when it was already revoked, which
+     * callers treat as reuse.
+     */
+    boolean revokeIfActive(String tokenHash, LocalDateTime now);
+
+    void revokeFamily(String familyId, LocalDateTime now);
+
+    /**
+     * Deletes tokens that expired before {@code expiredBefore}, in batches of about {@code limit},
+     * returning how many were removed. Revoked tokens are kept until they expire so that replaying
+     * a rotated token is still recognised as reuse.
+     */
+    int purge(LocalDateTime expiredBefore, int limit);
+}
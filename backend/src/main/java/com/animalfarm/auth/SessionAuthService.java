@@ -2,9 +2,7 @@ package com.animalfarm.auth;
 
 import com.animalfarm.exception.UnauthorizedException;
 import com.animalfarm.model.AppUser;
-import com.animalfarm.model.RefreshToken;
 import com.animalfarm.repository.AppUserRepository;
-import com.animalfarm.repository.RefreshTokenRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import java.nio.charset.StandardCharsets;
@@ -19,20 +17,23 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class SessionAuthService {
     private final AppUserRepository appUserRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenStore refreshTokenStore;
     private final JwtTokenService jwtTokenService;
     private final PasswordEncoder passwordEncoder;
+    private final AccessTokenCache accessTokenCache;
 
     public SessionAuthService(
             AppUserRepository appUserRepository,
-            RefreshTokenRepository refreshTokenRepository,
+            RefreshTokenStore refreshTokenStore,
             JwtTokenService jwtTokenService,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            AccessTokenCache accessTokenCache
     ) {
         this.appUserRepository = appUserRepository;
-        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenStore = refreshTokenStore;
         this.jwtTokenService = jwtTokenService;
         this.passwordEncoder = passwordEncoder;
+        this.accessTokenCache = accessTokenCache;
     }
 
     @Transactional
@@ -45,24 +46,28 @@ public class SessionAuthService {
         return buildLoginResponse(user);
     }
 
-    @Transactional
+    @Transactional(noRollbackFor = UnauthorizedException.class)
     public LoginResponse refresh(String refreshToken) {
         Claims claims = parseJwtOrThrow(refreshToken);
         String type = claims.get("typ", String.class);
         if (!"refresh".equals(type)) {
             throw new UnauthorizedException("Invalid refresh token.");
         }
-        String hashed = hashToken(refreshToken);
-        RefreshToken stored = refreshTokenRepository.findByTokenHashAndRevokedFalse(hashed)
+        LocalDateTime now = LocalDateTime.now();
+        RefreshTokenRecord stored = refreshTokenStore.find(hashToken(refreshToken))
                 .orElseThrow(() -> new UnauthorizedException("Refresh token not found."));
-        if (stored.getExpiresAt().isBefore(LocalDateTime.now())) {
-            stored.setRevoked(true);
+        if (!refreshTokenStore.revokeIfActive(stored.tokenHash(), now)) {
+            refreshTokenStore.revokeFamily(stored.familyId(), now);
+            throw new UnauthorizedException("Refresh token reuse detected. Please log in again.");
+        }
+        if (stored.expiresAt().isBefore(now)) {
             throw new UnauthorizedException("Refresh token expired.");
         }
 
-        stored.setRevoked(true);
-        AppUser user = stored.getUser();
-        return buildLoginResponse(user);
+        AppUser user = appUserRepository.findById(stored.userId())
+                .orElseThrow(() -> new UnauthorizedException("User not found."));
+        String familyId = stored.familyId() != null ? stored.familyId() : UUID.randomUUID().toString();
+        return buildLoginResponse(user, familyId);
     }
 
     @Transactional
@@ -70,11 +75,18 @@ public class SessionAuthService {
         if (refreshToken == null || refreshToken.isBlank()) {
             return;
         }
-        String hashed = hashToken(refreshToken);
-        refreshTokenRepository.findByTokenHashAndRevokedFalse(hashed).ifPresent(token -> token.setRevoked(true));
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenStore.find(hashToken(refreshToken)).ifPresent(token -> {
+            refreshTokenStore.revokeIfActive(token.tokenHash(), now);
+            refreshTokenStore.revokeFamily(token.familyId(), now);
+        });
     }
 
     public AuthSession requireSession(String accessToken) {
+        AuthSession cached = accessTokenCache.get(accessToken);
+        if (cached != null) {
+            return cached;
+        }
         Claims claims = parseJwtOrThrow(accessToken);
         String type = claims.get("typ", String.class);
         if (!"access".equals(type)) {
@@ -86,13 +98,17 @@ public class SessionAuthService {
         String ownerIdValue = claims.get("ownerId", String.class);
         UUID ownerId = ownerIdValue != null && !ownerIdValue.isBlank() ? UUID.fromString(ownerIdValue) : null;
         Boolean mustChangePassword = claims.get("mustChangePassword", Boolean.class);
-        return new AuthSession(
+        AuthSession session = new AuthSession(
                 userId,
                 username,
                 com.animalfarm.model.ActorRole.valueOf(role),
                 ownerId,
                 mustChangePassword != null && mustChangePassword
         );
+        if (claims.getExpiration() != null) {
+            accessTokenCache.put(accessToken, session, claims.getExpiration().getTime());
+        }
+        return session;
     }
 
     @Transactional
@@ -117,6 +133,10 @@ public class SessionAuthService {
     }
 
     private LoginResponse buildLoginResponse(AppUser user) {
+        return buildLoginResponse(user, UUID.randomUUID().toString());
+    }
+
+    private LoginResponse buildLoginResponse(AppUser user, String familyId) {
         String accessToken = jwtTokenService.generateAccessToken(
                 user.getId(),
                 user.getUsername(),
@@ -125,12 +145,13 @@ public class SessionAuthService {
                 user.isForcePasswordReset()
         );
         String refreshToken = jwtTokenService.generateRefreshToken(user.getId());
-        RefreshToken rt = new RefreshToken();
-        rt.setUser(user);
-        rt.setTokenHash(hashToken(refreshToken));
-        rt.setExpiresAt(jwtTokenService.getRefreshTokenExpiryTime());
-        rt.setRevoked(false);
-        refreshTokenRepository.save(rt);
+        refreshTokenStore.save(new RefreshTokenRecord(
+                hashToken(refreshToken),
+                user.getId(),
+                familyId,
+                jwtTokenService.getRefreshTokenExpiryTime(),
+                null
+        ));
         return new LoginResponse(
                 accessToken,
                 refreshToken,
@@ -0,0 +1,32 @@
+package com.animalfarm.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Spring Boot only auto-configures {@code applicationTaskExecutor}, which MVC uses for streaming
+ * responses, while no other executor bean exists, so it is declared here next to the invoice render
+ * pool. Renders get their own threads so a streaming ZIP never waits on renders queued behind other
+ * downloads running on the same pool; ZIP downloads, outbox email batches and billing runs share them.
+ */
+@Configuration
+public class TaskExecutorConfig {
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    @Primary
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor invoiceRenderExecutor(@Value("${app.invoice.worker-threads:4}") int workerThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.max(1, workerThreads));
+        executor.setMaxPoolSize(Math.max(1, workerThreads));
+        executor.setThreadNamePrefix("invoice-render-");
+        return executor;
+    }
+}
@@ -0,0 +1,28 @@
+package com.animalfarm.controller;
+
+import com.animalfarm.auth.AccessTokenCache;
+import com.animalfarm.auth.AccessTokenCacheStats;
+import com.animalfarm.auth.AuthContext;
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.service.RoleValidator;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/metrics")
+public class AdminMetricsController {
+    private final AccessTokenCache accessTokenCache;
+
+    public AdminMetricsController(AccessTokenCache accessTokenCache) {
+        this.accessTokenCache = accessTokenCache;
+    }
+
+    @GetMapping("/token-cache")
+    public AccessTokenCacheStats tokenCache(HttpServletRequest httpRequest) {
+        AuthSession session = AuthContext.require(httpRequest);
+        RoleValidator.requireAdmin(session.role());
+        return accessTokenCache.stats();
+    }
+}
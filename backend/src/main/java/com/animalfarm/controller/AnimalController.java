@@ -2,17 +2,29 @@ package com.animalfarm.controller;
 
 import com.animalfarm.auth.AuthContext;
 import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.AnimalExportFormat;
+import com.animalfarm.dto.AnimalFilter;
+import com.animalfarm.dto.AnimalImportResult;
+import com.animalfarm.dto.AnimalPage;
 import com.animalfarm.dto.AnimalRequest;
 import com.animalfarm.dto.AnimalSummary;
 import com.animalfarm.dto.TransferAnimalsRequest;
+import com.animalfarm.dto.UploadFormat;
+import com.animalfarm.exception.ApiException;
 import com.animalfarm.model.ActorRole;
 import com.animalfarm.model.AnimalType;
+import com.animalfarm.service.AnimalExportService;
+import com.animalfarm.service.AnimalImportService;
 import com.animalfarm.service.AnimalService;
+import com.animalfarm.service.StoredFile;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -27,9 +39,17 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/api/animals")
 public class AnimalController {
     private final AnimalService animalService;
+    private final AnimalExportService animalExportService;
+    private final AnimalImportService animalImportService;
 
-    public AnimalController(AnimalService animalService) {
+    public AnimalController(
+            AnimalService animalService,
+            AnimalExportService animalExportService,
+            AnimalImportService animalImportService
+    ) {
         this.animalService = animalService;
+        this.animalExportService = animalExportService;
+        this.animalImportService = animalImportService;
     }
 
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -49,12 +69,58 @@ public class AnimalController {
     }
 
     @GetMapping
-    public List<AnimalSummary> listAll(HttpServletRequest httpRequest) {
+    public AnimalPage listAll(
+            @RequestParam(required = false) AnimalType type,
+            @RequestParam(required = false) Boolean sold,
+            @RequestParam(required = false) UUID ownerId,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) LocalDate bornFrom,
+            @RequestParam(required = false) LocalDate bornTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
         AuthSession session = AuthContext.require(httpRequest);
-        if (session.role() == ActorRole.OWNER && session.ownerId() != null) {
-            return animalService.getByOwner(session.ownerId());
-        }
-        return animalService.listAnimals();
+        AnimalFilter filter = scoped(new AnimalFilter(type, sold, ownerId, breed, bornFrom, bornTo), session);
+        return animalService.listAnimals(filter, cursor, limit);
+    }
+
+    @GetMapping("/export")
+    public void export(
+            @RequestParam(defaultValue = "NDJSON") AnimalExportFormat format,
+            @RequestParam(required = false) AnimalType type,
+            @RequestParam(required = false) Boolean sold,
+            @RequestParam(required = false) UUID ownerId,
+            @RequestParam(required = false) String breed,
+            @RequestParam(required = false) LocalDate bornFrom,
+            @RequestParam(required = false) LocalDate bornTo,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse
+    ) throws IOException {
+        AuthSession session = AuthContext.require(httpRequest);
+        AnimalFilter filter = scoped(new AnimalFilter(type, sold, ownerId, breed, bornFrom, bornTo), session);
+        boolean csv = format == AnimalExportFormat.CSV;
+        httpResponse.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson");
+        httpResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=animals." + (csv ? "csv" : "ndjson"));
+        animalExportService.export(filter, format, httpResponse.getOutputStream());
+    }
+
+    @PostMapping("/import")
+    public AnimalImportResult importAnimals(
+            @RequestParam(defaultValue = "NDJSON") UploadFormat format,
+            HttpServletRequest httpRequest
+    ) throws IOException {
+        AuthSession session = AuthContext.require(httpRequest);
+        return animalImportService.importAnimals(httpRequest.getInputStream(), format, session);
+    }
+
+    @GetMapping("/{animalId}/image")
+    public void image(@PathVariable UUID animalId, HttpServletRequest httpRequest, HttpServletResponse httpResponse)
+            throws IOException {
+        AuthSession session = AuthContext.require(httpRequest);
+        StoredFile image = animalService.getImage(animalId, session);
+        FileStreaming.serve(image, "private, max-age=31536000, immutable", httpRequest, httpResponse);
     }
 
     @PostMapping("/transfer")
@@ -68,4 +134,14 @@ public class AnimalController {
         AuthSession session = AuthContext.require(httpRequest);
         return animalService.sellAnimalToMarket(animalId, session);
     }
+
+    private static AnimalFilter scoped(AnimalFilter filter, AuthSession session) {
+        if (session.role() != ActorRole.OWNER) {
+            return filter;
+        }
+        if (session.ownerId() == null) {
+            throw new ApiException("Owner account is not linked to an owner profile.");
+        }
+        return filter.withOwner(session.ownerId());
+    }
 }
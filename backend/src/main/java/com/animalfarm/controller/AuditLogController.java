@@ -0,0 +1,38 @@
+package com.animalfarm.controller;
+
+import com.animalfarm.auth.AuthContext;
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.AuditLogFilter;
+import com.animalfarm.dto.AuditLogPage;
+import com.animalfarm.service.AuditLogService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/audit-logs")
+public class AuditLogController {
+    private final AuditLogService auditLogService;
+
+    public AuditLogController(AuditLogService auditLogService) {
+        this.auditLogService = auditLogService;
+    }
+
+    @GetMapping
+    public AuditLogPage search(
+            @RequestParam(required = false) String actor,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return auditLogService.search(new AuditLogFilter(actor, action, from, to), cursor, limit, session.role());
+    }
+}
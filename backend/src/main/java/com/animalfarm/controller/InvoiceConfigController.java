@@ -4,13 +4,17 @@ import com.animalfarm.auth.AuthContext;
 import com.animalfarm.auth.AuthSession;
 import com.animalfarm.dto.InvoiceParameterDto;
 import com.animalfarm.dto.InvoiceParameterUpdateRequest;
+import com.animalfarm.dto.InvoiceRateScheduleEntry;
 import com.animalfarm.service.InvoiceParameterService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.YearMonth;
+import java.util.List;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -23,9 +27,20 @@ public class InvoiceConfigController {
     }
 
     @GetMapping
-    public InvoiceParameterDto getCurrent(HttpServletRequest httpRequest) {
+    public InvoiceParameterDto getCurrent(
+            @RequestParam(required = false) YearMonth period,
+            HttpServletRequest httpRequest
+    ) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return period == null
+                ? invoiceParameterService.getCurrent(session.role())
+                : invoiceParameterService.getForPeriod(period, session.role());
+    }
+
+    @GetMapping("/history")
+    public List<InvoiceRateScheduleEntry> history(HttpServletRequest httpRequest) {
         AuthSession session = AuthContext.require(httpRequest);
-        return invoiceParameterService.getCurrent(session.role());
+        return invoiceParameterService.history(session.role());
     }
 
     @PutMapping
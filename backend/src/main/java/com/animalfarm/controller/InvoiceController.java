@@ -2,13 +2,23 @@ package com.animalfarm.controller;
 
 import com.animalfarm.auth.AuthContext;
 import com.animalfarm.auth.AuthSession;
-import com.animalfarm.dto.GeneratedInvoiceSummary;
+import com.animalfarm.dto.BillingRunOwnerEntry;
 import com.animalfarm.dto.GenerateMonthlyInvoicesRequest;
 import com.animalfarm.dto.InvoiceHistoryResponse;
+import com.animalfarm.dto.InvoiceRunProgress;
 import com.animalfarm.dto.MonthlyInvoiceResponse;
+import com.animalfarm.dto.PaymentReconciliationResult;
+import com.animalfarm.dto.UploadFormat;
+import com.animalfarm.model.BillingOwnerStatus;
 import com.animalfarm.service.MonthlyInvoiceService;
+import com.animalfarm.service.PaymentReconciliationService;
+import com.animalfarm.service.StoredFile;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.NoSuchFileException;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
@@ -22,14 +32,20 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/invoices")
 public class InvoiceController {
     private final MonthlyInvoiceService monthlyInvoiceService;
+    private final PaymentReconciliationService paymentReconciliationService;
 
-    public InvoiceController(MonthlyInvoiceService monthlyInvoiceService) {
+    public InvoiceController(
+            MonthlyInvoiceService monthlyInvoiceService,
+            PaymentReconciliationService paymentReconciliationService
+    ) {
         this.monthlyInvoiceService = monthlyInvoiceService;
+        this.paymentReconciliationService = paymentReconciliationService;
     }
 
     @GetMapping("/monthly/owner/{ownerId}")
@@ -45,7 +61,7 @@ public class InvoiceController {
     }
 
     @PostMapping("/monthly/generate-and-email")
-    public List<GeneratedInvoiceSummary> generateAndEmail(
+    public ResponseEntity<InvoiceRunProgress> generateAndEmail(
             @Valid @RequestBody(required = false) GenerateMonthlyInvoicesRequest request,
             HttpServletRequest httpRequest
     ) {
@@ -53,7 +69,33 @@ public class InvoiceController {
         Integer year = request == null ? null : request.year();
         Integer month = request == null ? null : request.month();
         String smtpPassword = request == null ? null : request.smtpPassword();
-        return monthlyInvoiceService.generateAndEmailAllOwners(year, month, smtpPassword, session.role());
+        InvoiceRunProgress run = monthlyInvoiceService.generateAndEmailAllOwners(year, month, smtpPassword, session.role());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/invoices/monthly/runs/" + run.runId()))
+                .body(run);
+    }
+
+    @GetMapping("/monthly/generate-and-email/progress")
+    public InvoiceRunProgress generateAndEmailProgress(HttpServletRequest httpRequest) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return monthlyInvoiceService.getRunProgress(session.role());
+    }
+
+    @GetMapping("/monthly/runs/{runId}")
+    public InvoiceRunProgress runProgress(@PathVariable Long runId, HttpServletRequest httpRequest) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return monthlyInvoiceService.getRunProgress(runId, session.role());
+    }
+
+    @GetMapping("/monthly/runs/{runId}/owners")
+    public List<BillingRunOwnerEntry> runOwners(
+            @PathVariable Long runId,
+            @RequestParam(defaultValue = "FAILED") BillingOwnerStatus status,
+            @RequestParam(defaultValue = "100") int limit,
+            HttpServletRequest httpRequest
+    ) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return monthlyInvoiceService.getRunOwners(runId, status, limit, session.role());
     }
 
     @PostMapping("/{invoiceId}/mark-paid")
@@ -63,6 +105,15 @@ public class InvoiceController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/payments/reconcile")
+    public PaymentReconciliationResult reconcilePayments(
+            @RequestParam(defaultValue = "NDJSON") UploadFormat format,
+            HttpServletRequest httpRequest
+    ) throws IOException {
+        AuthSession session = AuthContext.require(httpRequest);
+        return paymentReconciliationService.reconcile(httpRequest.getInputStream(), format, session);
+    }
+
     @GetMapping("/history")
     public List<InvoiceHistoryResponse> history(
             @RequestParam(required = false) UUID ownerId,
@@ -75,25 +126,33 @@ public class InvoiceController {
     }
 
     @GetMapping("/{invoiceId}/pdf")
-    public ResponseEntity<byte[]> downloadPdf(@PathVariable Long invoiceId, HttpServletRequest httpRequest) {
+    public void downloadPdf(
+            @PathVariable Long invoiceId,
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse
+    ) throws IOException {
         AuthSession session = AuthContext.require(httpRequest);
-        byte[] pdf = monthlyInvoiceService.downloadInvoicePdf(invoiceId, session.role(), session.ownerId());
+        StoredFile pdf = monthlyInvoiceService.downloadInvoicePdf(invoiceId, session.role(), session.ownerId());
         String filename = "invoice-" + invoiceId + ".pdf";
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_PDF)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .body(pdf);
+        httpResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        try {
+            FileStreaming.serve(pdf, "private, no-cache", httpRequest, httpResponse);
+        } catch (NoSuchFileException e) {
+            // Evicted from the cache between the lookup and opening it; the second lookup renders it again.
+            pdf = monthlyInvoiceService.downloadInvoicePdf(invoiceId, session.role(), session.ownerId());
+            FileStreaming.serve(pdf, "private, no-cache", httpRequest, httpResponse);
+        }
     }
 
     @GetMapping("/history/zip")
-    public ResponseEntity<byte[]> downloadZip(
+    public ResponseEntity<StreamingResponseBody> downloadZip(
             @RequestParam(required = false) UUID ownerId,
             @RequestParam(required = false) Integer year,
             @RequestParam(required = false) Integer month,
             HttpServletRequest httpRequest
     ) {
         AuthSession session = AuthContext.require(httpRequest);
-        byte[] zip = monthlyInvoiceService.downloadInvoicesZip(session.role(), session.ownerId(), ownerId, year, month);
+        StreamingResponseBody zip = monthlyInvoiceService.downloadInvoicesZip(session.role(), session.ownerId(), ownerId, year, month);
         String period = (year != null && month != null)
                 ? (year + "-" + String.format("%02d", month))
                 : YearMonth.now().toString();
@@ -0,0 +1,77 @@
+package com.animalfarm.controller;
+
+import com.animalfarm.auth.AuthContext;
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.HerdGraphStats;
+import com.animalfarm.dto.InbreedingCheck;
+import com.animalfarm.dto.LineageNode;
+import com.animalfarm.service.HerdGraph;
+import com.animalfarm.service.LineageService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/lineage")
+public class LineageController {
+    private final LineageService lineageService;
+    private final HerdGraph herdGraph;
+
+    public LineageController(LineageService lineageService, HerdGraph herdGraph) {
+        this.lineageService = lineageService;
+        this.herdGraph = herdGraph;
+    }
+
+    @GetMapping("/{animalId}/descendants")
+    public List<LineageNode> descendants(
+            @PathVariable UUID animalId,
+            @RequestParam(required = false) Integer maxDepth,
+            HttpServletRequest httpRequest
+    ) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return lineageService.descendants(animalId, maxDepth, session.role());
+    }
+
+    @GetMapping("/{animalId}/ancestors")
+    public List<LineageNode> ancestors(
+            @PathVariable UUID animalId,
+            @RequestParam(required = false) Integer generations,
+            HttpServletRequest httpRequest
+    ) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return lineageService.ancestors(animalId, generations, session.role());
+    }
+
+    @GetMapping("/inbreeding-check")
+    public InbreedingCheck inbreedingCheck(
+            @RequestParam UUID first,
+            @RequestParam UUID second,
+            @RequestParam(required = false) Integer generations,
+            HttpServletRequest httpRequest
+    ) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return lineageService.checkPairing(first, second, generations, session.role());
+    }
+
+    @GetMapping("/graph/{animalId}")
+    public HerdGraphStats graphStats(@PathVariable UUID animalId, HttpServletRequest httpRequest) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return herdGraph.stats(animalId, session.role());
+    }
+
+    @GetMapping("/graph/inbreeding-check")
+    public InbreedingCheck graphInbreedingCheck(
+            @RequestParam UUID first,
+            @RequestParam UUID second,
+            @RequestParam(required = false) Integer generations,
+            HttpServletRequest httpRequest
+    ) {
+        AuthSession session = AuthContext.require(httpRequest);
+        return herdGraph.checkPairing(first, second, generations, session.role());
+    }
+}
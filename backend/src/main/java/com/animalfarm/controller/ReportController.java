@@ -4,8 +4,11 @@ import com.animalfarm.auth.AuthContext;
 import com.animalfarm.auth.AuthSession;
 import com.animalfarm.exception.ApiException;
 import com.animalfarm.model.ActorRole;
+import com.animalfarm.service.OwnerTypeCrosstabService;
 import com.animalfarm.service.ReportService;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -21,9 +24,11 @@ import java.util.UUID;
 @RequestMapping("/api/reports")
 public class ReportController {
     private final ReportService reportService;
+    private final OwnerTypeCrosstabService ownerTypeCrosstabService;
 
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService, OwnerTypeCrosstabService ownerTypeCrosstabService) {
         this.reportService = reportService;
+        this.ownerTypeCrosstabService = ownerTypeCrosstabService;
     }
 
     @GetMapping("/owner-vs-animal")
@@ -54,12 +59,27 @@ public class ReportController {
     }
 
     @GetMapping("/owners-animal-type-counts")
-    public ResponseEntity<byte[]> ownersAnimalTypeCounts(HttpServletRequest httpRequest) {
+    public void ownersAnimalTypeCounts(HttpServletRequest httpRequest, HttpServletResponse httpResponse)
+            throws IOException {
         AuthSession session = AuthContext.require(httpRequest);
         if (session.role() != ActorRole.ADMIN) {
             throw new ApiException("Only admin can generate this report.");
         }
-        return pdf("owners-animal-type-counts.pdf", reportService.ownerAnimalTypeCountsPdf());
+        httpResponse.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        httpResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("owners-animal-type-counts.pdf").build().toString());
+        reportService.ownerAnimalTypeCountsPdf(httpResponse.getOutputStream());
+    }
+
+    @GetMapping("/owners-animal-type-counts/json")
+    public void ownersAnimalTypeCountsJson(HttpServletRequest httpRequest, HttpServletResponse httpResponse)
+            throws IOException {
+        AuthSession session = AuthContext.require(httpRequest);
+        if (session.role() != ActorRole.ADMIN) {
+            throw new ApiException("Only admin can generate this report.");
+        }
+        httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        ownerTypeCrosstabService.writeJson(httpResponse.getOutputStream());
     }
 
     @GetMapping("/owner/{ownerId}")
@@ -0,0 +1,6 @@
+package com.animalfarm.dto;
+
+public enum AnimalExportFormat {
+    NDJSON,
+    CSV
+}
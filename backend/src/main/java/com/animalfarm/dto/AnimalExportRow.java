@@ -0,0 +1,18 @@
+package com.animalfarm.dto;
+
+import com.animalfarm.model.AnimalType;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record AnimalExportRow(
+        Long id,
+        UUID animalId,
+        String color,
+        LocalDate dateOfBirth,
+        String breed,
+        AnimalType type,
+        UUID parentId,
+        UUID ownerId,
+        boolean sold
+) {
+}
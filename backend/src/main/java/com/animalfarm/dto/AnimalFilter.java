@@ -0,0 +1,22 @@
+package com.animalfarm.dto;
+
+import com.animalfarm.model.AnimalType;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record AnimalFilter(
+        AnimalType type,
+        Boolean sold,
+        UUID ownerId,
+        String breed,
+        LocalDate bornFrom,
+        LocalDate bornTo
+) {
+    public static AnimalFilter byOwner(UUID ownerId) {
+        return new AnimalFilter(null, null, ownerId, null, null, null);
+    }
+
+    public AnimalFilter withOwner(UUID ownerId) {
+        return new AnimalFilter(type, sold, ownerId, breed, bornFrom, bornTo);
+    }
+}
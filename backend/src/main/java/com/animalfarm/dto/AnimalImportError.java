@@ -0,0 +1,7 @@
+package com.animalfarm.dto;
+
+public record AnimalImportError(
+        long line,
+        String message
+) {
+}
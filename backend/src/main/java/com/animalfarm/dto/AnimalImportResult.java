@@ -0,0 +1,17 @@
+package com.animalfarm.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists at most the first 1000 rejected rows;
+ * {@code rejected} is the full count.
+ */
+public record AnimalImportResult(
+        long rows,
+        long imported,
+        long rejected,
+        List<AnimalImportError> errors,
+        long elapsedMillis,
+        double rowsPerSecond
+) {
+}
@@ -0,0 +1,6 @@
+package com.animalfarm.dto;
+
+import java.util.List;
+
+public record AnimalPage(List<AnimalSummary> items, String nextCursor) {
+}
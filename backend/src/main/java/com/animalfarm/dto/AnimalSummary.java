@@ -12,7 +12,7 @@ public record AnimalSummary(
         LocalDate dateOfBirth,
         String breed,
         AnimalType type,
-        String image,
+        String imageUrl,
         UUID parentId,
         UUID ownerId,
         boolean sold
@@ -25,7 +25,7 @@ public record AnimalSummary(
                 animal.getDateOfBirth(),
                 animal.getBreed(),
                 animal.getType(),
-                animal.getImage(),
+                animal.getImageHash() != null ? "/api/animals/" + animal.getAnimalId() + "/image" : null,
                 animal.getParentId(),
                 animal.getOwner().getOwnerId(),
                 animal.isSold()
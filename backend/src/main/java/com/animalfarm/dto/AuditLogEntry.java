@@ -0,0 +1,27 @@
+package com.animalfarm.dto;
+
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.AuditLog;
+import java.time.LocalDateTime;
+
+public record AuditLogEntry(
+        Long id,
+        Long actorUserId,
+        String actorUsername,
+        ActorRole actorRole,
+        String action,
+        String details,
+        LocalDateTime createdAt
+) {
+    public static AuditLogEntry from(AuditLog log) {
+        return new AuditLogEntry(
+                log.getId(),
+                log.getActorUserId(),
+                log.getActorUsername(),
+                log.getActorRole(),
+                log.getAction(),
+                log.getDetails(),
+                log.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package com.animalfarm.dto;
+
+import java.time.LocalDateTime;
+
+public record AuditLogFilter(
+        String actorUsername,
+        String action,
+        LocalDateTime from,
+        LocalDateTime to
+) {
+}
@@ -0,0 +1,6 @@
+package com.animalfarm.dto;
+
+import java.util.List;
+
+public record AuditLogPage(List<AuditLogEntry> items, String nextCursor) {
+}
@@ -0,0 +1,15 @@
+package com.animalfarm.dto;
+
+import com.animalfarm.model.BillingOwnerStatus;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record BillingRunOwnerEntry(
+        UUID ownerId,
+        String ownerFirstName,
+        BillingOwnerStatus status,
+        Long invoiceId,
+        String error,
+        LocalDateTime updatedAt
+) {
+}
@@ -0,0 +1,11 @@
+package com.animalfarm.dto;
+
+import java.util.UUID;
+
+public record HerdGraphStats(
+        UUID animalId,
+        int descendants,
+        int activeDescendants,
+        int recordedGenerations
+) {
+}
@@ -0,0 +1,20 @@
+package com.animalfarm.dto;
+
+import java.util.UUID;
+
+/**
+ * Result of checking a prospective pairing. {@code commonAncestorId} is the nearest shared
+ * ancestor (possibly one of the pair itself) and the depths count generations up from each
+ * animal; {@code coefficient} is Wright's inbreeding coefficient of their offspring.
+ */
+public record InbreedingCheck(
+        UUID firstAnimalId,
+        UUID secondAnimalId,
+        int generations,
+        boolean related,
+        UUID commonAncestorId,
+        Integer firstDepth,
+        Integer secondDepth,
+        double coefficient
+) {
+}
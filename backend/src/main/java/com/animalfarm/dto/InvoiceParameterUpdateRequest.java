@@ -3,7 +3,12 @@ package com.animalfarm.dto;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.YearMonth;
 
+/**
+ * New rates starting in {@code effectiveFrom} (the current month when omitted). Earlier months keep
+ * the rates they had.
+ */
 public record InvoiceParameterUpdateRequest(
         @NotNull @DecimalMin("0.0") BigDecimal cattleMonthlyFeeds,
         @NotNull @DecimalMin("0.0") BigDecimal cattleMonthlyMedication,
@@ -12,6 +17,7 @@ public record InvoiceParameterUpdateRequest(
         @NotNull @DecimalMin("0.0") BigDecimal pigMonthlyFeeds,
         @NotNull @DecimalMin("0.0") BigDecimal pigMonthlyMedication,
         @NotNull @DecimalMin("0.0") BigDecimal ramMonthlyFeeds,
-        @NotNull @DecimalMin("0.0") BigDecimal ramMonthlyMedication
+        @NotNull @DecimalMin("0.0") BigDecimal ramMonthlyMedication,
+        YearMonth effectiveFrom
 ) {
 }
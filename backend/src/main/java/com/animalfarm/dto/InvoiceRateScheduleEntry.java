@@ -0,0 +1,15 @@
+package com.animalfarm.dto;
+
+import java.time.YearMonth;
+
+/**
+ * One stored rate schedule. {@code effectiveFrom} is null for the original schedule, and
+ * {@code version} matches {@code rateVersion} on the invoices charged with it.
+ */
+public record InvoiceRateScheduleEntry(
+        long version,
+        YearMonth effectiveFrom,
+        boolean superseded,
+        InvoiceParameterDto rates
+) {
+}
@@ -0,0 +1,54 @@
+package com.animalfarm.dto;
+
+import com.animalfarm.model.BillingOwnerStatus;
+import com.animalfarm.model.BillingRun;
+import com.animalfarm.model.BillingRunStatus;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Progress of one billing run. {@code owners} counts the run's owners by state; an owner is
+ * processed once it has left {@code PENDING}.
+ */
+public record InvoiceRunProgress(
+        Long runId,
+        Integer periodYear,
+        Integer periodMonth,
+        BillingRunStatus status,
+        boolean running,
+        long totalOwners,
+        long processedOwners,
+        long invoicesCreated,
+        long emailsQueued,
+        Map<BillingOwnerStatus, Long> owners,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        String error
+) {
+    public static InvoiceRunProgress idle() {
+        return new InvoiceRunProgress(null, null, null, null, false, 0, 0, 0, 0,
+                new EnumMap<>(BillingOwnerStatus.class), null, null, null, null);
+    }
+
+    public static InvoiceRunProgress from(BillingRun run, Map<BillingOwnerStatus, Long> owners) {
+        boolean active = run.getStatus() == BillingRunStatus.QUEUED || run.getStatus() == BillingRunStatus.RUNNING;
+        return new InvoiceRunProgress(
+                run.getId(),
+                run.getPeriodYear(),
+                run.getPeriodMonth(),
+                run.getStatus(),
+                active,
+                run.getTotalOwners(),
+                run.getTotalOwners() - owners.getOrDefault(BillingOwnerStatus.PENDING, 0L),
+                run.getInvoicesCreated(),
+                run.getEmailsQueued(),
+                owners,
+                run.getCreatedAt(),
+                run.getStartedAt(),
+                run.getFinishedAt(),
+                run.getError()
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.animalfarm.dto;
+
+import com.animalfarm.model.AnimalType;
+import java.time.LocalDate;
+import java.util.UUID;
+
+public record LineageNode(
+        UUID animalId,
+        UUID parentId,
+        AnimalType type,
+        String breed,
+        String color,
+        LocalDate dateOfBirth,
+        boolean sold,
+        int depth
+) {
+}
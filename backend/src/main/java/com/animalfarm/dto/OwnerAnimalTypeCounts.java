@@ -0,0 +1,13 @@
+package com.animalfarm.dto;
+
+import java.util.UUID;
+
+public record OwnerAnimalTypeCounts(
+        UUID ownerId,
+        String firstName,
+        long cattle,
+        long goats,
+        long rams,
+        long pigs
+) {
+}
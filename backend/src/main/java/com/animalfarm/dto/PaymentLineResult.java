@@ -0,0 +1,9 @@
+package com.animalfarm.dto;
+
+public record PaymentLineResult(
+        long line,
+        Long invoiceId,
+        PaymentLineStatus status,
+        String message
+) {
+}
@@ -0,0 +1,10 @@
+package com.animalfarm.dto;
+
+public enum PaymentLineStatus {
+    PAID,
+    ALREADY_PAID,
+    DUPLICATE,
+    NOT_FOUND,
+    AMOUNT_MISMATCH,
+    INVALID
+}
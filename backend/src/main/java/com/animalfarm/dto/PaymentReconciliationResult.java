@@ -0,0 +1,20 @@
+package com.animalfarm.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a payment file: one result per line in file order, plus how long reading the file,
+ * matching invoices and writing the paid flags took.
+ */
+public record PaymentReconciliationResult(
+        long lines,
+        long paid,
+        long alreadyPaid,
+        long rejected,
+        List<PaymentLineResult> results,
+        long parseMillis,
+        long matchMillis,
+        long updateMillis,
+        long elapsedMillis
+) {
+}
@@ -2,11 +2,12 @@ package com.animalfarm.dto;
 
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 import java.util.UUID;
 
 public record TransferAnimalsRequest(
         @NotNull UUID toOwnerId,
-        @NotEmpty List<UUID> animalIds
+        @NotEmpty @Size(max = 10_000) List<UUID> animalIds
 ) {
 }
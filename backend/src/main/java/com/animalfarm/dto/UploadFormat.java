@@ -0,0 +1,10 @@
+package com.animalfarm.dto;
+
+/**
+ * File formats accepted by the row upload endpoints (animal import, payment reconciliation). CSV
+ * files start with a header row.
+ */
+public enum UploadFormat {
+    NDJSON,
+    CSV
+}
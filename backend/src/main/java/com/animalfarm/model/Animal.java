@@ -8,18 +8,29 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.Lob;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import java.util.UUID;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 @Entity
-@Table(name = "animals")
+@Table(
+        name = "animals",
+        indexes = {
+                @Index(name = "ix_animals_owner", columnList = "owner_id, id"),
+                @Index(name = "ix_animals_type_sold", columnList = "type, sold, id"),
+                @Index(name = "ix_animals_sold", columnList = "sold, id"),
+                @Index(name = "ix_animals_breed", columnList = "breed, id"),
+                @Index(name = "ix_animals_dob", columnList = "date_of_birth, id"),
+                @Index(name = "ix_animals_sold_owner_type", columnList = "sold, owner_id, type")
+        }
+)
 public class Animal {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -42,8 +53,11 @@ public class Animal {
     @Column(nullable = false)
     private AnimalType type;
 
-    @Lob
-    private String image;
+    @Column(length = 64)
+    private String imageHash;
+
+    @Column(length = 100)
+    private String imageContentType;
 
     @Column(length = 36)
     @JdbcTypeCode(SqlTypes.CHAR)
@@ -56,6 +70,10 @@ public class Animal {
     @Column(nullable = false)
     private boolean sold;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public Long getId() {
         return id;
     }
@@ -100,12 +118,20 @@ public class Animal {
         this.type = type;
     }
 
-    public String getImage() {
-        return image;
+    public String getImageHash() {
+        return imageHash;
+    }
+
+    public void setImageHash(String imageHash) {
+        this.imageHash = imageHash;
+    }
+
+    public String getImageContentType() {
+        return imageContentType;
     }
 
-    public void setImage(String image) {
-        this.image = image;
+    public void setImageContentType(String imageContentType) {
+        this.imageContentType = imageContentType;
     }
 
     public UUID getParentId() {
@@ -132,6 +158,10 @@ public class Animal {
         this.sold = sold;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     @PrePersist
     void onCreate() {
         if (animalId == null) {
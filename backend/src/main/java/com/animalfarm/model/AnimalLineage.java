@@ -0,0 +1,65 @@
+package com.animalfarm.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Closure table over {@code animals.parent_id}: one row for every (ancestor, descendant) pair,
+ * including a depth-0 row pairing each animal with itself. Rows are written with plain SQL by
+ * {@code LineageService}; the entity exists so the schema is managed with the rest.
+ */
+@Entity
+@Table(
+        name = "animal_lineage",
+        indexes = @Index(name = "ix_animal_lineage_descendant", columnList = "descendant_id, depth")
+)
+public class AnimalLineage {
+    @EmbeddedId
+    private Key key;
+
+    @Column(nullable = false)
+    private int depth;
+
+    public Key getKey() {
+        return key;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "ancestor_id", nullable = false)
+        private Long ancestorId;
+
+        @Column(name = "descendant_id", nullable = false)
+        private Long descendantId;
+
+        public Long getAncestorId() {
+            return ancestorId;
+        }
+
+        public Long getDescendantId() {
+            return descendantId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key
+                    && Objects.equals(ancestorId, key.ancestorId)
+                    && Objects.equals(descendantId, key.descendantId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ancestorId, descendantId);
+        }
+    }
+}
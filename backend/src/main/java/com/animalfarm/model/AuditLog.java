@@ -7,17 +7,25 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(
+        name = "audit_logs",
+        indexes = {
+                @Index(name = "ix_audit_logs_created", columnList = "created_at, id"),
+                @Index(name = "ix_audit_logs_actor_created", columnList = "actor_username, created_at, id"),
+                @Index(name = "ix_audit_logs_action_created", columnList = "action, created_at, id")
+        }
+)
 public class AuditLog {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    @Column
     private Long actorUserId;
 
     @Column(nullable = false)
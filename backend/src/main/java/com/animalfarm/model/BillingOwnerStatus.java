@@ -0,0 +1,13 @@
+package com.animalfarm.model;
+
+/**
+ * Where one owner stands in a billing run: {@code CREATED} once the invoice exists and its email is
+ * queued, {@code RENDERED} once its PDF is cached, {@code EMAILED} once the outbox delivered it.
+ */
+public enum BillingOwnerStatus {
+    PENDING,
+    CREATED,
+    RENDERED,
+    EMAILED,
+    FAILED
+}
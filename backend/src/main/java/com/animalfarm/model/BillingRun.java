@@ -0,0 +1,150 @@
+package com.animalfarm.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.LocalDateTime;
+
+/**
+ * One month-end billing job. The worker holding it renews {@code leaseUntil} after every chunk;
+ * a run whose lease has expired (e.g. its node restarted) is picked up again and resumes with the
+ * owners still pending. Each claim writes a fresh {@code claimToken}, and every write the worker
+ * makes for the run requires it, so a worker that lost its lease cannot touch the run again.
+ * {@code smtpSecret} is the run's SMTP password sealed by {@code InvoiceEmailService}, if one was
+ * given; it is copied onto the run's outbox rows. {@code activePeriod} is the run's {@code yyyymm}
+ * while it is queued or running and null once it finishes; its unique constraint allows at most one
+ * active run per month.
+ */
+@Entity
+@Table(
+        name = "billing_runs",
+        uniqueConstraints = @UniqueConstraint(name = "ux_billing_runs_active_period", columnNames = "active_period"),
+        indexes = @Index(name = "ix_billing_runs_status", columnList = "status, id")
+)
+public class BillingRun {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer periodYear;
+
+    @Column(nullable = false)
+    private Integer periodMonth;
+
+    private Integer activePeriod;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BillingRunStatus status = BillingRunStatus.QUEUED;
+
+    @Column(nullable = false)
+    private long totalOwners;
+
+    @Column(nullable = false)
+    private long invoicesCreated;
+
+    @Column(nullable = false)
+    private long emailsQueued;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private LocalDateTime leaseUntil;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    @Column(length = 512)
+    private String smtpSecret;
+
+    @Column(length = 1000)
+    private String error;
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getPeriodYear() {
+        return periodYear;
+    }
+
+    public void setPeriodYear(Integer periodYear) {
+        this.periodYear = periodYear;
+    }
+
+    public Integer getPeriodMonth() {
+        return periodMonth;
+    }
+
+    public void setPeriodMonth(Integer periodMonth) {
+        this.periodMonth = periodMonth;
+    }
+
+    public Integer getActivePeriod() {
+        return activePeriod;
+    }
+
+    public void setActivePeriod(Integer activePeriod) {
+        this.activePeriod = activePeriod;
+    }
+
+    public BillingRunStatus getStatus() {
+        return status;
+    }
+
+    public long getTotalOwners() {
+        return totalOwners;
+    }
+
+    public void setTotalOwners(long totalOwners) {
+        this.totalOwners = totalOwners;
+    }
+
+    public long getInvoicesCreated() {
+        return invoicesCreated;
+    }
+
+    public long getEmailsQueued() {
+        return emailsQueued;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getSmtpSecret() {
+        return smtpSecret;
+    }
+
+    public void setSmtpSecret(String smtpSecret) {
+        this.smtpSecret = smtpSecret;
+    }
+
+    public LocalDateTime getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,93 @@
+package com.animalfarm.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Per-owner state of a {@link BillingRun}. Rows are seeded for every owner when the run is queued
+ * and advanced with plain SQL by {@code MonthlyInvoicePipeline} and {@code InvoiceEmailDispatcher};
+ * the entity exists so the schema is managed with the rest.
+ */
+@Entity
+@Table(
+        name = "billing_run_owners",
+        indexes = {
+                @Index(name = "ix_billing_run_owners_status", columnList = "run_id, status, owner_id"),
+                @Index(name = "ix_billing_run_owners_invoice", columnList = "invoice_id")
+        }
+)
+public class BillingRunOwner {
+    @EmbeddedId
+    private Key key;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BillingOwnerStatus status;
+
+    @Column(name = "invoice_id")
+    private Long invoiceId;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public Key getKey() {
+        return key;
+    }
+
+    public BillingOwnerStatus getStatus() {
+        return status;
+    }
+
+    public Long getInvoiceId() {
+        return invoiceId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "run_id", nullable = false)
+        private Long runId;
+
+        @Column(name = "owner_id", nullable = false)
+        private Long ownerId;
+
+        public Long getRunId() {
+            return runId;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key key
+                    && Objects.equals(runId, key.runId)
+                    && Objects.equals(ownerId, key.ownerId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(runId, ownerId);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.animalfarm.model;
+
+public enum BillingRunStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
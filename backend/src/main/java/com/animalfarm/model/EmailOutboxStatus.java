@@ -0,0 +1,7 @@
+package com.animalfarm.model;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,120 @@
+package com.animalfarm.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * A queued invoice email. A dispatcher claims due rows by stamping {@code claimToken} and pushing
+ * {@code nextAttemptAt} past the claim period, so rows are sent by one node at a time and picked up
+ * again if that node dies mid-batch. {@code smtpSecret} is the sealed per-run SMTP password, if any,
+ * and {@code runId} the billing run whose owner the delivery completes.
+ */
+@Entity
+@Table(
+        name = "invoice_email_outbox",
+        indexes = @Index(name = "ix_invoice_email_outbox_due", columnList = "status, next_attempt_at")
+)
+public class InvoiceEmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "invoice_id", nullable = false, unique = true)
+    private OwnerInvoice invoice;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+    @Column(length = 1000)
+    private String lastError;
+
+    @Column(length = 512)
+    private String smtpSecret;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    private Long runId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public Long getId() {
+        return id;
+    }
+
+    public OwnerInvoice getInvoice() {
+        return invoice;
+    }
+
+    public void setInvoice(OwnerInvoice invoice) {
+        this.invoice = invoice;
+    }
+
+    public EmailOutboxStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(EmailOutboxStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public String getSmtpSecret() {
+        return smtpSecret;
+    }
+
+    public String getClaimToken() {
+        return claimToken;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
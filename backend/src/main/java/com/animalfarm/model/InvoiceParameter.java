@@ -5,16 +5,28 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 
+/**
+ * One rate schedule. Rows are only ever added: a schedule applies from {@code effectivePeriod}
+ * (yyyymm, 0 for the original row) until the next later one, and for equal periods the row
+ * with the higher id wins.
+ */
 @Entity
-@Table(name = "invoice_parameters")
+@Table(
+        name = "invoice_parameters",
+        indexes = @Index(name = "ix_invoice_parameters_effective", columnList = "effective_period, id")
+)
 public class InvoiceParameter {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(nullable = false)
+    private int effectivePeriod;
+
     @Column(nullable = false, precision = 14, scale = 2)
     private BigDecimal cattleMonthlyFeeds = BigDecimal.ZERO;
 
@@ -43,6 +55,14 @@ public class InvoiceParameter {
         return id;
     }
 
+    public int getEffectivePeriod() {
+        return effectivePeriod;
+    }
+
+    public void setEffectivePeriod(int effectivePeriod) {
+        this.effectivePeriod = effectivePeriod;
+    }
+
     public BigDecimal getCattleMonthlyFeeds() {
         return cattleMonthlyFeeds;
     }
@@ -0,0 +1,46 @@
+package com.animalfarm.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+
+/**
+ * Carried-balance ledger: for every owner with an unpaid invoice, the latest such invoice and the
+ * amount it carries into the next one. Rows are written with plain SQL by
+ * {@code OwnerBalanceLedger}; the entity exists so the schema is managed with the rest.
+ */
+@Entity
+@Table(name = "owner_balances")
+public class OwnerBalance {
+    @Id
+    @Column(name = "owner_id")
+    private Long ownerId;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal balance;
+
+    /** Period of {@link #lastInvoiceId} as yyyymm. */
+    @Column(nullable = false)
+    private int lastPeriod;
+
+    @Column(nullable = false)
+    private Long lastInvoiceId;
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public int getLastPeriod() {
+        return lastPeriod;
+    }
+
+    public Long getLastInvoiceId() {
+        return lastInvoiceId;
+    }
+}
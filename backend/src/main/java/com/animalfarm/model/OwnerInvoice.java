@@ -6,14 +6,23 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "owner_invoices")
+@Table(
+        name = "owner_invoices",
+        uniqueConstraints = @UniqueConstraint(
+                name = "ux_owner_invoices_owner_period",
+                columnNames = {"owner_id", "period_year", "period_month"}
+        ),
+        indexes = @Index(name = "ix_owner_invoices_owner_unpaid", columnList = "owner_id, paid, period_year, period_month")
+)
 public class OwnerInvoice {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -53,6 +62,20 @@ public class OwnerInvoice {
     @Column(nullable = false)
     private boolean paid;
 
+    /**
+     * Bumped whenever a field printed on the invoice PDF changes, including the owner's name and email,
+     * so cached renders can be keyed by it.
+     */
+    @Column(nullable = false)
+    private int contentVersion;
+
+    /**
+     * {@code invoice_parameters.id} of the rate schedule the current charge was computed with,
+     * or 0 for invoices charged before schedules were kept.
+     */
+    @Column(nullable = false)
+    private long rateVersion;
+
     @Column(nullable = false)
     private boolean emailSent;
 
@@ -154,9 +177,24 @@ public class OwnerInvoice {
     }
 
     public void setPaid(boolean paid) {
+        if (this.paid != paid) {
+            contentVersion++;
+        }
         this.paid = paid;
     }
 
+    public int getContentVersion() {
+        return contentVersion;
+    }
+
+    public long getRateVersion() {
+        return rateVersion;
+    }
+
+    public void setRateVersion(long rateVersion) {
+        this.rateVersion = rateVersion;
+    }
+
     public boolean isEmailSent() {
         return emailSent;
     }
@@ -6,13 +6,21 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(
+        name = "refresh_tokens",
+        indexes = {
+                @Index(name = "ix_refresh_tokens_family", columnList = "family_id"),
+                @Index(name = "ix_refresh_tokens_expires", columnList = "expires_at"),
+                @Index(name = "ix_refresh_tokens_revoked_at", columnList = "revoked_at")
+        }
+)
 public class RefreshToken {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,12 +33,17 @@ public class RefreshToken {
     @Column(nullable = false, unique = true, length = 128)
     private String tokenHash;
 
+    @Column(length = 36)
+    private String familyId;
+
     @Column(nullable = false)
     private LocalDateTime expiresAt;
 
     @Column(nullable = false)
     private boolean revoked;
 
+    private LocalDateTime revokedAt;
+
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -54,6 +67,14 @@ public class RefreshToken {
         this.tokenHash = tokenHash;
     }
 
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
     public LocalDateTime getExpiresAt() {
         return expiresAt;
     }
@@ -70,6 +91,14 @@ public class RefreshToken {
         this.revoked = revoked;
     }
 
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
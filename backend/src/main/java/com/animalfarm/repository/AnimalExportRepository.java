@@ -0,0 +1,9 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.dto.AnimalExportRow;
+import com.animalfarm.dto.AnimalFilter;
+import java.util.stream.Stream;
+
+public interface AnimalExportRepository {
+    Stream<AnimalExportRow> streamForExport(AnimalFilter filter);
+}
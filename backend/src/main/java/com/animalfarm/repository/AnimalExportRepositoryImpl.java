@@ -0,0 +1,86 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.dto.AnimalExportRow;
+import com.animalfarm.dto.AnimalFilter;
+import com.animalfarm.model.Animal;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.stream.Stream;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Streams export rows as a constructor projection through a stateless session, so nothing is kept
+ * in a persistence context and heap use stays flat regardless of how many rows match. The session
+ * runs on a connection from {@link ExportDataSource}, the only pool that fetches through a cursor.
+ */
+class AnimalExportRepositoryImpl implements AnimalExportRepository {
+    private final SessionFactory sessionFactory;
+    private final ExportDataSource exportDataSource;
+    private final int fetchSize;
+
+    AnimalExportRepositoryImpl(
+            EntityManagerFactory entityManagerFactory,
+            ExportDataSource exportDataSource,
+            @Value("${app.animals.export.fetch-size:1000}") int fetchSize
+    ) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.exportDataSource = exportDataSource;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<AnimalExportRow> streamForExport(AnimalFilter filter) {
+        Connection connection;
+        try {
+            connection = exportDataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new DataAccessResourceFailureException("Could not open an export connection", ex);
+        }
+        StatelessSession session = sessionFactory.withStatelessOptions().connection(connection).openStatelessSession();
+        try {
+            CriteriaBuilder cb = session.getCriteriaBuilder();
+            CriteriaQuery<AnimalExportRow> query = cb.createQuery(AnimalExportRow.class);
+            Root<Animal> root = query.from(Animal.class);
+            query.select(cb.construct(
+                    AnimalExportRow.class,
+                    root.get("id"),
+                    root.get("animalId"),
+                    root.get("color"),
+                    root.get("dateOfBirth"),
+                    root.get("breed"),
+                    root.get("type"),
+                    root.get("parentId"),
+                    root.get("owner").get("ownerId"),
+                    root.get("sold")
+            ));
+            query.where(AnimalSpecifications.matching(filter, null).toPredicate(root, query, cb));
+            query.orderBy(cb.asc(root.get("id")));
+            return session.createQuery(query)
+                    .setFetchSize(fetchSize)
+                    .getResultStream()
+                    .onClose(() -> close(session, connection));
+        } catch (RuntimeException ex) {
+            close(session, connection);
+            throw ex;
+        }
+    }
+
+    private static void close(StatelessSession session, Connection connection) {
+        try {
+            session.close();
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // The pool discards a connection it cannot return cleanly.
+            }
+        }
+    }
+}
@@ -1,15 +1,37 @@
 package com.animalfarm.repository;
 
 import com.animalfarm.model.Animal;
-import com.animalfarm.model.AnimalType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-public interface AnimalRepository extends JpaRepository<Animal, Long> {
+public interface AnimalRepository
+        extends JpaRepository<Animal, Long>, JpaSpecificationExecutor<Animal>, AnimalExportRepository,
+        AnimalTransferRepository {
+    @EntityGraph(attributePaths = "owner")
     Optional<Animal> findByAnimalId(UUID animalId);
-    List<Animal> findByOwnerOwnerId(UUID ownerId);
+
+    @EntityGraph(attributePaths = "owner")
+    List<Animal> findByAnimalIdIn(Collection<UUID> animalIds);
+
+    @EntityGraph(attributePaths = "owner")
     List<Animal> findByParentId(UUID parentId);
-    long countByOwnerIdAndTypeAndSoldFalse(Long ownerId, AnimalType type);
+
+    @Query("select a.owner.id as ownerId, a.type as type, count(a) as total from Animal a "
+            + "where a.sold = false group by a.owner.id, a.type")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<OwnerTypeCount> streamActiveCountsByOwnerAndType();
+
+    @Query("select a.owner.id as ownerId, a.type as type, count(a) as total from Animal a "
+            + "where a.sold = false and a.owner.id = :ownerId group by a.owner.id, a.type")
+    List<OwnerTypeCount> findActiveCountsByOwner(Long ownerId);
 }
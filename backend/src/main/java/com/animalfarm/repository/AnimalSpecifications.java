@@ -0,0 +1,41 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.dto.AnimalFilter;
+import com.animalfarm.model.Animal;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class AnimalSpecifications {
+    private AnimalSpecifications() {
+    }
+
+    public static Specification<Animal> matching(AnimalFilter filter, Long afterId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (afterId != null) {
+                predicates.add(cb.greaterThan(root.get("id"), afterId));
+            }
+            if (filter.type() != null) {
+                predicates.add(cb.equal(root.get("type"), filter.type()));
+            }
+            if (filter.sold() != null) {
+                predicates.add(cb.equal(root.get("sold"), filter.sold()));
+            }
+            if (filter.ownerId() != null) {
+                predicates.add(cb.equal(root.get("owner").get("ownerId"), filter.ownerId()));
+            }
+            if (filter.breed() != null && !filter.breed().isBlank()) {
+                predicates.add(cb.equal(root.get("breed"), filter.breed().trim()));
+            }
+            if (filter.bornFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateOfBirth"), filter.bornFrom()));
+            }
+            if (filter.bornTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dateOfBirth"), filter.bornTo()));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
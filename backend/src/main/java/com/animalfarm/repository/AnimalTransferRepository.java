@@ -0,0 +1,16 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.model.Animal;
+import com.animalfarm.model.Owner;
+import java.util.List;
+
+public interface AnimalTransferRepository {
+    /**
+     * Moves the given animals to {@code toOwner} with one UPDATE that matches each row on its id
+     * and the version it was loaded with.
+     *
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if any animal was
+     *         changed or removed since it was loaded
+     */
+    void transferOwner(List<Animal> animals, Owner toOwner);
+}
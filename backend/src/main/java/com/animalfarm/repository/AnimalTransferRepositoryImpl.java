@@ -0,0 +1,46 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.model.Animal;
+import com.animalfarm.model.Owner;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.util.List;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+/**
+ * The (id, version) pairs go into a single row-constructor IN list, which MySQL resolves with
+ * primary key lookups. Afterwards the animals are detached and given the new owner, so the
+ * caller can return them without Hibernate flushing a second, stale-versioned update.
+ */
+class AnimalTransferRepositoryImpl implements AnimalTransferRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void transferOwner(List<Animal> animals, Owner toOwner) {
+        if (animals.isEmpty()) {
+            return;
+        }
+        StringBuilder sql = new StringBuilder(
+                "update animals set owner_id = ?1, version = version + 1 where (id, version) in (");
+        for (int i = 0; i < animals.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?").append(2 * i + 2).append(", ?").append(2 * i + 3).append(')');
+        }
+        Query update = entityManager.createNativeQuery(sql.append(')').toString());
+        update.setParameter(1, toOwner.getId());
+        for (int i = 0; i < animals.size(); i++) {
+            update.setParameter(2 * i + 2, animals.get(i).getId());
+            update.setParameter(2 * i + 3, animals.get(i).getVersion());
+        }
+        int updated = update.executeUpdate();
+        if (updated != animals.size()) {
+            throw new ObjectOptimisticLockingFailureException(Animal.class, animals.size() - updated
+                    + " of " + animals.size() + " animals");
+        }
+        for (Animal animal : animals) {
+            entityManager.detach(animal);
+            animal.setOwner(toOwner);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.dto.AuditLogFilter;
+import com.animalfarm.model.AuditLog;
+import jakarta.persistence.criteria.Predicate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class AuditLogSpecifications {
+    private AuditLogSpecifications() {
+    }
+
+    /**
+     * Matches the filter, continuing a newest-first scan after ({@code beforeCreatedAt}, {@code beforeId}).
+     */
+    public static Specification<AuditLog> matching(AuditLogFilter filter, LocalDateTime beforeCreatedAt, Long beforeId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.actorUsername() != null && !filter.actorUsername().isBlank()) {
+                predicates.add(cb.equal(root.get("actorUsername"), filter.actorUsername().trim()));
+            }
+            if (filter.action() != null && !filter.action().isBlank()) {
+                predicates.add(cb.equal(root.get("action"), filter.action().trim()));
+            }
+            if (filter.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.from()));
+            }
+            if (filter.to() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filter.to()));
+            }
+            if (beforeCreatedAt != null && beforeId != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), beforeCreatedAt));
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("createdAt"), beforeCreatedAt),
+                        cb.lessThan(root.get("id"), beforeId)
+                ));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.model.BillingRun;
+import com.animalfarm.model.BillingRunStatus;
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface BillingRunRepository extends JpaRepository<BillingRun, Long> {
+    Optional<BillingRun> findFirstByStatusInOrderByIdAsc(Collection<BillingRunStatus> statuses);
+
+    Optional<BillingRun> findFirstByOrderByIdDesc();
+
+    Optional<BillingRun> findByActivePeriod(Integer activePeriod);
+}
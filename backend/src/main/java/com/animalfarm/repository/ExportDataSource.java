@@ -0,0 +1,52 @@
+package com.animalfarm.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Small read-only pool used only by the animal export. On MySQL its URL adds
+ * {@code app.animals.export.url-parameters} (by default {@code useCursorFetch=true}) to the
+ * application datasource URL, so the export reads through a server-side cursor while every other
+ * query keeps the driver's default fetch behaviour. It is not a {@code DataSource} bean, so the
+ * primary datasource is still auto-configured.
+ */
+@Component
+class ExportDataSource implements DisposableBean {
+    private final HikariDataSource dataSource;
+
+    ExportDataSource(
+            DataSourceProperties properties,
+            @Value("${app.animals.export.url-parameters:useCursorFetch=true}") String urlParameters,
+            @Value("${app.animals.export.pool-size:2}") int poolSize
+    ) {
+        this.dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(exportUrl(properties.determineUrl(), urlParameters))
+                .build();
+        dataSource.setPoolName("animal-export");
+        dataSource.setMaximumPoolSize(Math.max(1, poolSize));
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+    }
+
+    Connection getConnection() throws SQLException {
+        return dataSource.getConnection();
+    }
+
+    @Override
+    public void destroy() {
+        dataSource.close();
+    }
+
+    static String exportUrl(String url, String urlParameters) {
+        if (url == null || !url.startsWith("jdbc:mysql:") || urlParameters == null || urlParameters.isBlank()) {
+            return url;
+        }
+        return url + (url.indexOf('?') >= 0 ? "&" : "?") + urlParameters.trim();
+    }
+}
@@ -0,0 +1,16 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.model.InvoiceEmailOutbox;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface InvoiceEmailOutboxRepository extends JpaRepository<InvoiceEmailOutbox, Long> {
+    @Query("select o from InvoiceEmailOutbox o join fetch o.invoice i join fetch i.owner "
+            + "where o.claimToken = :claimToken order by o.id")
+    List<InvoiceEmailOutbox> findClaimed(String claimToken);
+
+    @Query("select o from InvoiceEmailOutbox o where o.invoice.id in :invoiceIds")
+    List<InvoiceEmailOutbox> findByInvoiceIds(Collection<Long> invoiceIds);
+}
@@ -1,7 +1,9 @@
 package com.animalfarm.repository;
 
 import com.animalfarm.model.InvoiceParameter;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface InvoiceParameterRepository extends JpaRepository<InvoiceParameter, Long> {
+    List<InvoiceParameter> findAllByOrderByEffectivePeriodAscIdAsc();
 }
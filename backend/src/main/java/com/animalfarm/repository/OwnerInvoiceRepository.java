@@ -1,16 +1,53 @@
 package com.animalfarm.repository;
 
 import com.animalfarm.model.OwnerInvoice;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-public interface OwnerInvoiceRepository extends JpaRepository<OwnerInvoice, Long> {
+public interface OwnerInvoiceRepository extends JpaRepository<OwnerInvoice, Long>, JpaSpecificationExecutor<OwnerInvoice> {
     Optional<OwnerInvoice> findByOwnerIdAndPeriodYearAndPeriodMonth(Long ownerId, Integer periodYear, Integer periodMonth);
-    List<OwnerInvoice> findByOwnerIdAndPaidFalseOrderByPeriodYearDescPeriodMonthDesc(Long ownerId);
+
+    @EntityGraph(attributePaths = "owner")
+    Optional<OwnerInvoice> findWithOwnerById(Long id);
+
+    /**
+     * Loads the invoice with its row locked, so a repeatable-read transaction that goes on to update
+     * the owner's carried balance only starts reading after any payment holding it has committed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from OwnerInvoice i where i.id = :id")
+    Optional<OwnerInvoice> findForUpdateById(Long id);
+
+    @EntityGraph(attributePaths = "owner")
     List<OwnerInvoice> findAllByOrderByCreatedAtDesc();
+
+    @EntityGraph(attributePaths = "owner")
     List<OwnerInvoice> findByOwnerOwnerIdOrderByCreatedAtDesc(UUID ownerId);
+
+    @EntityGraph(attributePaths = "owner")
     List<OwnerInvoice> findByPeriodYearAndPeriodMonthOrderByCreatedAtDesc(Integer periodYear, Integer periodMonth);
+
+    @EntityGraph(attributePaths = "owner")
     List<OwnerInvoice> findByOwnerOwnerIdAndPeriodYearAndPeriodMonthOrderByCreatedAtDesc(UUID ownerId, Integer periodYear, Integer periodMonth);
+
+    @Query("select i from OwnerInvoice i join fetch i.owner "
+            + "where i.owner.id in :ownerIds and i.periodYear = :periodYear and i.periodMonth = :periodMonth")
+    List<OwnerInvoice> findForOwnersAndPeriod(Collection<Long> ownerIds, Integer periodYear, Integer periodMonth);
+
+    /**
+     * Bumps the content version, and with it the cached PDF and its ETag, of every invoice of an owner
+     * whose printed name or email changed.
+     */
+    @Modifying
+    @Query("update OwnerInvoice i set i.contentVersion = i.contentVersion + 1 where i.owner.id = :ownerId")
+    int bumpContentVersions(Long ownerId);
 }
@@ -0,0 +1,30 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.model.OwnerInvoice;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class OwnerInvoiceSpecifications {
+    private OwnerInvoiceSpecifications() {
+    }
+
+    public static Specification<OwnerInvoice> matching(UUID ownerId, Integer periodYear, Integer periodMonth, Long beforeId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (beforeId != null) {
+                predicates.add(cb.lessThan(root.get("id"), beforeId));
+            }
+            if (ownerId != null) {
+                predicates.add(cb.equal(root.get("owner").get("ownerId"), ownerId));
+            }
+            if (periodYear != null && periodMonth != null) {
+                predicates.add(cb.equal(root.get("periodYear"), periodYear));
+                predicates.add(cb.equal(root.get("periodMonth"), periodMonth));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
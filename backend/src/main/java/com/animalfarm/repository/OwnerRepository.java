@@ -1,12 +1,38 @@
 package com.animalfarm.repository;
 
+import com.animalfarm.dto.OwnerAnimalTypeCounts;
 import com.animalfarm.model.Owner;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface OwnerRepository extends JpaRepository<Owner, Long> {
     Optional<Owner> findByOwnerId(UUID ownerId);
+    List<Owner> findByOwnerIdIn(Collection<UUID> ownerIds);
     List<Owner> findByFirstNameContainingIgnoreCase(String firstName);
+    List<Owner> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * One row per owner with its animals (sold ones included) pivoted into a column per type.
+     */
+    @Query("select new com.animalfarm.dto.OwnerAnimalTypeCounts(o.ownerId, o.firstName, "
+            + "sum(case when a.type = com.animalfarm.model.AnimalType.CATTLE then 1L else 0L end), "
+            + "sum(case when a.type = com.animalfarm.model.AnimalType.GOAT then 1L else 0L end), "
+            + "sum(case when a.type = com.animalfarm.model.AnimalType.RAM then 1L else 0L end), "
+            + "sum(case when a.type = com.animalfarm.model.AnimalType.PIG then 1L else 0L end)) "
+            + "from Owner o left join Animal a on a.owner = o "
+            + "group by o.id, o.ownerId, o.firstName order by o.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<OwnerAnimalTypeCounts> streamAnimalTypeCounts();
 }
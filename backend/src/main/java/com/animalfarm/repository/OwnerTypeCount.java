@@ -0,0 +1,9 @@
+package com.animalfarm.repository;
+
+import com.animalfarm.model.AnimalType;
+
+public interface OwnerTypeCount {
+    Long getOwnerId();
+    AnimalType getType();
+    long getTotal();
+}
@@ -1,9 +1,22 @@
 package com.animalfarm.repository;
 
 import com.animalfarm.model.RefreshToken;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-    Optional<RefreshToken> findByTokenHashAndRevokedFalse(String tokenHash);
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true, t.revokedAt = :now "
+            + "where t.tokenHash = :tokenHash and t.revoked = false")
+    int revokeIfActive(String tokenHash, LocalDateTime now);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true, t.revokedAt = :now "
+            + "where t.familyId = :familyId and t.revoked = false")
+    int revokeFamily(String familyId, LocalDateTime now);
 }
@@ -1,7 +1,20 @@
 package com.animalfarm.repository;
 
 import com.animalfarm.model.TransferRequest;
+import com.animalfarm.model.TransferStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface TransferRequestRepository extends JpaRepository<TransferRequest, Long> {
+    /**
+     * Moves a request from {@code from} to {@code to} only if it is still in {@code from}. The row
+     * lock taken here makes a concurrent transition wait and then match nothing.
+     *
+     * @return 1 if this call made the transition, 0 otherwise
+     */
+    @Modifying
+    @Query("update TransferRequest t set t.status = :to, t.version = t.version + 1 "
+            + "where t.id = :id and t.status = :from")
+    int transition(Long id, TransferStatus from, TransferStatus to);
 }
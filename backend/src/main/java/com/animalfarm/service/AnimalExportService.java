@@ -0,0 +1,96 @@
+package com.animalfarm.service;
+
+import com.animalfarm.dto.AnimalExportFormat;
+import com.animalfarm.dto.AnimalExportRow;
+import com.animalfarm.dto.AnimalFilter;
+import com.animalfarm.repository.AnimalRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AnimalExportService {
+    private static final String CSV_HEADER = "id,animalId,color,dateOfBirth,breed,type,parentId,ownerId,sold";
+
+    private final AnimalRepository animalRepository;
+    private final ObjectMapper objectMapper;
+
+    public AnimalExportService(AnimalRepository animalRepository, ObjectMapper objectMapper) {
+        this.animalRepository = animalRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public long export(AnimalFilter filter, AnimalExportFormat format, OutputStream out) throws IOException {
+        try (Stream<AnimalExportRow> rows = animalRepository.streamForExport(filter)) {
+            return format == AnimalExportFormat.CSV ? writeCsv(rows.iterator(), out) : writeNdjson(rows.iterator(), out);
+        }
+    }
+
+    private long writeNdjson(Iterator<AnimalExportRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                objectMapper.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<AnimalExportRow> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            AnimalExportRow row = rows.next();
+            writer.write(String.valueOf(row.id()));
+            writer.write(',');
+            writer.write(String.valueOf(row.animalId()));
+            writer.write(',');
+            writeCsvField(writer, row.color());
+            writer.write(',');
+            writer.write(String.valueOf(row.dateOfBirth()));
+            writer.write(',');
+            writeCsvField(writer, row.breed());
+            writer.write(',');
+            writer.write(row.type().name());
+            writer.write(',');
+            writer.write(row.parentId() != null ? row.parentId().toString() : "");
+            writer.write(',');
+            writer.write(String.valueOf(row.ownerId()));
+            writer.write(',');
+            writer.write(row.sold() ? "true" : "false");
+            writer.write('\n');
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,290 @@
+package com.animalfarm.service;
+
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.AnimalImportError;
+import com.animalfarm.dto.AnimalImportResult;
+import com.animalfarm.dto.UploadFormat;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.Owner;
+import com.animalfarm.repository.OwnerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Registers many animals from a CSV or NDJSON upload. Rows are validated up front (owners and
+ * already used animal ids are resolved with one IN query per chunk), then the valid ones are
+ * written with JDBC batches; {@code rewriteBatchedStatements=true} turns each batch into
+ * multi-row inserts. Rows use the export column names, so an export can be imported again.
+ */
+@Service
+public class AnimalImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int LOOKUP_CHUNK = 1000;
+    private static final String INSERT_ANIMAL = "insert into animals "
+            + "(animal_id, color, date_of_birth, breed, type, parent_id, owner_id, sold, version) "
+            + "values (?, ?, ?, ?, ?, ?, ?, false, 0)";
+
+    private final OwnerRepository ownerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final LineageService lineageService;
+    private final AuditLogService auditLogService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxRows;
+
+    public AnimalImportService(
+            OwnerRepository ownerRepository,
+            JdbcTemplate jdbcTemplate,
+            LineageService lineageService,
+            AuditLogService auditLogService,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            @Value("${app.animals.import.batch-size:500}") int batchSize,
+            @Value("${app.animals.import.max-rows:50000}") int maxRows
+    ) {
+        this.ownerRepository = ownerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.lineageService = lineageService;
+        this.auditLogService = auditLogService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRows = Math.max(1, maxRows);
+    }
+
+    @Transactional
+    public AnimalImportResult importAnimals(InputStream in, UploadFormat format, AuthSession actor) throws IOException {
+        RoleValidator.requireAdmin(actor.role());
+        long started = System.nanoTime();
+        List<AnimalImportError> errors = new ArrayList<>();
+        long[] rejected = {0};
+        UploadedRows.ErrorSink reject = (line, message) -> {
+            rejected[0]++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new AnimalImportError(line, message));
+            }
+        };
+
+        List<UploadedRows.Row> raw = UploadedRows.read(in, format, objectMapper, maxRows, reject);
+        long total = raw.size() + rejected[0];
+        List<ImportRow> rows = validate(raw, reject);
+        insert(rows);
+
+        if (!rows.isEmpty()) {
+            auditLogService.log(actor, "IMPORT_ANIMALS", "Imported " + rows.size() + " animals ("
+                    + rejected[0] + " rows rejected)");
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - started);
+        return new AnimalImportResult(total, rows.size(), rejected[0], errors,
+                elapsedNanos / 1_000_000, rows.size() * 1e9 / elapsedNanos);
+    }
+
+    private List<ImportRow> validate(List<UploadedRows.Row> raw, UploadedRows.ErrorSink reject) {
+        Map<UUID, Long> owners = resolveOwners(raw);
+        Set<UUID> taken = existingAnimalIds(raw);
+        Set<UUID> declared = new HashSet<>();
+        for (UploadedRows.Row row : raw) {
+            UUID animalId = parseUuidOrNull(row.get("animalId"));
+            if (animalId != null) {
+                declared.add(animalId);
+            }
+        }
+        Set<UUID> accepted = new HashSet<>();
+        List<ImportRow> rows = new ArrayList<>(raw.size());
+        for (UploadedRows.Row row : raw) {
+            try {
+                UUID declaredId = optionalUuid(row, "animalId");
+                if (declaredId != null && (taken.contains(declaredId) || accepted.contains(declaredId))) {
+                    throw new RowException("animalId " + declaredId + " is already used.");
+                }
+                UUID parentId = optionalUuid(row, "parentId");
+                if (parentId != null && declared.contains(parentId) && !taken.contains(parentId)
+                        && !accepted.contains(parentId)) {
+                    throw new RowException("Parent " + parentId + " was rejected or is listed after its offspring.");
+                }
+                UUID ownerId = requiredUuid(row, "ownerId");
+                Long ownerDbId = owners.get(ownerId);
+                if (ownerDbId == null) {
+                    throw new RowException("Owner not found: " + ownerId);
+                }
+                ImportRow valid = new ImportRow(
+                        declaredId != null ? declaredId : UUID.randomUUID(),
+                        required(row, "color"),
+                        date(row, "dateOfBirth"),
+                        required(row, "breed"),
+                        type(row),
+                        parentId,
+                        ownerDbId
+                );
+                accepted.add(valid.animalId());
+                rows.add(valid);
+            } catch (RowException e) {
+                reject.add(row.line(), e.getMessage());
+            }
+        }
+        return rows;
+    }
+
+    private void insert(List<ImportRow> rows) {
+        List<AnimalRegisteredEvent> registered = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<ImportRow> batch = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            jdbcTemplate.batchUpdate(INSERT_ANIMAL, batch, batch.size(), (ps, row) -> {
+                ps.setString(1, row.animalId().toString());
+                ps.setString(2, row.color());
+                ps.setDate(3, Date.valueOf(row.dateOfBirth()));
+                ps.setString(4, row.breed());
+                ps.setString(5, row.type().name());
+                ps.setString(6, row.parentId() != null ? row.parentId().toString() : null);
+                ps.setLong(7, row.ownerId());
+            });
+            Map<UUID, Long> ids = idsOf(batch);
+            List<Long> batchIds = new ArrayList<>(batch.size());
+            for (ImportRow row : batch) {
+                Long id = ids.get(row.animalId());
+                batchIds.add(id);
+                registered.add(new AnimalRegisteredEvent(id, row.animalId(), row.parentId()));
+            }
+            lineageService.recordBirths(batchIds);
+        }
+        if (!registered.isEmpty()) {
+            eventPublisher.publishEvent(new AnimalsRegisteredEvent(registered));
+        }
+    }
+
+    private Map<UUID, Long> resolveOwners(List<UploadedRows.Row> raw) {
+        Set<UUID> ownerIds = new HashSet<>();
+        for (UploadedRows.Row row : raw) {
+            UUID ownerId = parseUuidOrNull(row.get("ownerId"));
+            if (ownerId != null) {
+                ownerIds.add(ownerId);
+            }
+        }
+        Map<UUID, Long> owners = new HashMap<>(ownerIds.size() * 2);
+        List<UUID> pending = new ArrayList<>(ownerIds);
+        for (int from = 0; from < pending.size(); from += LOOKUP_CHUNK) {
+            for (Owner owner : ownerRepository.findByOwnerIdIn(pending.subList(from, Math.min(pending.size(), from + LOOKUP_CHUNK)))) {
+                owners.put(owner.getOwnerId(), owner.getId());
+            }
+        }
+        return owners;
+    }
+
+    private Set<UUID> existingAnimalIds(List<UploadedRows.Row> raw) {
+        List<String> declared = raw.stream()
+                .map(row -> parseUuidOrNull(row.get("animalId")))
+                .filter(id -> id != null)
+                .map(UUID::toString)
+                .toList();
+        Set<UUID> taken = new HashSet<>();
+        for (int from = 0; from < declared.size(); from += LOOKUP_CHUNK) {
+            List<String> chunk = declared.subList(from, Math.min(declared.size(), from + LOOKUP_CHUNK));
+            String sql = "select animal_id from animals where animal_id in ("
+                    + chunk.stream().map(id -> "?").collect(Collectors.joining(",")) + ")";
+            jdbcTemplate.query(sql, rs -> {
+                taken.add(UUID.fromString(rs.getString(1)));
+            }, chunk.toArray());
+        }
+        return taken;
+    }
+
+    private Map<UUID, Long> idsOf(List<ImportRow> batch) {
+        String sql = "select id, animal_id from animals where animal_id in ("
+                + batch.stream().map(row -> "?").collect(Collectors.joining(",")) + ")";
+        Map<UUID, Long> ids = new HashMap<>(batch.size() * 2);
+        jdbcTemplate.query(sql, rs -> {
+            ids.put(UUID.fromString(rs.getString(2)), rs.getLong(1));
+        }, batch.stream().map(row -> row.animalId().toString()).toArray());
+        return ids;
+    }
+
+    private static String required(UploadedRows.Row row, String field) {
+        String value = row.get(field);
+        if (value == null || value.isBlank()) {
+            throw new RowException(field + " is required.");
+        }
+        return value.trim();
+    }
+
+    private static LocalDate date(UploadedRows.Row row, String field) {
+        String value = required(row, field);
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RowException(field + " must be an ISO date (yyyy-MM-dd): " + value);
+        }
+    }
+
+    private static AnimalType type(UploadedRows.Row row) {
+        String value = required(row, "type");
+        try {
+            return AnimalType.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RowException("Unknown animal type: " + value);
+        }
+    }
+
+    private static UUID requiredUuid(UploadedRows.Row row, String field) {
+        return uuid(field, required(row, field));
+    }
+
+    private static UUID optionalUuid(UploadedRows.Row row, String field) {
+        String value = row.get(field);
+        return value == null || value.isBlank() ? null : uuid(field, value.trim());
+    }
+
+    private static UUID uuid(String field, String value) {
+        UUID parsed = parseUuidOrNull(value);
+        if (parsed == null) {
+            throw new RowException(field + " is not a valid UUID: " + value);
+        }
+        return parsed;
+    }
+
+    private static UUID parseUuidOrNull(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(value.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private record ImportRow(
+            UUID animalId,
+            String color,
+            LocalDate dateOfBirth,
+            String breed,
+            AnimalType type,
+            UUID parentId,
+            long ownerId
+    ) {
+    }
+
+    private static final class RowException extends RuntimeException {
+        RowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
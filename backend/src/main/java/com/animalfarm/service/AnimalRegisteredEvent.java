@@ -0,0 +1,9 @@
+package com.animalfarm.service;
+
+import java.util.UUID;
+
+/**
+ * Published by {@link AnimalService} when an animal is registered; listeners see it after commit.
+ */
+record AnimalRegisteredEvent(long id, UUID animalId, UUID parentId) {
+}
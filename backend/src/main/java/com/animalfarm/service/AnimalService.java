@@ -1,6 +1,8 @@
 package com.animalfarm.service;
 
 import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.AnimalFilter;
+import com.animalfarm.dto.AnimalPage;
 import com.animalfarm.dto.AnimalRequest;
 import com.animalfarm.dto.AnimalSummary;
 import com.animalfarm.dto.TransferAnimalsRequest;
@@ -9,31 +11,54 @@ import com.animalfarm.model.ActorRole;
 import com.animalfarm.model.Animal;
 import com.animalfarm.model.Owner;
 import com.animalfarm.repository.AnimalRepository;
+import com.animalfarm.repository.AnimalSpecifications;
 import com.animalfarm.repository.OwnerRepository;
-import java.util.Base64;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AnimalService {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final AnimalRepository animalRepository;
     private final OwnerRepository ownerRepository;
     private final AuditLogService auditLogService;
+    private final ImageStore imageStore;
+    private final LineageService lineageService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AnimalService(
             AnimalRepository animalRepository,
             OwnerRepository ownerRepository,
-            AuditLogService auditLogService
+            AuditLogService auditLogService,
+            ImageStore imageStore,
+            LineageService lineageService,
+            ApplicationEventPublisher eventPublisher
     ) {
         this.animalRepository = animalRepository;
         this.ownerRepository = ownerRepository;
         this.auditLogService = auditLogService;
+        this.imageStore = imageStore;
+        this.lineageService = lineageService;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public AnimalSummary registerAnimal(AnimalRequest request, MultipartFile imageFile, ActorRole role) {
         RoleValidator.requireAdmin(role);
 
@@ -45,20 +70,53 @@ public class AnimalService {
         animal.setDateOfBirth(request.dateOfBirth());
         animal.setBreed(request.breed());
         animal.setType(request.type());
-        animal.setImage(toImageDataUrl(imageFile));
+        if (imageFile != null && !imageFile.isEmpty()) {
+            animal.setImageHash(storeImage(imageFile));
+            animal.setImageContentType(imageFile.getContentType() != null ? imageFile.getContentType() : "application/octet-stream");
+        }
         animal.setParentId(request.parentId());
         animal.setOwner(owner);
         animal.setSold(false);
 
-        return AnimalSummary.from(animalRepository.save(animal));
+        Animal saved = animalRepository.save(animal);
+        lineageService.recordBirth(saved);
+        eventPublisher.publishEvent(new AnimalRegisteredEvent(saved.getId(), saved.getAnimalId(), saved.getParentId()));
+        return AnimalSummary.from(saved);
+    }
+
+    public StoredFile getImage(UUID animalId, AuthSession actor) {
+        Animal animal = animalRepository.findByAnimalId(animalId)
+                .orElseThrow(() -> new ApiException("Animal not found: " + animalId));
+        if (actor.role() != ActorRole.ADMIN
+                && (actor.ownerId() == null || !actor.ownerId().equals(animal.getOwner().getOwnerId()))) {
+            throw new ApiException("Owner can only view images of own animals.");
+        }
+        if (animal.getImageHash() == null) {
+            throw new ApiException("Animal has no image: " + animalId);
+        }
+        return new StoredFile(imageStore.resolve(animal.getImageHash()), animal.getImageHash(), animal.getImageContentType());
     }
 
-    public List<AnimalSummary> listAnimals() {
-        return animalRepository.findAll().stream().map(AnimalSummary::from).toList();
+    public AnimalPage listAnimals(AnimalFilter filter, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Animal> rows = fetchPage(filter, decodeCursor(cursor), pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<Animal> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1).getId()) : null;
+        return new AnimalPage(page.stream().map(AnimalSummary::from).toList(), nextCursor);
     }
 
     public List<AnimalSummary> getByOwner(UUID ownerId) {
-        return animalRepository.findByOwnerOwnerId(ownerId).stream().map(AnimalSummary::from).toList();
+        AnimalFilter filter = AnimalFilter.byOwner(ownerId);
+        List<AnimalSummary> result = new ArrayList<>();
+        Long afterId = null;
+        List<Animal> rows;
+        do {
+            rows = fetchPage(filter, afterId, MAX_PAGE_SIZE);
+            rows.forEach(animal -> result.add(AnimalSummary.from(animal)));
+            afterId = rows.isEmpty() ? afterId : rows.get(rows.size() - 1).getId();
+        } while (rows.size() == MAX_PAGE_SIZE);
+        return result;
     }
 
     public List<AnimalSummary> getByParent(UUID parentId) {
@@ -72,10 +130,17 @@ public class AnimalService {
         Owner toOwner = ownerRepository.findByOwnerId(request.toOwnerId())
                 .orElseThrow(() -> new ApiException("Destination owner not found: " + request.toOwnerId()));
 
-        List<AnimalSummary> transferred = new ArrayList<>();
-        for (UUID animalUuid : request.animalIds()) {
-            Animal animal = animalRepository.findByAnimalId(animalUuid)
-                    .orElseThrow(() -> new ApiException("Animal not found: " + animalUuid));
+        Set<UUID> requested = new LinkedHashSet<>(request.animalIds());
+        Map<UUID, Animal> found = new HashMap<>(requested.size() * 2);
+        for (Animal animal : animalRepository.findByAnimalIdIn(requested)) {
+            found.put(animal.getAnimalId(), animal);
+        }
+        List<Animal> animals = new ArrayList<>(requested.size());
+        for (UUID animalUuid : requested) {
+            Animal animal = found.get(animalUuid);
+            if (animal == null) {
+                throw new ApiException("Animal not found: " + animalUuid);
+            }
             if (animal.isSold()) {
                 throw new ApiException("Animal already sold to market: " + animal.getAnimalId());
             }
@@ -83,13 +148,13 @@ public class AnimalService {
             if (role != ActorRole.ADMIN && !isOwner) {
                 throw new ApiException("Transfer denied. You are not owner of animal id " + animal.getAnimalId());
             }
-
-            animal.setOwner(toOwner);
-            transferred.add(AnimalSummary.from(animal));
+            animals.add(animal);
         }
+
+        animalRepository.transferOwner(animals, toOwner);
         auditLogService.log(actor, "TRANSFER_ANIMALS",
-                "Transferred animals " + request.animalIds() + " to owner " + request.toOwnerId());
-        return transferred;
+                "Transferred " + animals.size() + " animals " + requested + " to owner " + request.toOwnerId());
+        return animals.stream().map(AnimalSummary::from).toList();
     }
 
     @Transactional
@@ -99,21 +164,47 @@ public class AnimalService {
 
         Animal animal = animalRepository.findByAnimalId(animalId)
                 .orElseThrow(() -> new ApiException("Animal not found: " + animalId));
+        if (animal.isSold()) {
+            throw new ApiException("Animal already sold to market: " + animalId);
+        }
         animal.setSold(true);
+        eventPublisher.publishEvent(new AnimalSoldEvent(animal.getId()));
         auditLogService.log(actor, "SELL_ANIMAL",
                 "Sold animal " + animal.getAnimalId() + " (dbId " + animal.getId() + ") to market");
         return AnimalSummary.from(animal);
     }
 
-    private String toImageDataUrl(MultipartFile imageFile) {
-        if (imageFile == null || imageFile.isEmpty()) {
+    private List<Animal> fetchPage(AnimalFilter filter, Long afterId, int limit) {
+        return animalRepository.findBy(
+                AnimalSpecifications.matching(filter, afterId),
+                query -> query.project("owner").sortBy(Sort.by("id")).limit(limit).all()
+        );
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
             return null;
         }
-        String contentType = imageFile.getContentType() != null ? imageFile.getContentType() : "application/octet-stream";
         try {
-            String base64 = Base64.getEncoder().encodeToString(imageFile.getBytes());
-            return "data:" + contentType + ";base64," + base64;
-        } catch (Exception e) {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return Long.valueOf(decoded.substring("id:".length()));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Invalid cursor.");
+        }
+    }
+
+    private String storeImage(MultipartFile imageFile) {
+        try (InputStream in = imageFile.getInputStream()) {
+            return imageStore.store(in);
+        } catch (IOException e) {
             throw new ApiException("Failed to read uploaded image.");
         }
     }
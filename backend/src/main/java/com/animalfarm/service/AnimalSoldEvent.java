@@ -0,0 +1,7 @@
+package com.animalfarm.service;
+
+/**
+ * Published by {@link AnimalService} when an animal is sold to market; listeners see it after commit.
+ */
+record AnimalSoldEvent(long id) {
+}
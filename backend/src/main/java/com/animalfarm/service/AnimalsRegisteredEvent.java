@@ -0,0 +1,10 @@
+package com.animalfarm.service;
+
+import java.util.List;
+
+/**
+ * Published by {@link AnimalImportService} once per import, with the animals in insertion order;
+ * listeners see it after commit.
+ */
+record AnimalsRegisteredEvent(List<AnimalRegisteredEvent> animals) {
+}
@@ -0,0 +1,14 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.ActorRole;
+import java.time.LocalDateTime;
+
+record AuditEvent(
+        Long actorUserId,
+        String actorUsername,
+        ActorRole actorRole,
+        String action,
+        String details,
+        LocalDateTime createdAt
+) {
+}
@@ -1,25 +1,99 @@
 package com.animalfarm.service;
 
 import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.AuditLogEntry;
+import com.animalfarm.dto.AuditLogFilter;
+import com.animalfarm.dto.AuditLogPage;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.ActorRole;
 import com.animalfarm.model.AuditLog;
 import com.animalfarm.repository.AuditLogRepository;
+import com.animalfarm.repository.AuditLogSpecifications;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service
 public class AuditLogService {
+    private static final int MAX_DETAILS_LENGTH = 2000;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private final AuditLogWriter auditLogWriter;
     private final AuditLogRepository auditLogRepository;
 
-    public AuditLogService(AuditLogRepository auditLogRepository) {
+    public AuditLogService(AuditLogWriter auditLogWriter, AuditLogRepository auditLogRepository) {
+        this.auditLogWriter = auditLogWriter;
         this.auditLogRepository = auditLogRepository;
     }
 
     public void log(AuthSession session, String action, String details) {
-        AuditLog log = new AuditLog();
-        log.setActorUserId(session.userId());
-        log.setActorUsername(session.username());
-        log.setActorRole(session.role());
-        log.setAction(action);
-        log.setDetails(details);
-        auditLogRepository.save(log);
+        AuditEvent event = new AuditEvent(
+                session.userId(),
+                session.username(),
+                session.role(),
+                action,
+                details != null && details.length() > MAX_DETAILS_LENGTH ? details.substring(0, MAX_DETAILS_LENGTH) : details,
+                LocalDateTime.now()
+        );
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            auditLogWriter.enqueue(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                auditLogWriter.enqueue(event);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public AuditLogPage search(AuditLogFilter filter, String cursor, Integer limit, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        if (filter.from() != null && filter.to() != null && !filter.from().isBefore(filter.to())) {
+            throw new ApiException("'from' must be before 'to'.");
+        }
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Cursor position = Cursor.decode(cursor);
+        List<AuditLog> rows = auditLogRepository.findBy(
+                AuditLogSpecifications.matching(filter, position.createdAt(), position.id()),
+                query -> query.sortBy(NEWEST_FIRST).limit(pageSize + 1).all()
+        );
+        boolean hasMore = rows.size() > pageSize;
+        List<AuditLog> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? Cursor.encode(page.get(page.size() - 1)) : null;
+        return new AuditLogPage(page.stream().map(AuditLogEntry::from).toList(), nextCursor);
+    }
+
+    private record Cursor(LocalDateTime createdAt, Long id) {
+        static String encode(AuditLog last) {
+            String value = last.getCreatedAt() + "|" + last.getId();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return new Cursor(null, null);
+            }
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = value.indexOf('|');
+                return new Cursor(
+                        LocalDateTime.parse(value.substring(0, separator)),
+                        Long.valueOf(value.substring(separator + 1))
+                );
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new ApiException("Invalid cursor.");
+            }
+        }
     }
 }
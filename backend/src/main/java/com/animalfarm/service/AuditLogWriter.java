@@ -0,0 +1,238 @@
+package com.animalfarm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drains audit events from a lock-free ring buffer on one background thread and inserts them with
+ * JDBC batches, flushing when a batch fills or the flush interval elapses. When the buffer is full
+ * producers either wait for room or append the event to a spill file, which is replayed on the
+ * next start. A producer waits at most {@code app.audit.block-millis}, and not at all once the
+ * worker has stopped, before spilling instead. Batches the database rejects are spilled as well.
+ */
+@Component
+public class AuditLogWriter {
+    public enum OverflowPolicy {
+        BLOCK,
+        SPILL
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+    private static final String INSERT_AUDIT = "insert into audit_logs "
+            + "(actor_user_id, actor_username, actor_role, action, details, created_at) values (?, ?, ?, ?, ?, ?)";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final int batchSize;
+    private final long flushNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockNanos;
+    private final Path spillFile;
+    private final Object spillLock = new Object();
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public AuditLogWriter(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${app.audit.buffer-size:8192}") int bufferSize,
+            @Value("${app.audit.batch-size:500}") int batchSize,
+            @Value("${app.audit.flush-millis:200}") long flushMillis,
+            @Value("${app.audit.overflow:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${app.audit.block-millis:1000}") long blockMillis,
+            @Value("${app.audit.spill-file:./data/audit-spill.ndjson}") String spillFile
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushMillis));
+        this.overflowPolicy = overflowPolicy;
+        this.blockNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockMillis));
+        this.spillFile = Paths.get(spillFile).toAbsolutePath().normalize();
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        worker = new Thread(this::run, "audit-log-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    void enqueue(AuditEvent event) {
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (overflowPolicy == OverflowPolicy.SPILL || !running) {
+            spill(List.of(event));
+            return;
+        }
+        long deadline = System.nanoTime() + blockNanos;
+        while (!buffer.offer(event)) {
+            if (!workerAlive() || System.nanoTime() - deadline >= 0) {
+                spill(List.of(event));
+                return;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+    }
+
+    private boolean workerAlive() {
+        Thread current = worker;
+        return running && current != null && current.isAlive();
+    }
+
+    /**
+     * Writes everything currently buffered. Only used when no worker thread is running.
+     */
+    void flush() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    private void run() {
+        replaySpill();
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long firstEventAt = 0;
+        while (running || !buffer.isEmpty()) {
+            boolean wasEmpty = batch.isEmpty();
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (wasEmpty && !batch.isEmpty()) {
+                firstEventAt = System.nanoTime();
+            }
+            boolean full = batch.size() >= batchSize;
+            boolean due = !batch.isEmpty() && System.nanoTime() - firstEventAt >= flushNanos;
+            if (full || due || (!running && !batch.isEmpty())) {
+                write(batch);
+                batch.clear();
+            } else if (buffer.isEmpty()) {
+                LockSupport.parkNanos(batch.isEmpty() ? IDLE_PARK_NANOS : Math.min(IDLE_PARK_NANOS, flushNanos));
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_AUDIT, batch, batch.size(), (ps, event) -> {
+                ps.setObject(1, event.actorUserId(), Types.BIGINT);
+                ps.setString(2, event.actorUsername());
+                ps.setString(3, event.actorRole().name());
+                ps.setString(4, event.action());
+                ps.setString(5, event.details());
+                ps.setTimestamp(6, Timestamp.valueOf(event.createdAt()));
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to write {} audit events, spilling them to {}", batch.size(), spillFile, e);
+            spill(batch);
+        }
+    }
+
+    private void spill(List<AuditEvent> events) {
+        synchronized (spillLock) {
+            try {
+                Files.createDirectories(spillFile.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (AuditEvent event : events) {
+                        writer.write(objectMapper.writeValueAsString(event));
+                        writer.newLine();
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Failed to spill {} audit events; they are lost", events.size(), e);
+            }
+        }
+    }
+
+    private void replaySpill() {
+        Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+        synchronized (spillLock) {
+            try {
+                if (!Files.exists(replaying) && Files.exists(spillFile)) {
+                    Files.move(spillFile, replaying, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (IOException e) {
+                log.error("Failed to claim audit spill file {}", spillFile, e);
+                return;
+            }
+        }
+        if (!Files.exists(replaying)) {
+            return;
+        }
+        int replayed = 0;
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        try (BufferedReader reader = Files.newBufferedReader(replaying, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    batch.add(objectMapper.readValue(line, AuditEvent.class));
+                } catch (JsonProcessingException e) {
+                    log.warn("Skipping malformed audit spill line: {}", line);
+                    continue;
+                }
+                if (batch.size() == batchSize) {
+                    write(batch);
+                    replayed += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                replayed += batch.size();
+            }
+        } catch (IOException e) {
+            log.error("Failed to replay audit spill file {}", replaying, e);
+            return;
+        }
+        try {
+            Files.delete(replaying);
+        } catch (IOException e) {
+            log.error("Failed to remove replayed audit spill file {}", replaying, e);
+        }
+        log.info("Replayed {} spilled audit events", replayed);
+    }
+}
@@ -0,0 +1,115 @@
+package com.animalfarm.service;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps an already range-partitioned {@code audit_logs} table current: pre-creates monthly partitions
+ * ahead of time and enforces retention by dropping whole partitions. Converting the table rewrites it
+ * and swaps its primary key, so that is a one-time migration run by hand (see the README); an
+ * unpartitioned table is only reported.
+ */
+@Service
+public class AuditPartitionMaintenance {
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionMaintenance.class);
+    private static final String TABLE = "audit_logs";
+    private static final String OVERFLOW_PARTITION = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String LIST_PARTITIONS = "select partition_name from information_schema.partitions "
+            + "where table_schema = database() and table_name = ? and partition_name is not null "
+            + "order by partition_ordinal_position";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int retentionMonths;
+    private final int monthsAhead;
+
+    public AuditPartitionMaintenance(
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.audit.partitioning.enabled:false}") boolean enabled,
+            @Value("${app.audit.retention-months:24}") int retentionMonths,
+            @Value("${app.audit.partitioning.months-ahead:3}") int monthsAhead
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.retentionMonths = Math.max(1, retentionMonths);
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.audit.partitioning.cron:0 30 2 * * *}")
+    public synchronized void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            maintain(YearMonth.now());
+        } catch (DataAccessException e) {
+            log.warn("Audit log partition maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    void maintain(YearMonth current) {
+        List<String> partitions = jdbcTemplate.queryForList(LIST_PARTITIONS, String.class, TABLE);
+        YearMonth until = current.plusMonths(monthsAhead);
+        if (partitions.isEmpty()) {
+            log.warn("{} is not partitioned; run the one-time partitioning migration before enabling maintenance", TABLE);
+            return;
+        }
+
+        YearMonth cutoff = current.minusMonths(retentionMonths);
+        List<String> expired = new ArrayList<>();
+        YearMonth newest = null;
+        for (String name : partitions) {
+            YearMonth month = monthOf(name);
+            if (month == null) {
+                continue;
+            }
+            if (month.isBefore(cutoff)) {
+                expired.add(name);
+            }
+            newest = month;
+        }
+        if (!expired.isEmpty()) {
+            jdbcTemplate.execute("alter table " + TABLE + " drop partition " + String.join(", ", expired));
+            log.info("Dropped audit log partitions older than {}: {}", cutoff, expired);
+        }
+        YearMonth next = newest == null ? current : newest.plusMonths(1);
+        if (!next.isAfter(until) && partitions.contains(OVERFLOW_PARTITION)) {
+            jdbcTemplate.execute("alter table " + TABLE + " reorganize partition " + OVERFLOW_PARTITION
+                    + " into (" + definitions(next, until) + ")");
+            log.info("Added audit log partitions {} to {}", next, until);
+        }
+    }
+
+    private static String definitions(YearMonth from, YearMonth until) {
+        StringBuilder sql = new StringBuilder();
+        for (YearMonth month = from; !month.isAfter(until); month = month.plusMonths(1)) {
+            sql.append("partition ").append(PARTITION_NAME.format(month.atDay(1)))
+                    .append(" values less than ('").append(month.plusMonths(1).atDay(1)).append("'), ");
+        }
+        return sql.append("partition ").append(OVERFLOW_PARTITION).append(" values less than (maxvalue)").toString();
+    }
+
+    private static YearMonth monthOf(String partitionName) {
+        if (partitionName.length() != 7 || partitionName.charAt(0) != 'p') {
+            return null;
+        }
+        try {
+            return YearMonth.of(Integer.parseInt(partitionName.substring(1, 5)), Integer.parseInt(partitionName.substring(5)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
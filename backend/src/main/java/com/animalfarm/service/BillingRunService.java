@@ -0,0 +1,126 @@
+package com.animalfarm.service;
+
+import com.animalfarm.dto.BillingRunOwnerEntry;
+import com.animalfarm.dto.InvoiceRunProgress;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.BillingOwnerStatus;
+import com.animalfarm.model.BillingRun;
+import com.animalfarm.model.BillingRunStatus;
+import com.animalfarm.repository.BillingRunRepository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Queues month-end billing runs and reports on them. Queuing only records the run and one
+ * {@code PENDING} row per owner; {@link MonthlyInvoicePipeline} does the work in the background.
+ */
+@Service
+public class BillingRunService {
+    static final Set<BillingRunStatus> ACTIVE = EnumSet.of(BillingRunStatus.QUEUED, BillingRunStatus.RUNNING);
+    private static final int MAX_OWNER_ENTRIES = 1000;
+
+    private static final String SEED_OWNERS = "insert into billing_run_owners (run_id, owner_id, status, updated_at) "
+            + "select ?, id, ?, ? from owners";
+    private static final String COUNT_BY_STATUS = "select status, count(*) from billing_run_owners "
+            + "where run_id = ? group by status";
+    private static final String OWNERS_IN_STATUS = "select o.owner_id, o.first_name, r.status, r.invoice_id, "
+            + "r.error, r.updated_at from billing_run_owners r join owners o on o.id = r.owner_id "
+            + "where r.run_id = ? and r.status = ? order by r.owner_id limit ?";
+
+    private final BillingRunRepository billingRunRepository;
+    private final InvoiceEmailService invoiceEmailService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public BillingRunService(
+            BillingRunRepository billingRunRepository,
+            InvoiceEmailService invoiceEmailService,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate
+    ) {
+        this.billingRunRepository = billingRunRepository;
+        this.invoiceEmailService = invoiceEmailService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Queues a run for {@code ym} and returns at once. Asking again while a run for the same month
+     * is queued or running returns that run, which keeps the SMTP password it was queued with; runs
+     * for other months wait their turn. Two requests racing to queue the same month collide on the
+     * active-period constraint, and the loser returns the winner's run.
+     */
+    public InvoiceRunProgress submit(YearMonth ym, String smtpPassword) {
+        int period = ym.getYear() * 100 + ym.getMonthValue();
+        try {
+            return transactionTemplate.execute(status -> billingRunRepository.findByActivePeriod(period)
+                    .map(this::progress)
+                    .orElseGet(() -> queue(ym, period, smtpPassword)));
+        } catch (DataIntegrityViolationException e) {
+            return transactionTemplate.execute(status -> billingRunRepository.findByActivePeriod(period)
+                    .map(this::progress)
+                    .orElseThrow(() -> e));
+        }
+    }
+
+    private InvoiceRunProgress queue(YearMonth ym, int period, String smtpPassword) {
+        BillingRun run = new BillingRun();
+        run.setPeriodYear(ym.getYear());
+        run.setPeriodMonth(ym.getMonthValue());
+        run.setActivePeriod(period);
+        run.setSmtpSecret(invoiceEmailService.sealPassword(smtpPassword));
+        billingRunRepository.saveAndFlush(run);
+        int owners = jdbcTemplate.update(SEED_OWNERS, run.getId(), BillingOwnerStatus.PENDING.name(),
+                Timestamp.valueOf(LocalDateTime.now()));
+        run.setTotalOwners(owners);
+        return progress(run);
+    }
+
+    @Transactional(readOnly = true)
+    public InvoiceRunProgress get(Long runId) {
+        return progress(billingRunRepository.findById(runId)
+                .orElseThrow(() -> new ApiException("Billing run not found: " + runId)));
+    }
+
+    /** The most recently queued run, or an idle placeholder before the first one. */
+    @Transactional(readOnly = true)
+    public InvoiceRunProgress latest() {
+        return billingRunRepository.findFirstByOrderByIdDesc().map(this::progress).orElseGet(InvoiceRunProgress::idle);
+    }
+
+    /** Up to {@code limit} (at most 1000) of the run's owners in {@code status}, by owner. */
+    public List<BillingRunOwnerEntry> owners(Long runId, BillingOwnerStatus status, int limit) {
+        if (!billingRunRepository.existsById(runId)) {
+            throw new ApiException("Billing run not found: " + runId);
+        }
+        int rows = Math.max(1, Math.min(limit, MAX_OWNER_ENTRIES));
+        return jdbcTemplate.query(OWNERS_IN_STATUS, (rs, rowNum) -> new BillingRunOwnerEntry(
+                UUID.fromString(rs.getString(1)),
+                rs.getString(2),
+                BillingOwnerStatus.valueOf(rs.getString(3)),
+                rs.getObject(4) == null ? null : rs.getLong(4),
+                rs.getString(5),
+                rs.getTimestamp(6).toLocalDateTime()
+        ), runId, status.name(), rows);
+    }
+
+    private InvoiceRunProgress progress(BillingRun run) {
+        Map<BillingOwnerStatus, Long> owners = new EnumMap<>(BillingOwnerStatus.class);
+        jdbcTemplate.query(COUNT_BY_STATUS, rs -> {
+            owners.put(BillingOwnerStatus.valueOf(rs.getString(1)), rs.getLong(2));
+        }, run.getId());
+        return InvoiceRunProgress.from(run, owners);
+    }
+}
@@ -0,0 +1,33 @@
+package com.animalfarm.service;
+
+import com.animalfarm.repository.AnimalRepository;
+import com.animalfarm.repository.OwnerTypeCount;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class HerdCountService {
+    private final AnimalRepository animalRepository;
+
+    public HerdCountService(AnimalRepository animalRepository) {
+        this.animalRepository = animalRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public HerdCounts loadAllActiveCounts(int expectedOwners) {
+        HerdCounts counts = new HerdCounts(expectedOwners);
+        try (Stream<OwnerTypeCount> rows = animalRepository.streamActiveCountsByOwnerAndType()) {
+            rows.forEach(row -> counts.add(row.getOwnerId(), row.getType(), row.getTotal()));
+        }
+        return counts;
+    }
+
+    public HerdCounts loadActiveCounts(Long ownerId) {
+        HerdCounts counts = new HerdCounts(1);
+        for (OwnerTypeCount row : animalRepository.findActiveCountsByOwner(ownerId)) {
+            counts.add(row.getOwnerId(), row.getType(), row.getTotal());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,95 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.AnimalType;
+import java.util.Arrays;
+
+/**
+ * Active (unsold) animal counts per owner and type, keyed by the owner's internal id.
+ * Backed by an open-addressing table of primitive longs so a full billing run does not
+ * box one entry per owner.
+ */
+public final class HerdCounts {
+    private static final int TYPES = AnimalType.values().length;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private long[] counts;
+    private int size;
+
+    public HerdCounts() {
+        this(64);
+    }
+
+    public HerdCounts(int expectedOwners) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedOwners * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    public void add(long ownerId, AnimalType type, long total) {
+        int slot = slotFor(ownerId);
+        counts[slot * TYPES + type.ordinal()] += total;
+    }
+
+    public long get(long ownerId, AnimalType type) {
+        int slot = find(ownerId);
+        return slot < 0 ? 0L : counts[slot * TYPES + type.ordinal()];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slotFor(long ownerId) {
+        int mask = keys.length - 1;
+        int slot = mix(ownerId) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == ownerId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+            return slotFor(ownerId);
+        }
+        keys[slot] = ownerId;
+        size++;
+        return slot;
+    }
+
+    private int find(long ownerId) {
+        int mask = keys.length - 1;
+        int slot = mix(ownerId) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == ownerId) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldCounts = counts;
+        allocate(oldKeys.length << 1);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotFor(oldKeys[i]);
+                System.arraycopy(oldCounts, i * TYPES, counts, slot * TYPES, TYPES);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        counts = new long[capacity * TYPES];
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,592 @@
+package com.animalfarm.service;
+
+import com.animalfarm.dto.HerdGraphStats;
+import com.animalfarm.dto.InbreedingCheck;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.ActorRole;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * The whole herd's pedigree held in memory as primitive arrays indexed by {@code Animal.id}.
+ * Readers take an immutable {@link Snapshot}; registrations and sales committed by
+ * {@link AnimalService} are applied by copying only the blocks they touch and publishing a new one.
+ * Transfers are not tracked because they do not change the pedigree.
+ */
+@Service
+public class HerdGraph {
+    private static final Logger log = LoggerFactory.getLogger(HerdGraph.class);
+    private static final int BLOCK_SHIFT = 7;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    public HerdGraph(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public HerdGraphStats stats(UUID animalId, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        Snapshot snapshot = current.get();
+        int node = require(snapshot, animalId);
+        return new HerdGraphStats(animalId, snapshot.descendants(node), snapshot.activeDescendants(node),
+                snapshot.generations(node));
+    }
+
+    public InbreedingCheck checkPairing(UUID firstAnimalId, UUID secondAnimalId, Integer generations, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        if (firstAnimalId.equals(secondAnimalId)) {
+            throw new ApiException("Choose two different animals.");
+        }
+        int depth = generations == null ? LineageService.DEFAULT_GENERATIONS : generations;
+        if (depth < 1 || depth > LineageService.MAX_GENERATIONS) {
+            throw new ApiException("Generations must be between 1 and " + LineageService.MAX_GENERATIONS + ".");
+        }
+        Snapshot snapshot = current.get();
+        int first = require(snapshot, firstAnimalId);
+        int second = require(snapshot, secondAnimalId);
+        long depths = snapshot.nearestCommonAncestor(first, second, depth);
+        if (depths < 0) {
+            return new InbreedingCheck(firstAnimalId, secondAnimalId, depth, false, null, null, null, 0);
+        }
+        int firstDepth = (int) (depths >>> 32);
+        int secondDepth = (int) depths;
+        return new InbreedingCheck(firstAnimalId, secondAnimalId, depth, true,
+                snapshot.animalId(snapshot.ancestor(first, firstDepth)), firstDepth, secondDepth,
+                Snapshot.coefficient(firstDepth, secondDepth));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        Builder builder = new Builder();
+        jdbcTemplate.query("select id, animal_id, parent_id, sold from animals order by id", rs -> {
+            String parentId = rs.getString(3);
+            builder.add(rs.getLong(1), UUID.fromString(rs.getString(2)),
+                    parentId != null ? UUID.fromString(parentId) : null, rs.getBoolean(4));
+        });
+        Snapshot snapshot = builder.build();
+        current.set(snapshot);
+        log.info("Loaded herd graph with {} animals", snapshot.animals);
+    }
+
+    @TransactionalEventListener
+    public synchronized void onRegistered(AnimalRegisteredEvent event) {
+        Snapshot snapshot = current.get();
+        int node = toIndex(event.id());
+        if (snapshot.contains(node)) {
+            return;
+        }
+        current.set(snapshot.withBirth(node, event.animalId(), snapshot.indexOf(event.parentId())));
+    }
+
+    @TransactionalEventListener
+    public synchronized void onImported(AnimalsRegisteredEvent event) {
+        current.set(current.get().withBirths(event.animals()));
+    }
+
+    @TransactionalEventListener
+    public synchronized void onSold(AnimalSoldEvent event) {
+        Snapshot snapshot = current.get();
+        int node = toIndex(event.id());
+        if (snapshot.contains(node) && !snapshot.isSold(node)) {
+            current.set(snapshot.withSale(node));
+        }
+    }
+
+    private static int require(Snapshot snapshot, UUID animalId) {
+        int node = snapshot.indexOf(animalId);
+        if (node < 0) {
+            throw new ApiException("Animal not found: " + animalId);
+        }
+        return node;
+    }
+
+    private static int toIndex(long id) {
+        if (id <= 0 || id >= Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Animal id out of range for the herd graph: " + id);
+        }
+        return (int) id;
+    }
+
+    /**
+     * An immutable view of the herd. Nodes are {@code Animal.id} values, stored in blocks of
+     * {@value #BLOCK_SIZE} consecutive ids that later snapshots share until one of their ids changes;
+     * {@code parent} holds -1 for animals without a known parent and ids that do not exist have zero
+     * UUID halves.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Nodes[0], new Counts[0], UuidIndex.EMPTY, 0);
+
+        private final Nodes[] nodes;
+        private final Counts[] counts;
+        private final UuidIndex index;
+        private final int animals;
+
+        private Snapshot(Nodes[] nodes, Counts[] counts, UuidIndex index, int animals) {
+            this.nodes = nodes;
+            this.counts = counts;
+            this.index = index;
+            this.animals = animals;
+        }
+
+        public int size() {
+            return animals;
+        }
+
+        public int indexOf(UUID animalId) {
+            return animalId == null ? -1 : index.get(animalId.getMostSignificantBits(), animalId.getLeastSignificantBits());
+        }
+
+        public boolean contains(int node) {
+            return node > 0 && exists(nodes, node);
+        }
+
+        public UUID animalId(int node) {
+            Nodes block = nodes[node >>> BLOCK_SHIFT];
+            return new UUID(block.most[node & BLOCK_MASK], block.least[node & BLOCK_MASK]);
+        }
+
+        public int parent(int node) {
+            return nodes[node >>> BLOCK_SHIFT].parent[node & BLOCK_MASK];
+        }
+
+        public boolean isSold(int node) {
+            return nodes[node >>> BLOCK_SHIFT].sold[node & BLOCK_MASK];
+        }
+
+        public int descendants(int node) {
+            return counts[node >>> BLOCK_SHIFT].all[node & BLOCK_MASK];
+        }
+
+        public int activeDescendants(int node) {
+            return counts[node >>> BLOCK_SHIFT].active[node & BLOCK_MASK];
+        }
+
+        /** Number of recorded generations above {@code node}. */
+        public int generations(int node) {
+            int depth = 0;
+            for (int at = parent(node); at >= 0 && depth < LineageService.MAX_GENERATIONS; at = parent(at)) {
+                depth++;
+            }
+            return depth;
+        }
+
+        public int ancestor(int node, int depth) {
+            int at = node;
+            for (int i = 0; i < depth && at >= 0; i++) {
+                at = parent(at);
+            }
+            return at;
+        }
+
+        /**
+         * Depths from {@code first} (high 32 bits) and {@code second} (low 32 bits) to their
+         * nearest common ancestor within {@code generations}, either animal counting as its own
+         * ancestor at depth 0, or -1 when they are unrelated within that range.
+         */
+        public long nearestCommonAncestor(int first, int second, int generations) {
+            int secondDepth = 0;
+            for (int b = second; b >= 0 && secondDepth <= generations; b = parent(b), secondDepth++) {
+                int firstDepth = 0;
+                for (int a = first; a >= 0 && firstDepth <= generations; a = parent(a), firstDepth++) {
+                    if (a == b) {
+                        return ((long) firstDepth << 32) | secondDepth;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Wright's coefficient of inbreeding for offspring of {@code first} and {@code second},
+         * or 0 when they share no ancestor within {@code generations}.
+         */
+        public double coefficientOfInbreeding(int first, int second, int generations) {
+            long depths = nearestCommonAncestor(first, second, generations);
+            return depths < 0 ? 0 : coefficient((int) (depths >>> 32), (int) depths);
+        }
+
+        static double coefficient(int firstDepth, int secondDepth) {
+            return Math.scalb(1.0, -(firstDepth + secondDepth + 1));
+        }
+
+        /**
+         * Copies the node's block and the count blocks of its ancestors; the cost does not grow with
+         * the size of the herd beyond copying the block pointers.
+         */
+        Snapshot withBirth(int node, UUID animalId, int parentNode) {
+            Edit edit = new Edit(this, node);
+            long mostBits = animalId.getMostSignificantBits();
+            long leastBits = animalId.getLeastSignificantBits();
+            edit.add(node, mostBits, leastBits, parentNode, false);
+            edit.addToAncestors(parentNode, 1, 1);
+            return edit.publish(index.with(mostBits, leastBits, node), animals + 1);
+        }
+
+        /**
+         * {@link #withBirth} for a whole import: the index is rebuilt once and each touched block is
+         * copied once. Births must be in insertion order so parents listed in the same import are
+         * resolved.
+         */
+        Snapshot withBirths(List<AnimalRegisteredEvent> births) {
+            int maxNode = 0;
+            for (AnimalRegisteredEvent birth : births) {
+                maxNode = Math.max(maxNode, toIndex(birth.id()));
+            }
+            Edit edit = new Edit(this, maxNode);
+            UuidIndex.Mutable nextIndex = index.copy(births.size());
+            int added = 0;
+            for (AnimalRegisteredEvent birth : births) {
+                int node = toIndex(birth.id());
+                if (edit.exists(node)) {
+                    continue;
+                }
+                long mostBits = birth.animalId().getMostSignificantBits();
+                long leastBits = birth.animalId().getLeastSignificantBits();
+                nextIndex.put(mostBits, leastBits, node);
+                UUID parentId = birth.parentId();
+                int parentNode = parentId == null ? -1
+                        : nextIndex.get(parentId.getMostSignificantBits(), parentId.getLeastSignificantBits());
+                edit.add(node, mostBits, leastBits, parentNode, false);
+                edit.addToAncestors(parentNode, 1, 1);
+                added++;
+            }
+            return edit.publish(nextIndex.freeze(), animals + added);
+        }
+
+        Snapshot withSale(int node) {
+            Edit edit = new Edit(this, node);
+            edit.sell(node);
+            edit.addToAncestors(parent(node), 0, -1);
+            return edit.publish(index, animals);
+        }
+
+        private static boolean exists(Nodes[] nodes, int node) {
+            int block = node >>> BLOCK_SHIFT;
+            if (block >= nodes.length || nodes[block] == null) {
+                return false;
+            }
+            int slot = node & BLOCK_MASK;
+            return nodes[block].most[slot] != 0 || nodes[block].least[slot] != 0;
+        }
+    }
+
+    /**
+     * Pedigree fields of {@value #BLOCK_SIZE} consecutive ids.
+     */
+    private static final class Nodes {
+        final int[] parent;
+        final long[] most;
+        final long[] least;
+        final boolean[] sold;
+
+        Nodes() {
+            parent = new int[BLOCK_SIZE];
+            Arrays.fill(parent, -1);
+            most = new long[BLOCK_SIZE];
+            least = new long[BLOCK_SIZE];
+            sold = new boolean[BLOCK_SIZE];
+        }
+
+        Nodes(Nodes from) {
+            parent = from.parent.clone();
+            most = from.most.clone();
+            least = from.least.clone();
+            sold = from.sold.clone();
+        }
+    }
+
+    /**
+     * Descendant counts, all and unsold, of {@value #BLOCK_SIZE} consecutive ids. Kept apart from
+     * {@link Nodes} because every birth and sale updates the counts of all its ancestors.
+     */
+    private static final class Counts {
+        final int[] all;
+        final int[] active;
+
+        Counts() {
+            all = new int[BLOCK_SIZE];
+            active = new int[BLOCK_SIZE];
+        }
+
+        Counts(Counts from) {
+            all = from.all.clone();
+            active = from.active.clone();
+        }
+    }
+
+    /**
+     * Changes on top of a snapshot: the block pointer arrays are copied once, and a shared block the
+     * first time one of its ids is written.
+     */
+    private static final class Edit {
+        private final Snapshot from;
+        private final Nodes[] nodes;
+        private final Counts[] counts;
+
+        Edit(Snapshot from, int maxNode) {
+            int blocks = Math.max(from.nodes.length, (maxNode >>> BLOCK_SHIFT) + 1);
+            this.from = from;
+            this.nodes = Arrays.copyOf(from.nodes, blocks);
+            this.counts = Arrays.copyOf(from.counts, blocks);
+        }
+
+        boolean exists(int node) {
+            return Snapshot.exists(nodes, node);
+        }
+
+        void add(int node, long mostBits, long leastBits, int parentNode, boolean isSold) {
+            Nodes block = writableNodes(node);
+            int slot = node & BLOCK_MASK;
+            block.most[slot] = mostBits;
+            block.least[slot] = leastBits;
+            block.parent[slot] = parentNode;
+            block.sold[slot] = isSold;
+            if (counts[node >>> BLOCK_SHIFT] == null) {
+                counts[node >>> BLOCK_SHIFT] = new Counts();
+            }
+        }
+
+        void setParent(int node, int parentNode) {
+            writableNodes(node).parent[node & BLOCK_MASK] = parentNode;
+        }
+
+        void sell(int node) {
+            writableNodes(node).sold[node & BLOCK_MASK] = true;
+        }
+
+        void addToAncestors(int start, int allDelta, int activeDelta) {
+            int depth = 0;
+            for (int at = start; at >= 0 && depth < LineageService.MAX_GENERATIONS; depth++) {
+                Counts block = writableCounts(at);
+                block.all[at & BLOCK_MASK] += allDelta;
+                block.active[at & BLOCK_MASK] += activeDelta;
+                at = nodes[at >>> BLOCK_SHIFT].parent[at & BLOCK_MASK];
+            }
+        }
+
+        Snapshot publish(UuidIndex index, int animals) {
+            return new Snapshot(nodes, counts, index, animals);
+        }
+
+        private Nodes writableNodes(int node) {
+            int block = node >>> BLOCK_SHIFT;
+            Nodes current = nodes[block];
+            if (current == null) {
+                current = new Nodes();
+                nodes[block] = current;
+            } else if (block < from.nodes.length && current == from.nodes[block]) {
+                current = new Nodes(current);
+                nodes[block] = current;
+            }
+            return current;
+        }
+
+        private Counts writableCounts(int node) {
+            int block = node >>> BLOCK_SHIFT;
+            Counts current = counts[block];
+            if (current == null) {
+                current = new Counts();
+                counts[block] = current;
+            } else if (block < from.counts.length && current == from.counts[block]) {
+                current = new Counts(current);
+                counts[block] = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Collects rows at startup and resolves parent UUIDs once every animal is known.
+     */
+    static final class Builder {
+        private long[] ids = new long[1024];
+        private long[] most = new long[1024];
+        private long[] least = new long[1024];
+        private long[] parentMost = new long[1024];
+        private long[] parentLeast = new long[1024];
+        private boolean[] sold = new boolean[1024];
+        private int count;
+        private int maxId;
+
+        void add(long id, UUID animalId, UUID parentId, boolean isSold) {
+            if (count == ids.length) {
+                int length = count * 2;
+                ids = Arrays.copyOf(ids, length);
+                most = Arrays.copyOf(most, length);
+                least = Arrays.copyOf(least, length);
+                parentMost = Arrays.copyOf(parentMost, length);
+                parentLeast = Arrays.copyOf(parentLeast, length);
+                sold = Arrays.copyOf(sold, length);
+            }
+            ids[count] = id;
+            most[count] = animalId.getMostSignificantBits();
+            least[count] = animalId.getLeastSignificantBits();
+            parentMost[count] = parentId != null ? parentId.getMostSignificantBits() : 0;
+            parentLeast[count] = parentId != null ? parentId.getLeastSignificantBits() : 0;
+            sold[count] = isSold;
+            maxId = Math.max(maxId, toIndex(id));
+            count++;
+        }
+
+        Snapshot build() {
+            Edit edit = new Edit(Snapshot.EMPTY, maxId);
+            UuidIndex.Mutable index = new UuidIndex.Mutable(count);
+            for (int i = 0; i < count; i++) {
+                edit.add((int) ids[i], most[i], least[i], -1, sold[i]);
+                index.put(most[i], least[i], (int) ids[i]);
+            }
+            for (int i = 0; i < count; i++) {
+                if (parentMost[i] != 0 || parentLeast[i] != 0) {
+                    edit.setParent((int) ids[i], index.get(parentMost[i], parentLeast[i]));
+                }
+            }
+            Snapshot parents = edit.publish(index.freeze(), count);
+            for (int i = 0; i < count; i++) {
+                int node = (int) ids[i];
+                edit.addToAncestors(parents.parent(node), 1, sold[i] ? 0 : 1);
+            }
+            return edit.publish(index.freeze(), count);
+        }
+    }
+
+    /**
+     * Map from a UUID's two halves to a node: a large base table plus a small table of recent births,
+     * so a single registration copies only the small one. Once that holds about the square root of the
+     * base size it is merged into a new base, keeping the amortised cost of a birth far below a rehash.
+     */
+    static final class UuidIndex {
+        static final UuidIndex EMPTY = new Mutable(0).freeze();
+        private static final int MIN_RECENT = 64;
+
+        private final Table base;
+        private final Table recent;
+
+        private UuidIndex(Table base, Table recent) {
+            this.base = base;
+            this.recent = recent;
+        }
+
+        int get(long mostBits, long leastBits) {
+            int node = recent.get(mostBits, leastBits);
+            return node >= 0 ? node : base.get(mostBits, leastBits);
+        }
+
+        UuidIndex with(long mostBits, long leastBits, int node) {
+            if (recent.size >= Math.max(MIN_RECENT, (int) Math.sqrt(base.size))) {
+                Mutable merged = copy(1);
+                merged.put(mostBits, leastBits, node);
+                return merged.freeze();
+            }
+            Mutable nextRecent = new Mutable(recent.size + 1);
+            recent.putAll(nextRecent);
+            nextRecent.put(mostBits, leastBits, node);
+            return new UuidIndex(base, nextRecent.table());
+        }
+
+        /** A mutable copy sized for {@code extra} more entries. */
+        Mutable copy(int extra) {
+            Mutable copy = new Mutable(base.size + recent.size + extra);
+            base.putAll(copy);
+            recent.putAll(copy);
+            return copy;
+        }
+
+        private static int hash(long mostBits, long leastBits) {
+            long h = mostBits * 0x9E3779B97F4A7C15L ^ leastBits;
+            return (int) (h ^ (h >>> 32));
+        }
+
+        /**
+         * Open addressing with linear probing. Node ids are always positive, so 0 marks an empty slot.
+         */
+        private static final class Table {
+            static final Table EMPTY = new Table(new long[1], new long[1], new int[1], 0);
+
+            private final long[] most;
+            private final long[] least;
+            private final int[] nodes;
+            private final int size;
+
+            private Table(long[] most, long[] least, int[] nodes, int size) {
+                this.most = most;
+                this.least = least;
+                this.nodes = nodes;
+                this.size = size;
+            }
+
+            int get(long mostBits, long leastBits) {
+                int mask = nodes.length - 1;
+                for (int slot = hash(mostBits, leastBits) & mask; nodes[slot] != 0; slot = (slot + 1) & mask) {
+                    if (most[slot] == mostBits && least[slot] == leastBits) {
+                        return nodes[slot];
+                    }
+                }
+                return -1;
+            }
+
+            void putAll(Mutable into) {
+                for (int slot = 0; slot < nodes.length; slot++) {
+                    if (nodes[slot] != 0) {
+                        into.put(most[slot], least[slot], nodes[slot]);
+                    }
+                }
+            }
+        }
+
+        static final class Mutable {
+            private final long[] most;
+            private final long[] least;
+            private final int[] nodes;
+            private int size;
+
+            Mutable(int expected) {
+                int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+                this.most = new long[capacity];
+                this.least = new long[capacity];
+                this.nodes = new int[capacity];
+            }
+
+            void put(long mostBits, long leastBits, int node) {
+                int mask = nodes.length - 1;
+                int slot = hash(mostBits, leastBits) & mask;
+                while (nodes[slot] != 0 && (most[slot] != mostBits || least[slot] != leastBits)) {
+                    slot = (slot + 1) & mask;
+                }
+                if (nodes[slot] == 0) {
+                    size++;
+                }
+                most[slot] = mostBits;
+                least[slot] = leastBits;
+                nodes[slot] = node;
+            }
+
+            int get(long mostBits, long leastBits) {
+                return table().get(mostBits, leastBits);
+            }
+
+            UuidIndex freeze() {
+                return new UuidIndex(table(), Table.EMPTY);
+            }
+
+            private Table table() {
+                return new Table(most, least, nodes, size);
+            }
+        }
+    }
+}
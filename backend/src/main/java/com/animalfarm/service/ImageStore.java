@@ -0,0 +1,67 @@
+package com.animalfarm.service;
+
+import com.animalfarm.exception.ApiException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ImageStore {
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public ImageStore(@Value("${app.images.dir:./data/images}") String root) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+    }
+
+    public String store(InputStream content) {
+        try {
+            Path tmpDir = Files.createDirectories(root.resolve("tmp"));
+            Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                try (InputStream in = new DigestInputStream(content, digest);
+                     OutputStream out = Files.newOutputStream(tmp)) {
+                    in.transferTo(out);
+                }
+                String hash = HexFormat.of().formatHex(digest.digest());
+                Path target = pathFor(hash);
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                return hash;
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException | NoSuchAlgorithmException e) {
+            throw new ApiException("Failed to store uploaded image.");
+        }
+    }
+
+    public Path resolve(String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            throw new ApiException("Invalid image reference.");
+        }
+        Path path = pathFor(hash);
+        if (!Files.isRegularFile(path)) {
+            throw new ApiException("Image not found.");
+        }
+        return path;
+    }
+
+    private Path pathFor(String hash) {
+        return root.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+}
@@ -0,0 +1,163 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.EmailOutboxStatus;
+import com.animalfarm.model.InvoiceEmailOutbox;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.InvoiceEmailOutboxRepository;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class InvoiceChunkWriter {
+    private static final String INSERT_INVOICE = "insert into owner_invoices "
+            + "(owner_id, period_year, period_month, cattle_count, goat_count, ram_count, pig_count, "
+            + "current_charge, previous_unpaid_balance, total_due, rate_version, paid, content_version, email_sent, "
+            + "created_at) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, 0, false, ?)";
+    private static final String INSERT_OUTBOX = "insert into invoice_email_outbox "
+            + "(invoice_id, status, attempts, next_attempt_at, smtp_secret, run_id, created_at) "
+            + "values (?, ?, 0, ?, ?, ?, ?)";
+    private static final String REQUEUE_OUTBOX = "update invoice_email_outbox "
+            + "set status = ?, attempts = 0, next_attempt_at = ?, smtp_secret = ?, run_id = ? where id = ?";
+    private static final String ADOPT_OUTBOX = "update invoice_email_outbox set run_id = ? where id = ? and status = ?";
+
+    private final OwnerInvoiceRepository ownerInvoiceRepository;
+    private final InvoiceEmailOutboxRepository outboxRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final OwnerBalanceLedger balanceLedger;
+
+    public InvoiceChunkWriter(
+            OwnerInvoiceRepository ownerInvoiceRepository,
+            InvoiceEmailOutboxRepository outboxRepository,
+            JdbcTemplate jdbcTemplate,
+            OwnerBalanceLedger balanceLedger
+    ) {
+        this.ownerInvoiceRepository = ownerInvoiceRepository;
+        this.outboxRepository = outboxRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.balanceLedger = balanceLedger;
+    }
+
+    /**
+     * Creates the invoices the owners do not have yet for {@code ym} and queues an email for every
+     * unsent one, sent with {@code smtpSecret} (a sealed SMTP password, or {@code null} for the
+     * configured credentials). Queued emails are tagged with {@code runId}, including ones an earlier
+     * run queued that are still pending, so their delivery completes the owners of this run.
+     */
+    @Transactional
+    public CreatedChunk createMissing(List<Owner> owners, YearMonth ym, RateCard rates, HerdCounts counts,
+                                      Long runId, String smtpSecret) {
+        List<Long> ownerIds = owners.stream().map(Owner::getId).toList();
+        Map<Long, OwnerInvoice> existing = byOwner(
+                ownerInvoiceRepository.findForOwnersAndPeriod(ownerIds, ym.getYear(), ym.getMonthValue()));
+
+        List<Long> missing = ownerIds.stream().filter(id -> !existing.containsKey(id)).toList();
+        Map<Long, OwnerBalanceLedger.Entry> balances = balanceLedger.entries(missing);
+
+        List<Object[]> rows = new ArrayList<>();
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        for (Owner owner : owners) {
+            if (!existing.containsKey(owner.getId())) {
+                rows.add(invoiceRow(owner, ym, rates, counts, balances.get(owner.getId()), createdAt));
+            }
+        }
+        List<OwnerInvoice> invoices = ordered(owners, existing);
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_INVOICE, rows);
+            invoices = ordered(owners, byOwner(
+                    ownerInvoiceRepository.findForOwnersAndPeriod(ownerIds, ym.getYear(), ym.getMonthValue())));
+            balanceLedger.recordCreated(invoices.stream()
+                    .filter(invoice -> !existing.containsKey(invoice.getOwner().getId()))
+                    .toList());
+        }
+        int queued = enqueueEmails(invoices, runId, smtpSecret, createdAt);
+        return new CreatedChunk(invoices, rows.size(), queued);
+    }
+
+    private int enqueueEmails(List<OwnerInvoice> invoices, Long runId, String smtpSecret, Timestamp now) {
+        List<Long> unsent = invoices.stream().filter(inv -> !inv.isEmailSent()).map(OwnerInvoice::getId).toList();
+        if (unsent.isEmpty()) {
+            return 0;
+        }
+        Map<Long, InvoiceEmailOutbox> queued = new HashMap<>(unsent.size() * 2);
+        for (InvoiceEmailOutbox entry : outboxRepository.findByInvoiceIds(unsent)) {
+            queued.put(entry.getInvoice().getId(), entry);
+        }
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> requeues = new ArrayList<>();
+        List<Object[]> adoptions = new ArrayList<>();
+        String pending = EmailOutboxStatus.PENDING.name();
+        for (Long invoiceId : unsent) {
+            InvoiceEmailOutbox entry = queued.get(invoiceId);
+            if (entry == null) {
+                inserts.add(new Object[] {invoiceId, pending, now, smtpSecret, runId, now});
+            } else if (entry.getStatus() == EmailOutboxStatus.FAILED) {
+                requeues.add(new Object[] {pending, now, smtpSecret, runId, entry.getId()});
+            } else if (entry.getStatus() == EmailOutboxStatus.PENDING && !Objects.equals(entry.getRunId(), runId)) {
+                adoptions.add(new Object[] {runId, entry.getId(), pending});
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OUTBOX, inserts);
+        }
+        if (!requeues.isEmpty()) {
+            jdbcTemplate.batchUpdate(REQUEUE_OUTBOX, requeues);
+        }
+        if (!adoptions.isEmpty()) {
+            jdbcTemplate.batchUpdate(ADOPT_OUTBOX, adoptions);
+        }
+        return inserts.size() + requeues.size();
+    }
+
+    private Object[] invoiceRow(Owner owner, YearMonth ym, RateCard rates, HerdCounts counts,
+                                OwnerBalanceLedger.Entry balance, Timestamp createdAt) {
+        long cattle = counts.get(owner.getId(), AnimalType.CATTLE);
+        long goats = counts.get(owner.getId(), AnimalType.GOAT);
+        long rams = counts.get(owner.getId(), AnimalType.RAM);
+        long pigs = counts.get(owner.getId(), AnimalType.PIG);
+
+        BigDecimal currentCharge = rates.charge(cattle, goats, rams, pigs);
+
+        BigDecimal previousUnpaid = balanceLedger.carriedInto(owner.getId(), balance, ym);
+        BigDecimal totalDue = currentCharge.add(previousUnpaid);
+
+        return new Object[] {
+                owner.getId(), ym.getYear(), ym.getMonthValue(), cattle, goats, rams, pigs,
+                currentCharge, previousUnpaid, totalDue, rates.version(), createdAt
+        };
+    }
+
+    private static Map<Long, OwnerInvoice> byOwner(List<OwnerInvoice> invoices) {
+        Map<Long, OwnerInvoice> map = new HashMap<>(invoices.size() * 2);
+        for (OwnerInvoice invoice : invoices) {
+            map.put(invoice.getOwner().getId(), invoice);
+        }
+        return map;
+    }
+
+    private static List<OwnerInvoice> ordered(List<Owner> owners, Map<Long, OwnerInvoice> invoices) {
+        List<OwnerInvoice> result = new ArrayList<>(owners.size());
+        for (Owner owner : owners) {
+            OwnerInvoice invoice = invoices.get(owner.getId());
+            if (invoice != null) {
+                result.add(invoice);
+            }
+        }
+        return result;
+    }
+
+    public record CreatedChunk(List<OwnerInvoice> invoices, int created, int emailsQueued) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.BillingOwnerStatus;
+import com.animalfarm.model.EmailOutboxStatus;
+import com.animalfarm.model.InvoiceEmailOutbox;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.InvoiceEmailOutboxRepository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains the invoice email outbox. Each batch is claimed first: one conditional update stamps the
+ * due rows with a claim token and moves their next attempt past the claim period, so a row is only
+ * sent by the node whose update took it, and is retried after the claim period if that node dies.
+ * Failed sends are retried with exponential backoff until {@code max-attempts}.
+ */
+@Service
+public class InvoiceEmailDispatcher {
+    private static final Logger log = LoggerFactory.getLogger(InvoiceEmailDispatcher.class);
+    private static final String DUE = "select id from invoice_email_outbox "
+            + "where status = ? and next_attempt_at <= ? order by next_attempt_at, id limit ?";
+    private static final String CLAIM = "update invoice_email_outbox set claim_token = ?, next_attempt_at = ? "
+            + "where status = ? and next_attempt_at <= ? and id in (%s)";
+    private static final String UPDATE_OUTBOX = "update invoice_email_outbox "
+            + "set status = ?, attempts = attempts + 1, next_attempt_at = ?, last_error = ?, smtp_secret = ?, "
+            + "claim_token = null where id = ? and claim_token = ?";
+    private static final String UPDATE_INVOICE = "update owner_invoices "
+            + "set email_sent = ?, email_error = ?, sent_at = coalesce(?, sent_at) where id = ?";
+    private static final String UPDATE_RUN_OWNER = "update billing_run_owners "
+            + "set status = ?, error = ?, updated_at = ? where run_id = ? and invoice_id = ? and status <> ?";
+
+    private final InvoiceEmailOutboxRepository outboxRepository;
+    private final InvoiceEmailService invoiceEmailService;
+    private final InvoicePdfCache invoicePdfCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffSeconds;
+    private final long claimSeconds;
+    private final int maxPerSecond;
+    private final AsyncTaskExecutor renderers;
+    private long nextSendAllowedAt;
+
+    public InvoiceEmailDispatcher(
+            InvoiceEmailOutboxRepository outboxRepository,
+            InvoiceEmailService invoiceEmailService,
+            InvoicePdfCache invoicePdfCache,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.invoice.outbox.batch-size:50}") int batchSize,
+            @Value("${app.invoice.outbox.max-attempts:5}") int maxAttempts,
+            @Value("${app.invoice.outbox.backoff-seconds:60}") long backoffSeconds,
+            @Value("${app.invoice.outbox.claim-seconds:600}") long claimSeconds,
+            @Value("${app.invoice.outbox.max-per-second:10}") int maxPerSecond,
+            @Qualifier("invoiceRenderExecutor") AsyncTaskExecutor renderers
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.invoiceEmailService = invoiceEmailService;
+        this.invoicePdfCache = invoicePdfCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffSeconds = Math.max(1, backoffSeconds);
+        this.claimSeconds = Math.max(1, claimSeconds);
+        this.maxPerSecond = Math.max(1, maxPerSecond);
+        this.renderers = renderers;
+        this.nextSendAllowedAt = System.nanoTime();
+    }
+
+    /**
+     * Sends one batch per tick, so a large backlog never holds a scheduler thread for longer than
+     * one throttled batch; throughput is at most {@code batch-size} emails per {@code poll-millis}.
+     */
+    @Scheduled(fixedDelayString = "${app.invoice.outbox.poll-millis:5000}")
+    public void drain() {
+        dispatchBatch();
+    }
+
+    /** Claims, sends and completes one batch; returns the number of rows it claimed. */
+    public synchronized int dispatchBatch() {
+        List<InvoiceEmailOutbox> due = claim();
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<OwnerInvoice> invoices = due.stream().map(InvoiceEmailOutbox::getInvoice).toList();
+        Map<Long, byte[]> pdfs = render(invoices);
+        throttle(invoices.size());
+        Map<String, List<OwnerInvoice>> bySecret = new LinkedHashMap<>();
+        for (InvoiceEmailOutbox entry : due) {
+            bySecret.computeIfAbsent(entry.getSmtpSecret(), secret -> new ArrayList<>()).add(entry.getInvoice());
+        }
+        Map<Long, String> failures = new HashMap<>();
+        bySecret.forEach((secret, group) ->
+                failures.putAll(invoiceEmailService.sendOwnerInvoices(group, pdfs, secret)));
+        complete(due, failures);
+        if (!failures.isEmpty()) {
+            log.warn("Invoice email batch: {} sent, {} failed", due.size() - failures.size(), failures.size());
+        }
+        return due.size();
+    }
+
+    private List<InvoiceEmailOutbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        String pending = EmailOutboxStatus.PENDING.name();
+        List<Long> ids = jdbcTemplate.queryForList(DUE, Long.class, pending, Timestamp.valueOf(now), batchSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        String token = UUID.randomUUID().toString();
+        List<Object> args = new ArrayList<>(ids.size() + 4);
+        args.add(token);
+        args.add(Timestamp.valueOf(now.plusSeconds(claimSeconds)));
+        args.add(pending);
+        args.add(Timestamp.valueOf(now));
+        args.addAll(ids);
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        int claimed = transactionTemplate.execute(status ->
+                jdbcTemplate.update(String.format(CLAIM, placeholders), args.toArray()));
+        if (claimed == 0) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status -> outboxRepository.findClaimed(token));
+    }
+
+    private Map<Long, byte[]> render(List<OwnerInvoice> invoices) {
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(invoices.size());
+        for (OwnerInvoice invoice : invoices) {
+            futures.add(CompletableFuture.supplyAsync(() -> invoicePdfCache.bytes(invoice), renderers));
+        }
+        Map<Long, byte[]> pdfs = new HashMap<>(invoices.size() * 2);
+        for (int i = 0; i < invoices.size(); i++) {
+            try {
+                pdfs.put(invoices.get(i).getId(), futures.get(i).join());
+            } catch (CompletionException e) {
+                log.warn("Failed to render invoice {} for email", invoices.get(i).getId(), e.getCause());
+            }
+        }
+        return pdfs;
+    }
+
+    private void complete(List<InvoiceEmailOutbox> due, Map<Long, String> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp sentAt = Timestamp.valueOf(now);
+        List<Object[]> outboxRows = new ArrayList<>(due.size());
+        List<Object[]> invoiceRows = new ArrayList<>(due.size());
+        List<Object[]> runOwnerRows = new ArrayList<>(due.size());
+        for (InvoiceEmailOutbox entry : due) {
+            Long invoiceId = entry.getInvoice().getId();
+            String error = truncate(failures.get(invoiceId));
+            if (error == null) {
+                outboxRows.add(new Object[] {EmailOutboxStatus.SENT.name(), sentAt, null, null, entry.getId(),
+                        entry.getClaimToken()});
+                invoiceRows.add(new Object[] {true, null, sentAt, invoiceId});
+                if (entry.getRunId() != null) {
+                    runOwnerRows.add(new Object[] {BillingOwnerStatus.EMAILED.name(), null, sentAt, entry.getRunId(),
+                            invoiceId, BillingOwnerStatus.PENDING.name()});
+                }
+            } else {
+                int attempts = entry.getAttempts() + 1;
+                EmailOutboxStatus status = attempts >= maxAttempts ? EmailOutboxStatus.FAILED : EmailOutboxStatus.PENDING;
+                LocalDateTime retryAt = now.plusSeconds(backoffSeconds << Math.min(attempts - 1, 10));
+                String secret = status == EmailOutboxStatus.PENDING ? entry.getSmtpSecret() : null;
+                outboxRows.add(new Object[] {status.name(), Timestamp.valueOf(retryAt), error, secret, entry.getId(),
+                        entry.getClaimToken()});
+                invoiceRows.add(new Object[] {false, error, null, invoiceId});
+                if (status == EmailOutboxStatus.FAILED && entry.getRunId() != null) {
+                    runOwnerRows.add(new Object[] {BillingOwnerStatus.FAILED.name(), error, sentAt, entry.getRunId(),
+                            invoiceId, BillingOwnerStatus.PENDING.name()});
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(UPDATE_OUTBOX, outboxRows);
+            jdbcTemplate.batchUpdate(UPDATE_INVOICE, invoiceRows);
+            if (!runOwnerRows.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_RUN_OWNER, runOwnerRows);
+            }
+        });
+    }
+
+    private void throttle(int messages) {
+        long now = System.nanoTime();
+        if (nextSendAllowedAt - now > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(nextSendAllowedAt - now);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            now = System.nanoTime();
+        }
+        nextSendAllowedAt = now + TimeUnit.SECONDS.toNanos(messages) / maxPerSecond;
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+}
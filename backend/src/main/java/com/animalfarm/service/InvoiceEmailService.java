@@ -1,74 +1,153 @@
 package com.animalfarm.service;
 
 import com.animalfarm.model.OwnerInvoice;
+import jakarta.mail.internet.MimeMessage;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.security.crypto.encrypt.Encryptors;
+import org.springframework.security.crypto.encrypt.TextEncryptor;
 import org.springframework.stereotype.Service;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Sends invoice emails. Mail goes out with the configured {@code spring.mail} credentials unless a
+ * billing run was queued with its own SMTP password; that password is kept only in encrypted
+ * ("sealed") form on the run and its outbox rows, so any node can send the run's emails, including
+ * after a restart.
+ */
 @Service
 public class InvoiceEmailService {
+    private static final String SECRET_SALT = "a3f1c9e07b5d2846";
+
     private final JavaMailSender javaMailSender;
-    private final InvoicePdfService invoicePdfService;
     private final String fromEmail;
     private final String mailHost;
     private final int mailPort;
     private final String mailUsername;
     private final boolean smtpAuth;
     private final boolean smtpStartTls;
+    private final TextEncryptor secrets;
+    private final AtomicReference<PasswordSender> passwordSender = new AtomicReference<>();
 
     public InvoiceEmailService(
             JavaMailSender javaMailSender,
-            InvoicePdfService invoicePdfService,
             @Value("${app.invoice.from-email}") String fromEmail,
             @Value("${spring.mail.host}") String mailHost,
             @Value("${spring.mail.port}") int mailPort,
             @Value("${spring.mail.username:}") String mailUsername,
             @Value("${spring.mail.properties.mail.smtp.auth:false}") boolean smtpAuth,
-            @Value("${spring.mail.properties.mail.smtp.starttls.enable:false}") boolean smtpStartTls
+            @Value("${spring.mail.properties.mail.smtp.starttls.enable:false}") boolean smtpStartTls,
+            @Value("${app.invoice.outbox.secret-key}") String secretKey
     ) {
         this.javaMailSender = javaMailSender;
-        this.invoicePdfService = invoicePdfService;
         this.fromEmail = fromEmail;
         this.mailHost = mailHost;
         this.mailPort = mailPort;
         this.mailUsername = mailUsername;
         this.smtpAuth = smtpAuth;
         this.smtpStartTls = smtpStartTls;
+        this.secrets = Encryptors.delux(secretKey, SECRET_SALT);
+    }
+
+    /** Encrypts a per-run SMTP password for storage; {@code null} when none was given. */
+    public String sealPassword(String smtpPassword) {
+        if (smtpPassword == null || smtpPassword.isBlank()) {
+            return null;
+        }
+        return secrets.encrypt(smtpPassword);
     }
 
-    public void sendOwnerInvoice(OwnerInvoice invoice, String smtpPassword) {
-        byte[] pdf = invoicePdfService.buildInvoicePdf(invoice);
+    /**
+     * Sends the invoices over one connection, authenticating with the password sealed by
+     * {@link #sealPassword}, or with the configured credentials when {@code sealedPassword} is
+     * {@code null}. Returns an error message per invoice that could not be sent.
+     */
+    public Map<Long, String> sendOwnerInvoices(List<OwnerInvoice> invoices, Map<Long, byte[]> pdfs,
+                                               String sealedPassword) {
+        Map<Long, String> failures = new HashMap<>();
+        if (invoices.isEmpty()) {
+            return failures;
+        }
+        JavaMailSender sender;
+        try {
+            sender = senderFor(sealedPassword);
+        } catch (IllegalStateException | IllegalArgumentException e) {
+            invoices.forEach(invoice -> failures.put(invoice.getId(),
+                    "Failed to send invoice email: stored SMTP password cannot be decrypted."));
+            return failures;
+        }
+        Map<MimeMessage, Long> invoiceIds = new LinkedHashMap<>();
+        for (OwnerInvoice invoice : invoices) {
+            try {
+                invoiceIds.put(buildMessage(sender, invoice, pdfs.get(invoice.getId())), invoice.getId());
+            } catch (Exception e) {
+                failures.put(invoice.getId(), "Failed to send invoice email: " + e.getMessage());
+            }
+        }
+        if (invoiceIds.isEmpty()) {
+            return failures;
+        }
         try {
-            JavaMailSender sender = createSenderForRequest(smtpPassword);
-            var message = sender.createMimeMessage();
-            var helper = new MimeMessageHelper(message, true);
-            helper.setFrom(fromEmail);
-            helper.setTo(invoice.getOwner().getEmail());
-            helper.setSubject("Monthly Farm Invoice - " + invoice.getPeriodYear() + "-" + invoice.getPeriodMonth());
-            helper.setText(
-                    "Dear " + invoice.getOwner().getFirstName() + ",\n\n"
-                            + "Attached is your monthly farm invoice.\n"
-                            + "Total due: " + invoice.getTotalDue() + "\n\n"
-                            + "Regards,\nAnimal Farm Admin"
-            );
-            helper.addAttachment(
-                    "invoice-" + invoice.getOwner().getOwnerId() + "-" + invoice.getPeriodYear() + "-" + invoice.getPeriodMonth() + ".pdf",
-                    new ByteArrayResource(pdf)
-            );
-            sender.send(message);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to send invoice email: " + e.getMessage(), e);
+            sender.send(invoiceIds.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failed = e.getFailedMessages();
+            if (failed.isEmpty()) {
+                invoiceIds.values().forEach(id -> failures.put(id, "Failed to send invoice email: " + e.getMessage()));
+            }
+            failed.forEach((message, ex) -> {
+                Long invoiceId = invoiceIds.get(message);
+                if (invoiceId != null) {
+                    failures.put(invoiceId, "Failed to send invoice email: " + ex.getMessage());
+                }
+            });
+        } catch (MailException e) {
+            invoiceIds.values().forEach(id -> failures.put(id, "Failed to send invoice email: " + e.getMessage()));
         }
+        return failures;
     }
 
-    private JavaMailSender createSenderForRequest(String smtpPassword) {
-        if (smtpPassword == null || smtpPassword.isBlank()) {
+    private MimeMessage buildMessage(JavaMailSender sender, OwnerInvoice invoice, byte[] pdf) throws Exception {
+        MimeMessage message = sender.createMimeMessage();
+        var helper = new MimeMessageHelper(message, true);
+        helper.setFrom(fromEmail);
+        helper.setTo(invoice.getOwner().getEmail());
+        helper.setSubject("Monthly Farm Invoice - " + invoice.getPeriodYear() + "-" + invoice.getPeriodMonth());
+        helper.setText(
+                "Dear " + invoice.getOwner().getFirstName() + ",\n\n"
+                        + "Attached is your monthly farm invoice.\n"
+                        + "Total due: " + invoice.getTotalDue() + "\n\n"
+                        + "Regards,\nAnimal Farm Admin"
+        );
+        helper.addAttachment(
+                "invoice-" + invoice.getOwner().getOwnerId() + "-" + invoice.getPeriodYear() + "-" + invoice.getPeriodMonth() + ".pdf",
+                new ByteArrayResource(pdf)
+        );
+        return message;
+    }
+
+    private JavaMailSender senderFor(String sealedPassword) {
+        if (sealedPassword == null) {
             return javaMailSender;
         }
+        PasswordSender current = passwordSender.get();
+        if (current == null || !current.sealedPassword().equals(sealedPassword)) {
+            current = new PasswordSender(sealedPassword, createSender(secrets.decrypt(sealedPassword)));
+            passwordSender.set(current);
+        }
+        return current.sender();
+    }
+
+    private JavaMailSender createSender(String smtpPassword) {
         JavaMailSenderImpl sender = new JavaMailSenderImpl();
         sender.setHost(mailHost);
         sender.setPort(mailPort);
@@ -80,4 +159,7 @@ public class InvoiceEmailService {
         props.put("mail.smtp.starttls.enable", String.valueOf(smtpStartTls));
         return sender;
     }
+
+    private record PasswordSender(String sealedPassword, JavaMailSender sender) {
+    }
 }
@@ -2,15 +2,28 @@ package com.animalfarm.service;
 
 import com.animalfarm.dto.InvoiceParameterDto;
 import com.animalfarm.dto.InvoiceParameterUpdateRequest;
+import com.animalfarm.dto.InvoiceRateScheduleEntry;
 import com.animalfarm.model.ActorRole;
 import com.animalfarm.model.InvoiceParameter;
 import com.animalfarm.repository.InvoiceParameterRepository;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+/**
+ * Owns the effective-dated invoice rate schedules and an in-memory {@link RateSchedule} built from
+ * them. The schedule is read once and then reloaded only after {@link #update} commits, so billing
+ * resolves rates for any month without querying.
+ */
 @Service
 public class InvoiceParameterService {
     private final InvoiceParameterRepository invoiceParameterRepository;
+    private final AtomicReference<RateSchedule> schedule = new AtomicReference<>();
 
     public InvoiceParameterService(InvoiceParameterRepository invoiceParameterRepository) {
         this.invoiceParameterRepository = invoiceParameterRepository;
@@ -18,13 +31,41 @@ public class InvoiceParameterService {
 
     public InvoiceParameterDto getCurrent(ActorRole role) {
         RoleValidator.requireAdmin(role);
-        return InvoiceParameterDto.from(getOrCreate());
+        return rateCard().parameters();
     }
 
+    public InvoiceParameterDto getForPeriod(YearMonth period, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        return rateCard(period).parameters();
+    }
+
+    /**
+     * Every stored schedule, oldest first, including ones replaced by a later change for the same
+     * month, so any invoice's {@code rateVersion} can be looked up.
+     */
+    public List<InvoiceRateScheduleEntry> history(ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        List<InvoiceParameter> rows = invoiceParameterRepository.findAllByOrderByEffectivePeriodAscIdAsc();
+        List<InvoiceRateScheduleEntry> entries = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            RateCard card = RateCard.of(rows.get(i));
+            boolean superseded = i + 1 < rows.size()
+                    && rows.get(i + 1).getEffectivePeriod() == rows.get(i).getEffectivePeriod();
+            entries.add(new InvoiceRateScheduleEntry(card.version(), card.effectiveFrom(), superseded, card.parameters()));
+        }
+        return entries;
+    }
+
+    /**
+     * Adds a schedule starting in {@code request.effectiveFrom()}. Existing rows are never changed,
+     * so invoices already charged keep pointing at the rates they used.
+     */
     @Transactional
     public InvoiceParameterDto update(InvoiceParameterUpdateRequest request, ActorRole role) {
         RoleValidator.requireAdmin(role);
-        InvoiceParameter p = getOrCreate();
+        YearMonth effectiveFrom = request.effectiveFrom() != null ? request.effectiveFrom() : YearMonth.now();
+        InvoiceParameter p = new InvoiceParameter();
+        p.setEffectivePeriod(RateSchedule.period(effectiveFrom));
         p.setCattleMonthlyFeeds(request.cattleMonthlyFeeds());
         p.setCattleMonthlyMedication(request.cattleMonthlyMedication());
         p.setGoatMonthlyFeeds(request.goatMonthlyFeeds());
@@ -33,14 +74,41 @@ public class InvoiceParameterService {
         p.setPigMonthlyMedication(request.pigMonthlyMedication());
         p.setRamMonthlyFeeds(request.ramMonthlyFeeds());
         p.setRamMonthlyMedication(request.ramMonthlyMedication());
+        invoiceParameterRepository.save(p);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(load());
+            }
+        });
         return InvoiceParameterDto.from(p);
     }
 
-    public InvoiceParameter getInternal() {
-        return getOrCreate();
+    /** The rates in force this month. */
+    public RateCard rateCard() {
+        return rateCard(YearMonth.now());
+    }
+
+    /** The rates in force during {@code period}. Loaded from the database on first use only. */
+    public RateCard rateCard(YearMonth period) {
+        RateSchedule current = schedule.get();
+        if (current == null) {
+            current = publish(load());
+        }
+        return current.at(period);
+    }
+
+    /** Keeps the newer schedule when two reloads (or a reload and the first load) race. */
+    private RateSchedule publish(RateSchedule loaded) {
+        return schedule.accumulateAndGet(loaded, (current, next) ->
+                current == null || next.latestVersion() > current.latestVersion() ? next : current);
     }
 
-    private InvoiceParameter getOrCreate() {
-        return invoiceParameterRepository.findAll().stream().findFirst().orElseGet(() -> invoiceParameterRepository.save(new InvoiceParameter()));
+    private RateSchedule load() {
+        List<InvoiceParameter> rows = invoiceParameterRepository.findAllByOrderByEffectivePeriodAscIdAsc();
+        if (rows.isEmpty()) {
+            rows = List.of(invoiceParameterRepository.save(new InvoiceParameter()));
+        }
+        return RateSchedule.of(rows);
     }
 }
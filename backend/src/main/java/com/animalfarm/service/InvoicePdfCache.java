@@ -0,0 +1,175 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.OwnerInvoice;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rendered invoice PDFs on local disk, named {@code invoice-<id>-v<contentVersion>-r<layout>.pdf}.
+ * The name is the strong ETag: an invoice's PDF only changes when its content version does, and
+ * the least recently used files are removed once the directory exceeds its size budget.
+ */
+@Service
+public class InvoicePdfCache {
+    /**
+     * Bump when the invoice PDF layout changes so previously rendered files are no longer used.
+     */
+    static final int LAYOUT_VERSION = 2;
+
+    private static final Logger log = LoggerFactory.getLogger(InvoicePdfCache.class);
+    private static final String CONTENT_TYPE = "application/pdf";
+
+    private final InvoicePdfService invoicePdfService;
+    private final Path root;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    public InvoicePdfCache(
+            InvoicePdfService invoicePdfService,
+            @Value("${app.invoice.pdf-cache.dir:./data/pdf-cache}") String dir,
+            @Value("${app.invoice.pdf-cache.max-bytes:536870912}") long maxBytes
+    ) {
+        this.invoicePdfService = invoicePdfService;
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+        this.maxBytes = Math.max(0, maxBytes);
+        load();
+    }
+
+    public StoredFile get(OwnerInvoice invoice) {
+        String key = key(invoice);
+        Path path = root.resolve(key + ".pdf");
+        synchronized (this) {
+            if (entries.get(key) != null && Files.exists(path)) {
+                return new StoredFile(path, key, CONTENT_TYPE);
+            }
+        }
+        byte[] pdf = invoicePdfService.buildInvoicePdf(invoice);
+        try {
+            Path temp = Files.createTempFile(root, "render-", ".tmp");
+            Files.write(temp, pdf);
+            try {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to cache invoice PDF " + key, e);
+        }
+        synchronized (this) {
+            Long previous = entries.put(key, (long) pdf.length);
+            totalBytes += pdf.length - (previous != null ? previous : 0);
+            evict(key);
+        }
+        return new StoredFile(path, key, CONTENT_TYPE);
+    }
+
+    public byte[] bytes(OwnerInvoice invoice) {
+        StoredFile file = get(invoice);
+        try {
+            return Files.readAllBytes(file.path());
+        } catch (IOException e) {
+            synchronized (this) {
+                forget(file.etag());
+            }
+            return invoicePdfService.buildInvoicePdf(invoice);
+        }
+    }
+
+    public synchronized void invalidate(Long invoiceId) {
+        String prefix = "invoice-" + invoiceId + "-";
+        List<String> stale = new ArrayList<>();
+        for (String key : entries.keySet()) {
+            if (key.startsWith(prefix)) {
+                stale.add(key);
+            }
+        }
+        stale.forEach(this::forget);
+    }
+
+    synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    static String key(OwnerInvoice invoice) {
+        return "invoice-" + invoice.getId() + "-v" + invoice.getContentVersion() + "-r" + LAYOUT_VERSION;
+    }
+
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(keep)) {
+                continue;
+            }
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            delete(entry.getKey());
+        }
+    }
+
+    private void forget(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        delete(key);
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(root.resolve(key + ".pdf"));
+        } catch (IOException e) {
+            log.warn("Failed to delete cached invoice PDF {}", key, e);
+        }
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(root);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(root)) {
+                stream.forEach(files::add);
+            }
+            files.sort(Comparator.comparing(InvoicePdfCache::lastModified));
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith("invoice-") && name.endsWith("-r" + LAYOUT_VERSION + ".pdf")) {
+                    long size = Files.size(file);
+                    entries.put(name.substring(0, name.length() - ".pdf".length()), size);
+                    totalBytes += size;
+                } else {
+                    Files.deleteIfExists(file);
+                }
+            }
+            evict(null);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to initialise invoice PDF cache at " + root, e);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
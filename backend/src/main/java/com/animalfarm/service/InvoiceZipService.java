@@ -0,0 +1,121 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import com.animalfarm.repository.OwnerInvoiceSpecifications;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Streams invoice PDFs into a ZIP as they are rendered. Invoices are read a page at a time and at
+ * most {@code window} rendered PDFs are held in memory, regardless of how many invoices match.
+ * Rendering runs on the shared {@code invoiceRenderExecutor}.
+ */
+@Service
+public class InvoiceZipService {
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "id");
+
+    private final OwnerInvoiceRepository ownerInvoiceRepository;
+    private final InvoicePdfCache invoicePdfCache;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor renderers;
+    private final int window;
+    private final int pageSize;
+
+    public InvoiceZipService(
+            OwnerInvoiceRepository ownerInvoiceRepository,
+            InvoicePdfCache invoicePdfCache,
+            TransactionTemplate transactionTemplate,
+            @Qualifier("invoiceRenderExecutor") AsyncTaskExecutor renderers,
+            @Value("${app.invoice.worker-threads:4}") int workerThreads,
+            @Value("${app.invoice.zip.page-size:200}") int pageSize
+    ) {
+        this.ownerInvoiceRepository = ownerInvoiceRepository;
+        this.invoicePdfCache = invoicePdfCache;
+        this.transactionTemplate = transactionTemplate;
+        this.renderers = renderers;
+        this.window = Math.max(1, workerThreads) * 2;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    public StreamingResponseBody stream(ActorRole role, UUID requesterOwnerId, UUID ownerId, Integer year, Integer month) {
+        UUID effectiveOwnerId = role == ActorRole.OWNER ? requesterOwnerId : ownerId;
+        if (effectiveOwnerId == null) {
+            RoleValidator.requireAdmin(role);
+        }
+        return out -> write(effectiveOwnerId, year, month, out);
+    }
+
+    private void write(UUID ownerId, Integer year, Integer month, OutputStream out) throws IOException {
+        Deque<Rendering> pending = new ArrayDeque<>(window);
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            Long beforeId = null;
+            List<OwnerInvoice> page;
+            do {
+                page = nextPage(ownerId, year, month, beforeId);
+                for (OwnerInvoice invoice : page) {
+                    if (pending.size() == window) {
+                        writeEntry(zip, pending.removeFirst());
+                    }
+                    pending.addLast(new Rendering(entryName(invoice),
+                            renderers.submit(() -> invoicePdfCache.bytes(invoice))));
+                }
+                beforeId = page.isEmpty() ? beforeId : page.get(page.size() - 1).getId();
+            } while (page.size() == pageSize);
+            while (!pending.isEmpty()) {
+                writeEntry(zip, pending.removeFirst());
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            pending.forEach(rendering -> rendering.pdf().cancel(true));
+        }
+    }
+
+    private List<OwnerInvoice> nextPage(UUID ownerId, Integer year, Integer month, Long beforeId) {
+        return transactionTemplate.execute(status -> ownerInvoiceRepository.findBy(
+                OwnerInvoiceSpecifications.matching(ownerId, year, month, beforeId),
+                query -> query.project("owner").sortBy(NEWEST_FIRST).limit(pageSize).all()
+        ));
+    }
+
+    private static void writeEntry(ZipOutputStream zip, Rendering rendering) throws IOException {
+        byte[] pdf;
+        try {
+            pdf = rendering.pdf().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rendering " + rendering.name(), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to render " + rendering.name(), e.getCause());
+        }
+        zip.putNextEntry(new ZipEntry(rendering.name()));
+        zip.write(pdf);
+        zip.closeEntry();
+    }
+
+    private static String entryName(OwnerInvoice invoice) {
+        return "invoice-" + invoice.getId() + "-owner-" + invoice.getOwner().getOwnerId()
+                + "-" + invoice.getPeriodYear() + "-" + String.format("%02d", invoice.getPeriodMonth()) + ".pdf";
+    }
+
+    private record Rendering(String name, Future<byte[]> pdf) {
+    }
+}
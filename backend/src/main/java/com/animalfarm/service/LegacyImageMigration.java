@@ -0,0 +1,83 @@
+package com.animalfarm.service;
+
+import java.io.ByteArrayInputStream;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves images that older versions kept as data URLs in {@code animals.image} into the
+ * {@link ImageStore}. Values that are not decodable data URLs are left where they are and logged,
+ * so nothing is lost; they are reported again on every start until someone deals with them.
+ */
+@Component
+public class LegacyImageMigration implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(LegacyImageMigration.class);
+    private static final int BATCH = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImageStore imageStore;
+
+    public LegacyImageMigration(JdbcTemplate jdbcTemplate, ImageStore imageStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.imageStore = imageStore;
+    }
+
+    @Override
+    public void run(String... args) {
+        int migrated = 0;
+        int skipped = 0;
+        long after = 0;
+        try {
+            List<Map<String, Object>> rows;
+            do {
+                rows = jdbcTemplate.queryForList("select id, image from animals "
+                        + "where image is not null and id > ? order by id limit " + BATCH, after);
+                for (Map<String, Object> row : rows) {
+                    after = ((Number) row.get("id")).longValue();
+                    if (migrate(after, String.valueOf(row.get("image")))) {
+                        migrated++;
+                    } else {
+                        skipped++;
+                    }
+                }
+            } while (rows.size() == BATCH);
+        } catch (BadSqlGrammarException e) {
+            return;
+        }
+        if (migrated > 0) {
+            log.info("Moved {} legacy animal images into the image store", migrated);
+        }
+        if (skipped > 0) {
+            log.warn("Left {} legacy animal images that are not base64 data URLs in animals.image", skipped);
+        }
+    }
+
+    private boolean migrate(long id, String dataUrl) {
+        int comma = dataUrl.indexOf(',');
+        if (!dataUrl.startsWith("data:") || comma < 0) {
+            log.warn("Legacy image of animal {} is not a data URL, leaving it in place", id);
+            return false;
+        }
+        String meta = dataUrl.substring("data:".length(), comma);
+        String contentType = meta.endsWith(";base64") ? meta.substring(0, meta.length() - ";base64".length()) : meta;
+        String hash;
+        try {
+            byte[] bytes = Base64.getDecoder().decode(dataUrl.substring(comma + 1));
+            hash = imageStore.store(new ByteArrayInputStream(bytes));
+        } catch (IllegalArgumentException e) {
+            log.warn("Legacy image of animal {} is not valid base64, leaving it in place", id);
+            return false;
+        }
+        jdbcTemplate.update(
+                "update animals set image_hash = ?, image_content_type = ?, image = null where id = ?",
+                hash, contentType, id);
+        return true;
+    }
+}
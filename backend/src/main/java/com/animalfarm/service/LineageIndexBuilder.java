@@ -0,0 +1,59 @@
+package com.animalfarm.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rebuilds {@code animal_lineage} on startup when it does not cover every animal, e.g. the
+ * first start after upgrading or after animals were inserted outside the application.
+ * Each pass adds one generation with a single insert-select.
+ */
+@Component
+public class LineageIndexBuilder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(LineageIndexBuilder.class);
+
+    private static final String SELF_ROWS = "insert into animal_lineage (ancestor_id, descendant_id, depth) "
+            + "select id, id, 0 from animals";
+    private static final String NEXT_GENERATION = "insert into animal_lineage (ancestor_id, descendant_id, depth) "
+            + "select l.ancestor_id, c.id, l.depth + 1 from animal_lineage l "
+            + "join animals p on p.id = l.descendant_id "
+            + "join animals c on c.parent_id = p.animal_id "
+            + "where l.depth = ? and not exists (select 1 from animal_lineage x "
+            + "where x.ancestor_id = l.ancestor_id and x.descendant_id = c.id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public LineageIndexBuilder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void run(String... args) {
+        Long animals = jdbcTemplate.queryForObject("select count(*) from animals", Long.class);
+        Long indexed = jdbcTemplate.queryForObject("select count(*) from animal_lineage where depth = 0", Long.class);
+        if (animals != null && animals.equals(indexed)) {
+            return;
+        }
+        Long rows = transactionTemplate.execute(status -> rebuild());
+        log.info("Rebuilt animal lineage index for {} animals ({} rows)", animals, rows);
+    }
+
+    long rebuild() {
+        jdbcTemplate.update("delete from animal_lineage");
+        long rows = jdbcTemplate.update(SELF_ROWS);
+        for (int depth = 0; depth < LineageService.MAX_GENERATIONS; depth++) {
+            int added = jdbcTemplate.update(NEXT_GENERATION, depth);
+            if (added == 0) {
+                break;
+            }
+            rows += added;
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,148 @@
+package com.animalfarm.service;
+
+import com.animalfarm.dto.InbreedingCheck;
+import com.animalfarm.dto.LineageNode;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Animal;
+import com.animalfarm.model.AnimalType;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pedigree queries over the {@code animal_lineage} closure table. Every query is a single
+ * statement whatever the depth; the table is extended by one insert per registered animal.
+ */
+@Service
+public class LineageService {
+    static final int DEFAULT_GENERATIONS = 5;
+    static final int MAX_GENERATIONS = 1_000;
+
+    private static final String RECORD_BIRTH = "insert into animal_lineage (ancestor_id, descendant_id, depth) "
+            + "select a.id, a.id, 0 from animals a where a.id = ? "
+            + "union all "
+            + "select l.ancestor_id, c.id, l.depth + 1 from animals c "
+            + "join animals p on p.animal_id = c.parent_id "
+            + "join animal_lineage l on l.descendant_id = p.id where c.id = ?";
+    private static final String NODE_COLUMNS = "select a.animal_id, a.parent_id, a.type, a.breed, a.color, "
+            + "a.date_of_birth, a.sold, l.depth from animal_lineage l ";
+    private static final String DESCENDANTS = NODE_COLUMNS
+            + "join animals r on r.id = l.ancestor_id "
+            + "join animals a on a.id = l.descendant_id "
+            + "where r.animal_id = ? and l.depth <= ? order by l.depth, a.id";
+    private static final String ANCESTORS = NODE_COLUMNS
+            + "join animals d on d.id = l.descendant_id "
+            + "join animals a on a.id = l.ancestor_id "
+            + "where d.animal_id = ? and l.depth <= ? order by l.depth";
+    private static final String NEAREST_COMMON_ANCESTOR = "select a.animal_id, x.depth, y.depth "
+            + "from animal_lineage x "
+            + "join animal_lineage y on y.ancestor_id = x.ancestor_id "
+            + "join animals dx on dx.id = x.descendant_id "
+            + "join animals dy on dy.id = y.descendant_id "
+            + "join animals a on a.id = x.ancestor_id "
+            + "where dx.animal_id = ? and dy.animal_id = ? and x.depth <= ? and y.depth <= ? "
+            + "order by x.depth + y.depth, x.depth limit 1";
+
+    private static final RowMapper<LineageNode> NODE = LineageService::node;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LineageService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds the new animal's rows: itself at depth 0 plus every ancestor of its parent one
+     * generation further away. Must run in the transaction that inserted the animal.
+     */
+    public void recordBirth(Animal animal) {
+        jdbcTemplate.update(RECORD_BIRTH, animal.getId(), animal.getId());
+    }
+
+    /**
+     * {@link #recordBirth} for many animals as one JDBC batch. Ids must be in insertion order so
+     * a parent's rows exist before its offspring's.
+     */
+    public void recordBirths(List<Long> animalIds) {
+        jdbcTemplate.batchUpdate(RECORD_BIRTH, animalIds, animalIds.size(), (ps, id) -> {
+            ps.setLong(1, id);
+            ps.setLong(2, id);
+        });
+    }
+
+    /**
+     * The animal (depth 0) followed by its descendants, nearest generations first. Each node
+     * carries its parent id so callers can assemble the tree.
+     */
+    public List<LineageNode> descendants(UUID animalId, Integer maxDepth, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        int depth = maxDepth == null ? MAX_GENERATIONS : generations(maxDepth);
+        return found(animalId, jdbcTemplate.query(DESCENDANTS, NODE, animalId.toString(), depth));
+    }
+
+    /**
+     * The animal (depth 0) followed by its parent, grandparent and so on up to
+     * {@code generations} levels.
+     */
+    public List<LineageNode> ancestors(UUID animalId, Integer generations, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        int depth = generations == null ? DEFAULT_GENERATIONS : generations(generations);
+        return found(animalId, jdbcTemplate.query(ANCESTORS, NODE, animalId.toString(), depth));
+    }
+
+    /**
+     * Looks for the nearest ancestor shared by both animals within {@code generations} levels.
+     * Each animal records a single parent, so the pedigree has exactly one path to that
+     * ancestor and the offspring's coefficient is (1/2)^(n1 + n2 + 1).
+     */
+    public InbreedingCheck checkPairing(UUID firstAnimalId, UUID secondAnimalId, Integer generations, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        if (firstAnimalId.equals(secondAnimalId)) {
+            throw new ApiException("Choose two different animals.");
+        }
+        int depth = generations == null ? DEFAULT_GENERATIONS : generations(generations);
+        List<InbreedingCheck> rows = jdbcTemplate.query(NEAREST_COMMON_ANCESTOR, (rs, rowNum) -> {
+            int first = rs.getInt(2);
+            int second = rs.getInt(3);
+            return new InbreedingCheck(firstAnimalId, secondAnimalId, depth, true,
+                    UUID.fromString(rs.getString(1)), first, second, Math.pow(0.5, first + second + 1));
+        }, firstAnimalId.toString(), secondAnimalId.toString(), depth, depth);
+        if (rows.isEmpty()) {
+            return new InbreedingCheck(firstAnimalId, secondAnimalId, depth, false, null, null, null, 0);
+        }
+        return rows.get(0);
+    }
+
+    private static int generations(int requested) {
+        if (requested < 1 || requested > MAX_GENERATIONS) {
+            throw new ApiException("Generations must be between 1 and " + MAX_GENERATIONS + ".");
+        }
+        return requested;
+    }
+
+    private static List<LineageNode> found(UUID animalId, List<LineageNode> nodes) {
+        if (nodes.isEmpty()) {
+            throw new ApiException("Animal not found: " + animalId);
+        }
+        return nodes;
+    }
+
+    private static LineageNode node(ResultSet rs, int rowNum) throws SQLException {
+        String parentId = rs.getString("parent_id");
+        return new LineageNode(
+                UUID.fromString(rs.getString("animal_id")),
+                parentId != null ? UUID.fromString(parentId) : null,
+                AnimalType.valueOf(rs.getString("type")),
+                rs.getString("breed"),
+                rs.getString("color"),
+                rs.getObject("date_of_birth", java.time.LocalDate.class),
+                rs.getBoolean("sold"),
+                rs.getInt("depth")
+        );
+    }
+}
@@ -0,0 +1,289 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.BillingOwnerStatus;
+import com.animalfarm.model.BillingRun;
+import com.animalfarm.model.BillingRunStatus;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.BillingRunRepository;
+import com.animalfarm.repository.OwnerRepository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Background worker for queued {@link BillingRun}s. It claims the oldest active run with a lease,
+ * then takes the run's pending owners a chunk at a time: creates their invoices and queues the
+ * emails in one transaction that also renews the lease and advances the owners to {@code CREATED},
+ * then pre-renders the PDFs. Invoice creation skips owners already billed for the month, so a run
+ * resumed after a restart, or queued again, never bills anyone twice.
+ *
+ * <p>Every write for the run is fenced by the claim token, and a chunk renews the lease before it
+ * writes anything. Renewing locks the run row until the chunk commits, so another worker cannot
+ * claim the run mid-chunk; a worker that finds its token replaced stops without touching the run.
+ */
+@Service
+public class MonthlyInvoicePipeline {
+    private static final Logger log = LoggerFactory.getLogger(MonthlyInvoicePipeline.class);
+
+    private static final String CLAIM = "update billing_runs set status = ?, started_at = coalesce(started_at, ?), "
+            + "lease_until = ?, claim_token = ? "
+            + "where id = ? and status in (?, ?) and (lease_until is null or lease_until < ?)";
+    private static final String RENEW = "update billing_runs set lease_until = ? "
+            + "where id = ? and claim_token = ? and status = ?";
+    private static final String ADD_COUNTS = "update billing_runs "
+            + "set invoices_created = invoices_created + ?, emails_queued = emails_queued + ? where id = ?";
+    private static final String FINISH = "update billing_runs set status = ?, finished_at = ?, lease_until = null, "
+            + "claim_token = null, active_period = null, error = ? where id = ? and claim_token = ?";
+    private static final String NEXT_PENDING = "select owner_id from billing_run_owners "
+            + "where run_id = ? and status = ? order by owner_id limit ?";
+    private static final String HOLDS_CLAIM = " and exists "
+            + "(select 1 from billing_runs r where r.id = billing_run_owners.run_id and r.claim_token = ?)";
+    private static final String ADVANCE = "update billing_run_owners set status = ?, invoice_id = ?, error = ?, "
+            + "updated_at = ? where run_id = ? and owner_id = ? and status = ?" + HOLDS_CLAIM;
+    private static final String RENDERED = "update billing_run_owners set status = ?, error = ?, updated_at = ? "
+            + "where run_id = ? and owner_id = ? and status = ?" + HOLDS_CLAIM;
+
+    private final BillingRunRepository billingRunRepository;
+    private final OwnerRepository ownerRepository;
+    private final HerdCountService herdCountService;
+    private final InvoiceParameterService invoiceParameterService;
+    private final InvoiceChunkWriter invoiceChunkWriter;
+    private final InvoicePdfCache invoicePdfCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long leaseSeconds;
+    private final AsyncTaskExecutor renderers;
+
+    public MonthlyInvoicePipeline(
+            BillingRunRepository billingRunRepository,
+            OwnerRepository ownerRepository,
+            HerdCountService herdCountService,
+            InvoiceParameterService invoiceParameterService,
+            InvoiceChunkWriter invoiceChunkWriter,
+            InvoicePdfCache invoicePdfCache,
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.invoice.chunk-size:200}") int chunkSize,
+            @Value("${app.invoice.runs.lease-seconds:300}") long leaseSeconds,
+            @Qualifier("invoiceRenderExecutor") AsyncTaskExecutor renderers
+    ) {
+        this.billingRunRepository = billingRunRepository;
+        this.ownerRepository = ownerRepository;
+        this.herdCountService = herdCountService;
+        this.invoiceParameterService = invoiceParameterService;
+        this.invoiceChunkWriter = invoiceChunkWriter;
+        this.invoicePdfCache = invoicePdfCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.leaseSeconds = Math.max(1, leaseSeconds);
+        this.renderers = renderers;
+    }
+
+    @Scheduled(fixedDelayString = "${app.invoice.runs.poll-millis:2000}")
+    public void drive() {
+        while (runNext()) {
+            // Keep going while runs are queued.
+        }
+    }
+
+    /**
+     * Claims and completes the oldest active run. Returns {@code false} when nothing is queued or
+     * another worker still holds the lease on it.
+     */
+    public synchronized boolean runNext() {
+        Optional<BillingRun> next = billingRunRepository.findFirstByStatusInOrderByIdAsc(BillingRunService.ACTIVE);
+        if (next.isEmpty()) {
+            return false;
+        }
+        BillingRun run = next.get();
+        LocalDateTime now = LocalDateTime.now();
+        String token = UUID.randomUUID().toString();
+        int claimed = jdbcTemplate.update(CLAIM, BillingRunStatus.RUNNING.name(), Timestamp.valueOf(now),
+                leaseFrom(now), token, run.getId(), BillingRunStatus.QUEUED.name(), BillingRunStatus.RUNNING.name(),
+                Timestamp.valueOf(now));
+        if (claimed == 0) {
+            return false;
+        }
+        process(new Claim(run.getId(), token, run.getSmtpSecret()), run);
+        return true;
+    }
+
+    private void process(Claim claim, BillingRun run) {
+        YearMonth ym = YearMonth.of(run.getPeriodYear(), run.getPeriodMonth());
+        try {
+            RateCard rates = invoiceParameterService.rateCard(ym);
+            HerdCounts counts = herdCountService.loadAllActiveCounts(
+                    (int) Math.min(run.getTotalOwners(), Integer.MAX_VALUE));
+            long processed = 0;
+            List<Long> pending;
+            while (!(pending = nextPending(claim.runId())).isEmpty()) {
+                processChunk(claim, pending, ym, rates, counts);
+                processed += pending.size();
+                log.info("Billing run {} ({}): {}/{} owners processed",
+                        claim.runId(), ym, processed, run.getTotalOwners());
+            }
+            finish(claim, BillingRunStatus.COMPLETED, null);
+        } catch (LeaseLostException e) {
+            log.warn("Billing run {} ({}): lease lost to another worker, stopping", claim.runId(), ym);
+        } catch (RuntimeException e) {
+            log.error("Billing run {} ({}) failed", claim.runId(), ym, e);
+            finish(claim, BillingRunStatus.FAILED, truncate(e.getMessage()));
+        }
+    }
+
+    private List<Long> nextPending(Long runId) {
+        return jdbcTemplate.queryForList(NEXT_PENDING, Long.class, runId, BillingOwnerStatus.PENDING.name(), chunkSize);
+    }
+
+    /**
+     * Moves every owner in {@code pending} out of {@code PENDING}: to {@code CREATED} (or
+     * {@code EMAILED} when an earlier run already delivered the invoice), or to {@code FAILED}.
+     * A chunk that collides with invoices written concurrently for the same owners is retried
+     * once, which then picks those invoices up instead of failing the owners.
+     */
+    private void processChunk(Claim claim, List<Long> pending, YearMonth ym, RateCard rates, HerdCounts counts) {
+        List<Owner> owners = new ArrayList<>(ownerRepository.findAllById(pending));
+        owners.sort(Comparator.comparing(Owner::getId));
+        Set<Long> deleted = new HashSet<>(pending);
+        owners.forEach(owner -> deleted.remove(owner.getId()));
+        List<OwnerInvoice> invoices;
+        try {
+            try {
+                invoices = writeChunk(claim, owners, deleted, ym, rates, counts);
+            } catch (DataIntegrityViolationException e) {
+                log.info("Billing run {}: chunk collided with concurrent invoices, retrying", claim.runId());
+                invoices = writeChunk(claim, owners, deleted, ym, rates, counts);
+            }
+        } catch (LeaseLostException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Billing run {}: chunk of {} owners failed", claim.runId(), pending.size(), e);
+            fail(claim, pending, e);
+            return;
+        }
+        render(claim, invoices);
+    }
+
+    private List<OwnerInvoice> writeChunk(Claim claim, List<Owner> owners, Set<Long> deleted, YearMonth ym,
+                                          RateCard rates, HerdCounts counts) {
+        return transactionTemplate.execute(status -> {
+            renew(claim);
+            InvoiceChunkWriter.CreatedChunk written = owners.isEmpty()
+                    ? new InvoiceChunkWriter.CreatedChunk(List.of(), 0, 0)
+                    : invoiceChunkWriter.createMissing(owners, ym, rates, counts, claim.runId(),
+                            claim.smtpSecret());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            String pending = BillingOwnerStatus.PENDING.name();
+            List<Object[]> rows = new ArrayList<>(owners.size() + deleted.size());
+            for (OwnerInvoice invoice : written.invoices()) {
+                BillingOwnerStatus next = invoice.isEmailSent() ? BillingOwnerStatus.EMAILED : BillingOwnerStatus.CREATED;
+                rows.add(new Object[] {next.name(), invoice.getId(), null, now, claim.runId(),
+                        invoice.getOwner().getId(), pending, claim.token()});
+            }
+            for (Long ownerId : deleted) {
+                rows.add(new Object[] {BillingOwnerStatus.FAILED.name(), null, "Owner no longer exists.", now,
+                        claim.runId(), ownerId, pending, claim.token()});
+            }
+            jdbcTemplate.batchUpdate(ADVANCE, rows);
+            jdbcTemplate.update(ADD_COUNTS, written.created(), written.emailsQueued(), claim.runId());
+            return written.invoices();
+        });
+    }
+
+    /**
+     * Extends the lease if this worker still holds the claim. The update keeps the run row locked
+     * until the surrounding transaction ends.
+     */
+    private void renew(Claim claim) {
+        if (jdbcTemplate.update(RENEW, leaseFrom(LocalDateTime.now()), claim.runId(), claim.token(),
+                BillingRunStatus.RUNNING.name()) == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    /** Warms the PDF cache so the email outbox only has to attach the files. */
+    private void render(Claim claim, List<OwnerInvoice> invoices) {
+        List<OwnerInvoice> unsent = invoices.stream().filter(invoice -> !invoice.isEmailSent()).toList();
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(unsent.size());
+        for (OwnerInvoice invoice : unsent) {
+            futures.add(CompletableFuture.supplyAsync(() -> invoicePdfCache.bytes(invoice), renderers));
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(unsent.size());
+        for (int i = 0; i < unsent.size(); i++) {
+            OwnerInvoice invoice = unsent.get(i);
+            try {
+                futures.get(i).join();
+                rows.add(new Object[] {BillingOwnerStatus.RENDERED.name(), null, now, claim.runId(),
+                        invoice.getOwner().getId(), BillingOwnerStatus.CREATED.name(), claim.token()});
+            } catch (CompletionException e) {
+                log.warn("Billing run {}: failed to render invoice {}", claim.runId(), invoice.getId(), e.getCause());
+                rows.add(new Object[] {BillingOwnerStatus.CREATED.name(), truncate("Rendering failed: " + e.getCause()),
+                        now, claim.runId(), invoice.getOwner().getId(), BillingOwnerStatus.CREATED.name(), claim.token()});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(RENDERED, rows);
+        }
+    }
+
+    private void fail(Claim claim, List<Long> ownerIds, RuntimeException cause) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String error = truncate(cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+        List<Object[]> rows = ownerIds.stream()
+                .map(ownerId -> new Object[] {BillingOwnerStatus.FAILED.name(), null, error, now, claim.runId(),
+                        ownerId, BillingOwnerStatus.PENDING.name(), claim.token()})
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            renew(claim);
+            jdbcTemplate.batchUpdate(ADVANCE, rows);
+        });
+    }
+
+    private void finish(Claim claim, BillingRunStatus status, String error) {
+        if (jdbcTemplate.update(FINISH, status.name(), Timestamp.valueOf(LocalDateTime.now()), error,
+                claim.runId(), claim.token()) == 0) {
+            log.warn("Billing run {}: lease lost before it could be marked {}", claim.runId(), status);
+        }
+    }
+
+    private Timestamp leaseFrom(LocalDateTime now) {
+        return Timestamp.valueOf(now.plusSeconds(leaseSeconds));
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+    }
+
+    private record Claim(Long runId, String token, String smtpSecret) {
+    }
+
+    /** Thrown when another worker has claimed the run since this one did. */
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("Billing run lease lost", null, false, false);
+        }
+    }
+}
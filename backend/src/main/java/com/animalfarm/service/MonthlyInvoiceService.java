@@ -1,51 +1,55 @@
 package com.animalfarm.service;
 
-import com.animalfarm.dto.GeneratedInvoiceSummary;
+import com.animalfarm.dto.BillingRunOwnerEntry;
 import com.animalfarm.dto.InvoiceHistoryResponse;
+import com.animalfarm.dto.InvoiceRunProgress;
 import com.animalfarm.dto.MonthlyInvoiceResponse;
 import com.animalfarm.exception.ApiException;
 import com.animalfarm.model.ActorRole;
 import com.animalfarm.model.AnimalType;
-import com.animalfarm.model.InvoiceParameter;
+import com.animalfarm.model.BillingOwnerStatus;
 import com.animalfarm.model.Owner;
 import com.animalfarm.model.OwnerInvoice;
-import com.animalfarm.repository.AnimalRepository;
 import com.animalfarm.repository.OwnerInvoiceRepository;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Service
 public class MonthlyInvoiceService {
-    private final AnimalRepository animalRepository;
+    private final HerdCountService herdCountService;
     private final OwnerService ownerService;
     private final InvoiceParameterService invoiceParameterService;
     private final OwnerInvoiceRepository ownerInvoiceRepository;
-    private final InvoiceEmailService invoiceEmailService;
-    private final InvoicePdfService invoicePdfService;
+    private final InvoicePdfCache invoicePdfCache;
+    private final BillingRunService billingRunService;
+    private final InvoiceZipService invoiceZipService;
+    private final OwnerBalanceLedger balanceLedger;
 
     public MonthlyInvoiceService(
-            AnimalRepository animalRepository,
+            HerdCountService herdCountService,
             OwnerService ownerService,
             InvoiceParameterService invoiceParameterService,
             OwnerInvoiceRepository ownerInvoiceRepository,
-            InvoiceEmailService invoiceEmailService,
-            InvoicePdfService invoicePdfService
+            InvoicePdfCache invoicePdfCache,
+            BillingRunService billingRunService,
+            InvoiceZipService invoiceZipService,
+            OwnerBalanceLedger balanceLedger
     ) {
-        this.animalRepository = animalRepository;
+        this.herdCountService = herdCountService;
         this.ownerService = ownerService;
         this.invoiceParameterService = invoiceParameterService;
         this.ownerInvoiceRepository = ownerInvoiceRepository;
-        this.invoiceEmailService = invoiceEmailService;
-        this.invoicePdfService = invoicePdfService;
+        this.invoicePdfCache = invoicePdfCache;
+        this.billingRunService = billingRunService;
+        this.invoiceZipService = invoiceZipService;
+        this.balanceLedger = balanceLedger;
     }
 
     public MonthlyInvoiceResponse generateForOwner(UUID ownerId, ActorRole role, UUID requesterOwnerId) {
@@ -53,30 +57,53 @@ public class MonthlyInvoiceService {
             throw new ApiException("Owner can only generate own monthly invoice.");
         }
         Owner owner = ownerService.getOwner(ownerId);
-        InvoiceParameter p = invoiceParameterService.getInternal();
-        return calculate(owner, p);
+        RateCard rates = invoiceParameterService.rateCard();
+        return calculate(owner, rates, herdCountService.loadActiveCounts(owner.getId()));
     }
 
     public List<MonthlyInvoiceResponse> generateForAllOwners(ActorRole role) {
         RoleValidator.requireAdmin(role);
-        InvoiceParameter p = invoiceParameterService.getInternal();
-        return ownerService.listOwners().stream().map(owner -> calculate(owner, p)).toList();
+        RateCard rates = invoiceParameterService.rateCard();
+        List<Owner> owners = ownerService.listOwners();
+        HerdCounts counts = herdCountService.loadAllActiveCounts(owners.size());
+        return owners.stream().map(owner -> calculate(owner, rates, counts)).toList();
     }
 
-    @Transactional
-    public List<GeneratedInvoiceSummary> generateAndEmailAllOwners(Integer year, Integer month, String smtpPassword, ActorRole role) {
+    /** Queues the month-end run for the period (default this month) and returns its id and progress at once. */
+    public InvoiceRunProgress generateAndEmailAllOwners(Integer year, Integer month, String smtpPassword, ActorRole role) {
         RoleValidator.requireAdmin(role);
         YearMonth ym = (year != null && month != null) ? YearMonth.of(year, month) : YearMonth.now();
-        InvoiceParameter p = invoiceParameterService.getInternal();
-        return ownerService.listOwners().stream().map(owner -> generateSingle(owner, ym, p, smtpPassword)).toList();
+        return billingRunService.submit(ym, smtpPassword);
+    }
+
+    public InvoiceRunProgress getRunProgress(ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        return billingRunService.latest();
+    }
+
+    public InvoiceRunProgress getRunProgress(Long runId, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        return billingRunService.get(runId);
+    }
+
+    public List<BillingRunOwnerEntry> getRunOwners(Long runId, BillingOwnerStatus status, int limit, ActorRole role) {
+        RoleValidator.requireAdmin(role);
+        return billingRunService.owners(runId, status, limit);
     }
 
     @Transactional
     public void markInvoicePaid(Long invoiceId, ActorRole role) {
         RoleValidator.requireAdmin(role);
-        OwnerInvoice invoice = ownerInvoiceRepository.findById(invoiceId)
+        OwnerInvoice invoice = ownerInvoiceRepository.findForUpdateById(invoiceId)
                 .orElseThrow(() -> new ApiException("Invoice not found: " + invoiceId));
         invoice.setPaid(true);
+        balanceLedger.recordPaid(invoice);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invoicePdfCache.invalidate(invoiceId);
+            }
+        });
     }
 
     public List<InvoiceHistoryResponse> getInvoiceHistory(ActorRole role, UUID requesterOwnerId, UUID ownerId, Integer year, Integer month) {
@@ -84,130 +111,30 @@ public class MonthlyInvoiceService {
         return invoices.stream().map(this::toHistory).toList();
     }
 
-    public byte[] downloadInvoicePdf(Long invoiceId, ActorRole role, UUID requesterOwnerId) {
-        OwnerInvoice invoice = ownerInvoiceRepository.findById(invoiceId)
+    public StoredFile downloadInvoicePdf(Long invoiceId, ActorRole role, UUID requesterOwnerId) {
+        OwnerInvoice invoice = ownerInvoiceRepository.findWithOwnerById(invoiceId)
                 .orElseThrow(() -> new ApiException("Invoice not found: " + invoiceId));
         if (role == ActorRole.OWNER && (requesterOwnerId == null || !requesterOwnerId.equals(invoice.getOwner().getOwnerId()))) {
             throw new ApiException("Owner can only download own invoice.");
         }
-        return invoicePdfService.buildInvoicePdf(invoice);
+        return invoicePdfCache.get(invoice);
     }
 
-    public byte[] downloadInvoicesZip(ActorRole role, UUID requesterOwnerId, UUID ownerId, Integer year, Integer month) {
-        List<OwnerInvoice> invoices = selectInvoices(role, requesterOwnerId, ownerId, year, month);
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-             ZipOutputStream zip = new ZipOutputStream(out)) {
-            for (OwnerInvoice invoice : invoices) {
-                String name = "invoice-" + invoice.getId() + "-owner-" + invoice.getOwner().getOwnerId()
-                        + "-" + invoice.getPeriodYear() + "-" + String.format("%02d", invoice.getPeriodMonth()) + ".pdf";
-                zip.putNextEntry(new ZipEntry(name));
-                zip.write(invoicePdfService.buildInvoicePdf(invoice));
-                zip.closeEntry();
-            }
-            zip.finish();
-            return out.toByteArray();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to generate invoice zip", e);
-        }
+    public StreamingResponseBody downloadInvoicesZip(ActorRole role, UUID requesterOwnerId, UUID ownerId, Integer year, Integer month) {
+        return invoiceZipService.stream(role, requesterOwnerId, ownerId, year, month);
     }
 
-    private GeneratedInvoiceSummary generateSingle(Owner owner, YearMonth ym, InvoiceParameter p, String smtpPassword) {
-        OwnerInvoice invoice = ownerInvoiceRepository.findByOwnerIdAndPeriodYearAndPeriodMonth(owner.getId(), ym.getYear(), ym.getMonthValue())
-                .orElseGet(() -> createInvoice(owner, ym, p));
-
-        if (!invoice.isEmailSent()) {
-            try {
-                invoiceEmailService.sendOwnerInvoice(invoice, smtpPassword);
-                invoice.setEmailSent(true);
-                invoice.setEmailError(null);
-                invoice.setSentAt(LocalDateTime.now());
-            } catch (RuntimeException e) {
-                invoice.setEmailSent(false);
-                invoice.setEmailError(e.getMessage());
-            }
-        }
-        return toSummary(invoice);
-    }
+    private MonthlyInvoiceResponse calculate(Owner owner, RateCard rates, HerdCounts counts) {
+        long cattle = counts.get(owner.getId(), AnimalType.CATTLE);
+        long goats = counts.get(owner.getId(), AnimalType.GOAT);
+        long rams = counts.get(owner.getId(), AnimalType.RAM);
+        long pigs = counts.get(owner.getId(), AnimalType.PIG);
 
-    private OwnerInvoice createInvoice(Owner owner, YearMonth ym, InvoiceParameter p) {
-        long cattle = animalRepository.countByOwnerIdAndTypeAndSoldFalse(owner.getId(), AnimalType.CATTLE);
-        long goats = animalRepository.countByOwnerIdAndTypeAndSoldFalse(owner.getId(), AnimalType.GOAT);
-        long rams = animalRepository.countByOwnerIdAndTypeAndSoldFalse(owner.getId(), AnimalType.RAM);
-        long pigs = animalRepository.countByOwnerIdAndTypeAndSoldFalse(owner.getId(), AnimalType.PIG);
-
-        BigDecimal cattleRate = p.getCattleMonthlyFeeds().add(p.getCattleMonthlyMedication());
-        BigDecimal goatRate = p.getGoatMonthlyFeeds().add(p.getGoatMonthlyMedication());
-        BigDecimal ramRate = p.getRamMonthlyFeeds().add(p.getRamMonthlyMedication());
-        BigDecimal pigRate = p.getPigMonthlyFeeds().add(p.getPigMonthlyMedication());
-
-        BigDecimal currentCharge = cattleRate.multiply(BigDecimal.valueOf(cattle))
-                .add(goatRate.multiply(BigDecimal.valueOf(goats)))
-                .add(ramRate.multiply(BigDecimal.valueOf(rams)))
-                .add(pigRate.multiply(BigDecimal.valueOf(pigs)));
-
-        BigDecimal previousUnpaid = latestUnpaidBalanceBefore(owner.getId(), ym);
-        BigDecimal totalDue = currentCharge.add(previousUnpaid);
-
-        OwnerInvoice invoice = new OwnerInvoice();
-        invoice.setOwner(owner);
-        invoice.setPeriodYear(ym.getYear());
-        invoice.setPeriodMonth(ym.getMonthValue());
-        invoice.setCattleCount(cattle);
-        invoice.setGoatCount(goats);
-        invoice.setRamCount(rams);
-        invoice.setPigCount(pigs);
-        invoice.setCurrentCharge(currentCharge);
-        invoice.setPreviousUnpaidBalance(previousUnpaid);
-        invoice.setTotalDue(totalDue);
-        invoice.setPaid(false);
-        invoice.setEmailSent(false);
-        return ownerInvoiceRepository.save(invoice);
-    }
-
-    private BigDecimal latestUnpaidBalanceBefore(Long ownerId, YearMonth ym) {
-        return ownerInvoiceRepository.findByOwnerIdAndPaidFalseOrderByPeriodYearDescPeriodMonthDesc(ownerId).stream()
-                .filter(inv -> YearMonth.of(inv.getPeriodYear(), inv.getPeriodMonth()).isBefore(ym))
-                .findFirst()
-                .map(OwnerInvoice::getTotalDue)
-                .orElse(BigDecimal.ZERO);
-    }
-
-    private MonthlyInvoiceResponse calculate(Owner owner, InvoiceParameter p) {
-        long cattle = animalRepository.countByOwnerIdAndTypeAndSoldFalse(owner.getId(), AnimalType.CATTLE);
-        long goats = animalRepository.countByOwnerIdAndTypeAndSoldFalse(owner.getId(), AnimalType.GOAT);
-        long rams = animalRepository.countByOwnerIdAndTypeAndSoldFalse(owner.getId(), AnimalType.RAM);
-        long pigs = animalRepository.countByOwnerIdAndTypeAndSoldFalse(owner.getId(), AnimalType.PIG);
-
-        BigDecimal cattleRate = p.getCattleMonthlyFeeds().add(p.getCattleMonthlyMedication());
-        BigDecimal goatRate = p.getGoatMonthlyFeeds().add(p.getGoatMonthlyMedication());
-        BigDecimal ramRate = p.getRamMonthlyFeeds().add(p.getRamMonthlyMedication());
-        BigDecimal pigRate = p.getPigMonthlyFeeds().add(p.getPigMonthlyMedication());
-
-        BigDecimal total = cattleRate.multiply(BigDecimal.valueOf(cattle))
-                .add(goatRate.multiply(BigDecimal.valueOf(goats)))
-                .add(ramRate.multiply(BigDecimal.valueOf(rams)))
-                .add(pigRate.multiply(BigDecimal.valueOf(pigs)));
+        BigDecimal total = rates.charge(cattle, goats, rams, pigs);
 
         return new MonthlyInvoiceResponse(owner.getOwnerId(), owner.getFirstName(), cattle, goats, rams, pigs, total);
     }
 
-    private GeneratedInvoiceSummary toSummary(OwnerInvoice invoice) {
-        return new GeneratedInvoiceSummary(
-                invoice.getId(),
-                invoice.getOwner().getOwnerId(),
-                invoice.getOwner().getFirstName(),
-                invoice.getOwner().getEmail(),
-                invoice.getPeriodYear(),
-                invoice.getPeriodMonth(),
-                invoice.getCurrentCharge(),
-                invoice.getPreviousUnpaidBalance(),
-                invoice.getTotalDue(),
-                invoice.isPaid(),
-                invoice.isEmailSent(),
-                invoice.getEmailError()
-        );
-    }
-
     private InvoiceHistoryResponse toHistory(OwnerInvoice invoice) {
         return new InvoiceHistoryResponse(
                 invoice.getId(),
@@ -0,0 +1,150 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.OwnerInvoice;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * The {@code owner_balances} ledger. An invoice carries the total due of the owner's latest
+ * unpaid invoice from an earlier month; the ledger keeps that invoice per owner so billing reads
+ * one row instead of the owner's whole unpaid history. Writes must run in the transaction that
+ * created or paid the invoice.
+ */
+@Service
+public class OwnerBalanceLedger {
+    private static final String ADVANCE = "update owner_balances "
+            + "set balance = ?, last_period = ?, last_invoice_id = ? where owner_id = ? and last_period < ?";
+    private static final String INSERT_IF_ABSENT = "insert into owner_balances "
+            + "(owner_id, balance, last_period, last_invoice_id) "
+            + "select ?, ?, ?, ? from dual "
+            + "where not exists (select 1 from owner_balances where owner_id = ?)";
+    private static final String REPLACE = "update owner_balances "
+            + "set balance = ?, last_period = ?, last_invoice_id = ? where owner_id = ? and last_invoice_id = ?";
+    private static final String LOCK_ENTRY = "select balance, last_period, last_invoice_id from owner_balances "
+            + "where owner_id = ? for update";
+    private static final String REMOVE = "delete from owner_balances where owner_id = ? and last_invoice_id = ?";
+    private static final String LATEST_UNPAID_BEFORE = "select id, total_due, period_year, period_month "
+            + "from owner_invoices where owner_id = ? and paid = false and id <> ? "
+            + "and (period_year < ? or (period_year = ? and period_month < ?)) "
+            + "order by period_year desc, period_month desc, id desc limit 1";
+    private static final String REBUILD = "insert into owner_balances (owner_id, balance, last_period, last_invoice_id) "
+            + "select i.owner_id, i.total_due, i.period_year * 100 + i.period_month, i.id from owner_invoices i "
+            + "where i.paid = false and not exists (select 1 from owner_invoices j "
+            + "where j.owner_id = i.owner_id and j.paid = false and (j.period_year > i.period_year "
+            + "or (j.period_year = i.period_year and (j.period_month > i.period_month "
+            + "or (j.period_month = i.period_month and j.id > i.id)))))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OwnerBalanceLedger(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Ledger rows for {@code ownerIds} in one primary-key lookup; owners with nothing unpaid are absent. */
+    public Map<Long, Entry> entries(Collection<Long> ownerIds) {
+        Map<Long, Entry> entries = new HashMap<>(ownerIds.size() * 2);
+        if (ownerIds.isEmpty()) {
+            return entries;
+        }
+        String sql = "select owner_id, balance, last_period, last_invoice_id from owner_balances where owner_id in ("
+                + ownerIds.stream().map(id -> "?").collect(Collectors.joining(",")) + ")";
+        jdbcTemplate.query(sql, rs -> {
+            entries.put(rs.getLong(1), new Entry(rs.getBigDecimal(2), rs.getInt(3), rs.getLong(4)));
+        }, ownerIds.toArray());
+        return entries;
+    }
+
+    /**
+     * The balance an invoice for {@code ym} carries forward. Answered from {@code entry} unless
+     * the ledger already points at {@code ym} or later, which only happens when an earlier month
+     * is billed late; that case falls back to one indexed query.
+     */
+    public BigDecimal carriedInto(Long ownerId, Entry entry, YearMonth ym) {
+        if (entry == null) {
+            return BigDecimal.ZERO;
+        }
+        if (entry.lastPeriod() < RateSchedule.period(ym)) {
+            return entry.balance();
+        }
+        Unpaid latest = latestUnpaidBefore(ownerId, -1L, ym.getYear(), ym.getMonthValue());
+        return latest != null ? latest.totalDue() : BigDecimal.ZERO;
+    }
+
+    /** Makes each new, still unpaid invoice the owner's latest unless the ledger already has a later one. */
+    public void recordCreated(List<OwnerInvoice> invoices) {
+        if (invoices.isEmpty()) {
+            return;
+        }
+        List<Object[]> advances = invoices.stream().map(invoice -> {
+            int period = invoice.getPeriodYear() * 100 + invoice.getPeriodMonth();
+            return new Object[] {invoice.getTotalDue(), period, invoice.getId(), invoice.getOwner().getId(), period};
+        }).toList();
+        List<Object[]> inserts = invoices.stream().map(invoice -> new Object[] {
+                invoice.getOwner().getId(), invoice.getTotalDue(),
+                invoice.getPeriodYear() * 100 + invoice.getPeriodMonth(), invoice.getId(), invoice.getOwner().getId()
+        }).toList();
+        jdbcTemplate.batchUpdate(ADVANCE, advances);
+        jdbcTemplate.batchUpdate(INSERT_IF_ABSENT, inserts);
+    }
+
+    /**
+     * Moves the owner's row back to the next older unpaid invoice when {@code invoice} was the
+     * one it pointed at, or removes it when none is left. Paying any other invoice changes nothing.
+     * The owner's row is locked before deciding, so concurrent payments for one owner take turns and
+     * each sees the invoices the previous one paid.
+     */
+    public void recordPaid(OwnerInvoice invoice) {
+        Long ownerId = invoice.getOwner().getId();
+        List<Entry> locked = jdbcTemplate.query(LOCK_ENTRY, (rs, rowNum) ->
+                new Entry(rs.getBigDecimal(1), rs.getInt(2), rs.getLong(3)), ownerId);
+        Entry entry = locked.isEmpty() ? null : locked.get(0);
+        if (entry == null || entry.lastInvoiceId() != invoice.getId()) {
+            return;
+        }
+        Unpaid next = latestUnpaidBefore(ownerId, invoice.getId(), Integer.MAX_VALUE, 1);
+        if (next == null) {
+            jdbcTemplate.update(REMOVE, ownerId, invoice.getId());
+        } else {
+            jdbcTemplate.update(REPLACE, next.totalDue(), next.period(), next.id(), ownerId, invoice.getId());
+        }
+    }
+
+    /**
+     * Re-points the rows of {@code ownerIds} at their latest unpaid invoice after many of their
+     * invoices were paid at once: one delete and one insert-select, whatever the number of owners.
+     */
+    public void refresh(Collection<Long> ownerIds) {
+        if (ownerIds.isEmpty()) {
+            return;
+        }
+        String in = ownerIds.stream().map(id -> "?").collect(Collectors.joining(","));
+        jdbcTemplate.update("delete from owner_balances where owner_id in (" + in + ")", ownerIds.toArray());
+        jdbcTemplate.update(REBUILD + " and i.owner_id in (" + in + ")", ownerIds.toArray());
+    }
+
+    /** Replaces every row from {@code owner_invoices} with a single insert-select. */
+    long rebuild() {
+        jdbcTemplate.update("delete from owner_balances");
+        return jdbcTemplate.update(REBUILD);
+    }
+
+    private Unpaid latestUnpaidBefore(Long ownerId, long excludedInvoiceId, int year, int month) {
+        List<Unpaid> rows = jdbcTemplate.query(LATEST_UNPAID_BEFORE, (rs, rowNum) ->
+                        new Unpaid(rs.getLong(1), rs.getBigDecimal(2), rs.getInt(3) * 100 + rs.getInt(4)),
+                ownerId, excludedInvoiceId, year, year, month);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    public record Entry(BigDecimal balance, int lastPeriod, long lastInvoiceId) {
+    }
+
+    private record Unpaid(long id, BigDecimal totalDue, int period) {
+    }
+}
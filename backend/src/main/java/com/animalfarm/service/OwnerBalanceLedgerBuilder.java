@@ -0,0 +1,47 @@
+package com.animalfarm.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Rebuilds {@code owner_balances} on startup when it does not point every owner with unpaid
+ * invoices at an unpaid one, e.g. the first start after upgrading or after invoices were changed
+ * outside the application.
+ */
+@Component
+public class OwnerBalanceLedgerBuilder implements CommandLineRunner {
+    private static final Logger log = LoggerFactory.getLogger(OwnerBalanceLedgerBuilder.class);
+
+    private static final String OWNERS_WITH_UNPAID = "select count(distinct owner_id) from owner_invoices "
+            + "where paid = false";
+    private static final String LEDGER_ROWS_ON_UNPAID = "select count(*) from owner_balances b "
+            + "join owner_invoices i on i.id = b.last_invoice_id and i.owner_id = b.owner_id and i.paid = false";
+    private static final String LEDGER_ROWS = "select count(*) from owner_balances";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OwnerBalanceLedger ledger;
+
+    public OwnerBalanceLedgerBuilder(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     OwnerBalanceLedger ledger) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.ledger = ledger;
+    }
+
+    @Override
+    public void run(String... args) {
+        Long owners = jdbcTemplate.queryForObject(OWNERS_WITH_UNPAID, Long.class);
+        Long valid = jdbcTemplate.queryForObject(LEDGER_ROWS_ON_UNPAID, Long.class);
+        Long rows = jdbcTemplate.queryForObject(LEDGER_ROWS, Long.class);
+        if (owners != null && owners.equals(valid) && owners.equals(rows)) {
+            return;
+        }
+        Long rebuilt = transactionTemplate.execute(status -> ledger.rebuild());
+        log.info("Rebuilt owner balance ledger for {} owners with unpaid invoices", rebuilt);
+    }
+}
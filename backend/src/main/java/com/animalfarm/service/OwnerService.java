@@ -8,26 +8,31 @@ import com.animalfarm.model.ActorRole;
 import com.animalfarm.model.AppUser;
 import com.animalfarm.model.Owner;
 import com.animalfarm.repository.AppUserRepository;
+import com.animalfarm.repository.OwnerInvoiceRepository;
 import com.animalfarm.repository.OwnerRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
 public class OwnerService {
     private final OwnerRepository ownerRepository;
     private final AppUserRepository appUserRepository;
+    private final OwnerInvoiceRepository ownerInvoiceRepository;
     private final PasswordEncoder passwordEncoder;
 
     public OwnerService(
             OwnerRepository ownerRepository,
             AppUserRepository appUserRepository,
+            OwnerInvoiceRepository ownerInvoiceRepository,
             PasswordEncoder passwordEncoder
     ) {
         this.ownerRepository = ownerRepository;
         this.appUserRepository = appUserRepository;
+        this.ownerInvoiceRepository = ownerInvoiceRepository;
         this.passwordEncoder = passwordEncoder;
     }
 
@@ -83,6 +88,10 @@ public class OwnerService {
     public OwnerSummary updateOwner(UUID ownerId, OwnerUpdateRequest request, ActorRole role) {
         RoleValidator.requireAdmin(role);
         Owner owner = getOwner(ownerId);
+        // Name and email are printed on invoice PDFs.
+        if (!Objects.equals(owner.getFirstName(), request.firstName()) || !Objects.equals(owner.getEmail(), request.email())) {
+            ownerInvoiceRepository.bumpContentVersions(owner.getId());
+        }
         owner.setFirstName(request.firstName());
         owner.setLastName(request.lastName());
         owner.setEmail(request.email());
@@ -0,0 +1,60 @@
+package com.animalfarm.service;
+
+import com.animalfarm.dto.OwnerAnimalTypeCounts;
+import com.animalfarm.repository.OwnerRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Owner x animal type counts computed by a single grouped query and consumed row by row, so
+ * callers never hold more than one owner's counts regardless of how many owners exist.
+ */
+@Service
+public class OwnerTypeCrosstabService {
+    private final OwnerRepository ownerRepository;
+    private final ObjectMapper objectMapper;
+
+    public OwnerTypeCrosstabService(OwnerRepository ownerRepository, ObjectMapper objectMapper) {
+        this.ownerRepository = ownerRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long forEachOwner(RowHandler handler) throws IOException {
+        return stream(handler);
+    }
+
+    @Transactional(readOnly = true)
+    public long writeJson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            long count = stream(row -> objectMapper.writeValue(generator, row));
+            generator.writeEndArray();
+            return count;
+        }
+    }
+
+    private long stream(RowHandler handler) throws IOException {
+        long count = 0;
+        try (Stream<OwnerAnimalTypeCounts> rows = ownerRepository.streamAnimalTypeCounts()) {
+            Iterator<OwnerAnimalTypeCounts> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                handler.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void accept(OwnerAnimalTypeCounts row) throws IOException;
+    }
+}
@@ -0,0 +1,295 @@
+package com.animalfarm.service;
+
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.PaymentLineResult;
+import com.animalfarm.dto.PaymentLineStatus;
+import com.animalfarm.dto.PaymentReconciliationResult;
+import com.animalfarm.dto.UploadFormat;
+import com.animalfarm.model.Owner;
+import com.animalfarm.repository.OwnerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Marks invoices paid from a bank statement export. Each line names an invoice by
+ * {@code invoiceId}, or by {@code ownerId}, {@code year} and {@code month}; an optional
+ * {@code amount} must equal the invoice's total due. Matched invoices are locked with one select
+ * per chunk and flagged with one update per chunk, so a file costs a handful of statements instead
+ * of one transaction per payment.
+ */
+@Service
+public class PaymentReconciliationService {
+    private static final int LOOKUP_CHUNK = 1000;
+    private static final String INVOICE_COLUMNS = "select id, owner_id, period_year, period_month, total_due, paid "
+            + "from owner_invoices where ";
+    private static final String MARK_PAID = "update owner_invoices "
+            + "set paid = true, content_version = content_version + 1 where paid = false and id in (";
+
+    private final OwnerRepository ownerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final OwnerBalanceLedger balanceLedger;
+    private final InvoicePdfCache invoicePdfCache;
+    private final AuditLogService auditLogService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public PaymentReconciliationService(
+            OwnerRepository ownerRepository,
+            JdbcTemplate jdbcTemplate,
+            OwnerBalanceLedger balanceLedger,
+            InvoicePdfCache invoicePdfCache,
+            AuditLogService auditLogService,
+            ObjectMapper objectMapper,
+            @Value("${app.invoice.payments.chunk-size:1000}") int chunkSize,
+            @Value("${app.invoice.payments.max-rows:20000}") int maxRows
+    ) {
+        this.ownerRepository = ownerRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.balanceLedger = balanceLedger;
+        this.invoicePdfCache = invoicePdfCache;
+        this.auditLogService = auditLogService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxRows = Math.max(1, maxRows);
+    }
+
+    @Transactional
+    public PaymentReconciliationResult reconcile(InputStream in, UploadFormat format, AuthSession actor)
+            throws IOException {
+        RoleValidator.requireAdmin(actor.role());
+        long started = System.nanoTime();
+        List<PaymentLineResult> results = new ArrayList<>();
+        UploadedRows.ErrorSink reject = (line, message) ->
+                results.add(new PaymentLineResult(line, null, PaymentLineStatus.INVALID, message));
+
+        List<Payment> payments = parse(UploadedRows.read(in, format, objectMapper, maxRows, reject), reject);
+        long parsed = System.nanoTime();
+
+        Map<Long, Invoice> byId = lockById(payments);
+        Map<PeriodKey, Invoice> byPeriod = lockByPeriod(payments);
+        Set<Long> seen = new HashSet<>();
+        List<Invoice> toPay = new ArrayList<>();
+        long alreadyPaid = 0;
+        for (Payment payment : payments) {
+            Invoice invoice = payment.invoiceId() != null
+                    ? byId.get(payment.invoiceId())
+                    : byPeriod.get(payment.period());
+            PaymentLineStatus status;
+            String message = null;
+            if (invoice == null) {
+                status = PaymentLineStatus.NOT_FOUND;
+                message = "No invoice matches this payment.";
+            } else if (payment.amount() != null && payment.amount().compareTo(invoice.totalDue()) != 0) {
+                status = PaymentLineStatus.AMOUNT_MISMATCH;
+                message = "Amount " + payment.amount() + " does not match total due " + invoice.totalDue() + ".";
+            } else if (!seen.add(invoice.id())) {
+                status = PaymentLineStatus.DUPLICATE;
+                message = "Invoice " + invoice.id() + " is paid by an earlier line.";
+            } else if (invoice.paid()) {
+                status = PaymentLineStatus.ALREADY_PAID;
+                alreadyPaid++;
+            } else {
+                status = PaymentLineStatus.PAID;
+                toPay.add(invoice);
+            }
+            results.add(new PaymentLineResult(payment.line(), invoice != null ? invoice.id() : null, status, message));
+        }
+        long matched = System.nanoTime();
+
+        markPaid(toPay);
+        long finished = System.nanoTime();
+
+        long rejected = results.size() - toPay.size() - alreadyPaid;
+        if (!toPay.isEmpty()) {
+            auditLogService.log(actor, "RECONCILE_PAYMENTS", "Marked " + toPay.size() + " invoices paid ("
+                    + alreadyPaid + " already paid, " + rejected + " lines rejected)");
+        }
+        results.sort(Comparator.comparingLong(PaymentLineResult::line));
+        return new PaymentReconciliationResult(results.size(), toPay.size(), alreadyPaid, rejected, results,
+                millis(parsed - started), millis(matched - parsed), millis(finished - matched),
+                millis(finished - started));
+    }
+
+    private List<Payment> parse(List<UploadedRows.Row> rows, UploadedRows.ErrorSink reject) {
+        List<Payment> payments = new ArrayList<>(rows.size());
+        for (UploadedRows.Row row : rows) {
+            try {
+                Long invoiceId = number(row, "invoiceId", Long::valueOf);
+                BigDecimal amount = number(row, "amount", BigDecimal::new);
+                PeriodKey period = null;
+                if (invoiceId == null) {
+                    UUID ownerId = row.get("ownerId") == null ? null : uuid(row.get("ownerId"));
+                    Integer year = number(row, "year", Integer::valueOf);
+                    Integer month = number(row, "month", Integer::valueOf);
+                    if (ownerId == null || year == null || month == null) {
+                        throw new LineException("Give invoiceId, or ownerId with year and month.");
+                    }
+                    if (month < 1 || month > 12) {
+                        throw new LineException("month must be between 1 and 12: " + month);
+                    }
+                    period = new PeriodKey(ownerId, year, month);
+                }
+                payments.add(new Payment(row.line(), invoiceId, period, amount));
+            } catch (LineException e) {
+                reject.add(row.line(), e.getMessage());
+            }
+        }
+        return payments;
+    }
+
+    private Map<Long, Invoice> lockById(List<Payment> payments) {
+        List<Long> ids = new ArrayList<>(payments.stream()
+                .map(Payment::invoiceId)
+                .filter(id -> id != null)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        Map<Long, Invoice> invoices = new HashMap<>(ids.size() * 2);
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + LOOKUP_CHUNK));
+            String sql = INVOICE_COLUMNS + "id in (" + placeholders(chunk.size(), "?") + ") for update";
+            for (Invoice invoice : jdbcTemplate.query(sql, (rs, rowNum) -> invoice(rs), chunk.toArray())) {
+                invoices.put(invoice.id(), invoice);
+            }
+        }
+        return invoices;
+    }
+
+    private Map<PeriodKey, Invoice> lockByPeriod(List<Payment> payments) {
+        List<PeriodKey> keys = new ArrayList<>(payments.stream()
+                .map(Payment::period)
+                .filter(key -> key != null)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        Map<UUID, Long> owners = resolveOwners(keys);
+        List<PeriodKey> known = keys.stream().filter(key -> owners.containsKey(key.ownerId())).toList();
+        Map<Long, UUID> ownerUuids = new HashMap<>(owners.size() * 2);
+        owners.forEach((uuid, id) -> ownerUuids.put(id, uuid));
+
+        Map<PeriodKey, Invoice> invoices = new HashMap<>(known.size() * 2);
+        for (int from = 0; from < known.size(); from += LOOKUP_CHUNK) {
+            List<PeriodKey> chunk = known.subList(from, Math.min(known.size(), from + LOOKUP_CHUNK));
+            String sql = INVOICE_COLUMNS + "(owner_id, period_year, period_month) in ("
+                    + placeholders(chunk.size(), "(?, ?, ?)") + ") order by id for update";
+            Object[] args = new Object[chunk.size() * 3];
+            for (int i = 0; i < chunk.size(); i++) {
+                args[i * 3] = owners.get(chunk.get(i).ownerId());
+                args[i * 3 + 1] = chunk.get(i).year();
+                args[i * 3 + 2] = chunk.get(i).month();
+            }
+            for (Invoice invoice : jdbcTemplate.query(sql, (rs, rowNum) -> invoice(rs), args)) {
+                PeriodKey key = new PeriodKey(ownerUuids.get(invoice.ownerId()), invoice.year(), invoice.month());
+                invoices.putIfAbsent(key, invoice);
+            }
+        }
+        return invoices;
+    }
+
+    private Map<UUID, Long> resolveOwners(List<PeriodKey> keys) {
+        List<UUID> ownerIds = keys.stream().map(PeriodKey::ownerId).distinct().toList();
+        Map<UUID, Long> owners = new HashMap<>(ownerIds.size() * 2);
+        for (int from = 0; from < ownerIds.size(); from += LOOKUP_CHUNK) {
+            List<UUID> chunk = ownerIds.subList(from, Math.min(ownerIds.size(), from + LOOKUP_CHUNK));
+            for (Owner owner : ownerRepository.findByOwnerIdIn(chunk)) {
+                owners.put(owner.getOwnerId(), owner.getId());
+            }
+        }
+        return owners;
+    }
+
+    /**
+     * Flags {@code invoices} paid and bumps their content version, one update per chunk, then
+     * re-points the affected owners' carried balances. Cached PDFs are dropped after commit.
+     */
+    private void markPaid(List<Invoice> invoices) {
+        for (int from = 0; from < invoices.size(); from += chunkSize) {
+            List<Invoice> chunk = invoices.subList(from, Math.min(invoices.size(), from + chunkSize));
+            int updated = jdbcTemplate.update(MARK_PAID + placeholders(chunk.size(), "?") + ")",
+                    chunk.stream().map(Invoice::id).toArray());
+            if (updated != chunk.size()) {
+                throw new ConcurrencyFailureException("Expected to mark " + chunk.size()
+                        + " invoices paid but updated " + updated + ".");
+            }
+            balanceLedger.refresh(chunk.stream().map(Invoice::ownerId).collect(Collectors.toSet()));
+        }
+        if (invoices.isEmpty()) {
+            return;
+        }
+        List<Long> paidIds = invoices.stream().map(Invoice::id).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                paidIds.forEach(invoicePdfCache::invalidate);
+            }
+        });
+    }
+
+    private static Invoice invoice(ResultSet rs) throws SQLException {
+        return new Invoice(rs.getLong(1), rs.getLong(2), rs.getInt(3), rs.getInt(4),
+                rs.getBigDecimal(5), rs.getBoolean(6));
+    }
+
+    private static <T> T number(UploadedRows.Row row, String field, Function<String, T> parser) {
+        String value = row.get(field);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            throw new LineException(field + " is not a number: " + value);
+        }
+    }
+
+    private static UUID uuid(String value) {
+        try {
+            return UUID.fromString(value.trim());
+        } catch (IllegalArgumentException e) {
+            throw new LineException("ownerId is not a valid UUID: " + value);
+        }
+    }
+
+    private static String placeholders(int count, String placeholder) {
+        return String.join(",", Collections.nCopies(count, placeholder));
+    }
+
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private record Payment(long line, Long invoiceId, PeriodKey period, BigDecimal amount) {
+    }
+
+    private record PeriodKey(UUID ownerId, int year, int month) {
+    }
+
+    private record Invoice(long id, long ownerId, int year, int month, BigDecimal totalDue, boolean paid) {
+    }
+
+    private static final class LineException extends RuntimeException {
+        LineException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
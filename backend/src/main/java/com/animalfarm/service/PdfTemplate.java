@@ -0,0 +1,401 @@
+package com.animalfarm.service;
+
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.BaseFont;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A text-only A4 layout compiled once and filled in per document. Lines are written in
+ * Helvetica with the same margins and leading as an OpenPDF {@code Document} of paragraphs,
+ * wrapping at spaces and breaking pages as needed. {@code {}} in a line marks a field.
+ *
+ * <p>The file header, catalog, font and page dictionaries are prebuilt byte arrays shared by
+ * every document, and rendering reuses per-thread buffers, so a document costs little more
+ * than its own text and the returned array.
+ */
+public final class PdfTemplate {
+    private static final int PAGE_WIDTH = 595;
+    private static final int PAGE_HEIGHT = 842;
+    private static final int MARGIN = 36;
+    private static final int FONT_SIZE = 12;
+    private static final int LEADING = 18;
+    private static final int LINES_PER_PAGE = (PAGE_HEIGHT - 2 * MARGIN) / LEADING;
+    /** Text width limit in glyph units (1/1000 of the font size). */
+    private static final int MAX_LINE_UNITS = (PAGE_WIDTH - 2 * MARGIN) * 1000 / FONT_SIZE;
+    private static final int[] WIDTHS = helveticaWidths();
+
+    private static final byte[] HEADER = "%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] CATALOG = ascii("<</Type/Catalog/Pages 2 0 R>>\nendobj\n");
+    private static final byte[] FONT = ascii("<</Type/Font/Subtype/Type1/BaseFont/Helvetica"
+            + "/Encoding/WinAnsiEncoding>>\nendobj\n");
+    private static final byte[] TEXT_BEGIN = ascii("BT\n/F1 " + FONT_SIZE + " Tf\n" + LEADING + " TL\n"
+            + MARGIN + " " + (PAGE_HEIGHT - MARGIN) + " Td\n");
+    private static final byte[] TEXT_END = ascii("ET\n");
+    private static final byte[] LINE_END = ascii(") '\n");
+    private static final byte[] OBJ = ascii(" 0 obj\n");
+    private static final byte[] END_OBJ = ascii("endobj\n");
+    private static final byte[] STREAM_BEGIN = ascii(">>\nstream\n");
+    private static final byte[] STREAM_END = ascii("\nendstream\n");
+    private static final byte[] LENGTH = ascii("<</Length ");
+    private static final byte[] PAGE = ascii("<</Type/Page/Parent 2 0 R/MediaBox[0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT
+            + "]/Resources<</Font<</F1 3 0 R>>>>/Contents ");
+    private static final byte[] REF_END = ascii(" 0 R>>\n");
+    private static final byte[] PAGES = ascii("<</Type/Pages/Count ");
+    private static final byte[] KIDS = ascii("/Kids[");
+    private static final byte[] REF = ascii(" 0 R ");
+    private static final byte[] KIDS_END = ascii("]>>\nendobj\n");
+    private static final byte[] XREF = ascii("xref\n0 ");
+    private static final byte[] XREF_FREE = ascii("\n0000000000 65535 f \n");
+    private static final byte[] XREF_ENTRY_END = ascii(" 00000 n \n");
+    private static final byte[] TRAILER = ascii("trailer\n<</Size ");
+    private static final byte[] TRAILER_ROOT = ascii("/Root 1 0 R>>\nstartxref\n");
+    private static final byte[] EOF = ascii("\n%%EOF\n");
+    private static final int FIRST_PAGE_OBJECT = 4;
+    private static final int RETAINED_BYTES = 1024 * 1024;
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final Line[] header;
+    private final int headerFields;
+    private final Line row;
+    private final Line empty;
+
+    private PdfTemplate(List<Line> header, Line row, Line empty) {
+        this.header = header.toArray(new Line[0]);
+        this.headerFields = header.stream().mapToInt(line -> line.fields).sum();
+        this.row = row;
+        this.empty = empty;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Renders the header lines only.
+     */
+    public byte[] render(Object... headerValues) {
+        return render(headerValues, List.of(), null);
+    }
+
+    /**
+     * Renders the header lines followed by one row line per element, or the empty line when
+     * there are no rows. The binder fills a reused array with the row's field values.
+     */
+    public <T> byte[] render(Object[] headerValues, List<T> rows, RowBinder<T> binder) {
+        if (headerValues.length != headerFields) {
+            throw new IllegalArgumentException("Expected " + headerFields + " header values, got " + headerValues.length);
+        }
+        Scratch scratch = SCRATCH.get();
+        scratch.reset();
+        scratch.out.write(HEADER);
+        scratch.beginObject(1);
+        scratch.out.write(CATALOG);
+        scratch.beginObject(3);
+        scratch.out.write(FONT);
+
+        int offset = 0;
+        for (Line line : header) {
+            writeLine(line, headerValues, offset, scratch);
+            offset += line.fields;
+        }
+        if (row != null && !rows.isEmpty()) {
+            Object[] values = new Object[row.fields];
+            for (T item : rows) {
+                binder.bind(item, values);
+                writeLine(row, values, 0, scratch);
+            }
+        } else if (row != null && empty != null) {
+            writeLine(empty, new Object[0], 0, scratch);
+        }
+        scratch.finishPage();
+        return scratch.finishDocument();
+    }
+
+    private static void writeLine(Line line, Object[] values, int offset, Scratch scratch) {
+        StringBuilder text = scratch.text;
+        text.setLength(0);
+        for (int i = 0; i < line.segments.length; i++) {
+            text.append(line.segments[i]);
+            if (i < line.fields) {
+                appendValue(text, values[offset + i]);
+            }
+        }
+
+        int length = text.length();
+        int start = 0;
+        int lastSpace = -1;
+        int units = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                lastSpace = i;
+            }
+            units += WIDTHS[code(c)];
+            if (units > MAX_LINE_UNITS && i > start) {
+                boolean atSpace = lastSpace > start;
+                int end = atSpace ? lastSpace : i;
+                scratch.showLine(text, start, end);
+                start = atSpace ? end + 1 : end;
+                i = start - 1;
+                units = 0;
+                lastSpace = -1;
+            }
+        }
+        scratch.showLine(text, start, length);
+    }
+
+    private static void appendValue(StringBuilder text, Object value) {
+        if (value instanceof CharSequence chars) {
+            text.append(chars);
+        } else if (value instanceof Integer || value instanceof Long) {
+            text.append(((Number) value).longValue());
+        } else {
+            text.append(value);
+        }
+    }
+
+    /** Maps a character to its WinAnsi code, or {@code ?} when it has none in this font. */
+    private static int code(char c) {
+        if (c < 32) {
+            return ' ';
+        }
+        return c < 128 || (c >= 160 && c < 256) ? c : '?';
+    }
+
+    private static int[] helveticaWidths() {
+        try {
+            BaseFont font = BaseFont.createFont(BaseFont.HELVETICA, BaseFont.WINANSI, BaseFont.NOT_EMBEDDED);
+            int[] widths = new int[256];
+            for (int c = 0; c < widths.length; c++) {
+                widths[c] = font.getWidth(c);
+            }
+            return widths;
+        } catch (DocumentException e) {
+            throw new IllegalStateException("Helvetica metrics unavailable", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @FunctionalInterface
+    public interface RowBinder<T> {
+        void bind(T row, Object[] values);
+    }
+
+    public static final class Builder {
+        private final List<Line> header = new ArrayList<>();
+        private Line row;
+        private Line empty;
+
+        private Builder() {
+        }
+
+        public Builder line(String layout) {
+            header.add(Line.parse(layout));
+            return this;
+        }
+
+        public Builder blank() {
+            return line("");
+        }
+
+        public Builder row(String layout) {
+            this.row = Line.parse(layout);
+            return this;
+        }
+
+        public Builder empty(String text) {
+            this.empty = Line.parse(text);
+            return this;
+        }
+
+        public PdfTemplate compile() {
+            return new PdfTemplate(header, row, empty);
+        }
+    }
+
+    private static final class Line {
+        private final String[] segments;
+        private final int fields;
+
+        private Line(String[] segments) {
+            this.segments = segments;
+            this.fields = segments.length - 1;
+        }
+
+        static Line parse(String layout) {
+            List<String> segments = new ArrayList<>();
+            int from = 0;
+            int at;
+            while ((at = layout.indexOf("{}", from)) >= 0) {
+                segments.add(layout.substring(from, at));
+                from = at + 2;
+            }
+            segments.add(layout.substring(from));
+            return new Line(segments.toArray(new String[0]));
+        }
+    }
+
+    private static final class Scratch {
+        private final Bytes out = new Bytes(16 * 1024);
+        private final Bytes content = new Bytes(8 * 1024);
+        private final StringBuilder text = new StringBuilder(256);
+        private int[] offsets = new int[64];
+        private int objects;
+        private int pages;
+        private int linesOnPage;
+
+        void reset() {
+            out.reset();
+            content.reset();
+            objects = FIRST_PAGE_OBJECT - 1;
+            pages = 0;
+            linesOnPage = 0;
+            content.write(TEXT_BEGIN);
+        }
+
+        void showLine(CharSequence chars, int start, int end) {
+            if (linesOnPage == LINES_PER_PAGE) {
+                finishPage();
+                content.write(TEXT_BEGIN);
+            }
+            content.write('(');
+            for (int i = start; i < end; i++) {
+                int c = code(chars.charAt(i));
+                if (c == '(' || c == ')' || c == '\\') {
+                    content.write('\\');
+                }
+                content.write(c);
+            }
+            content.write(LINE_END);
+            linesOnPage++;
+        }
+
+        void finishPage() {
+            content.write(TEXT_END);
+            int contentObject = FIRST_PAGE_OBJECT + pages * 2 + 1;
+            beginObject(contentObject);
+            out.write(LENGTH);
+            out.writeNumber(content.size);
+            out.write(STREAM_BEGIN);
+            out.write(content.buf, 0, content.size);
+            out.write(STREAM_END);
+            out.write(END_OBJ);
+
+            beginObject(contentObject - 1);
+            out.write(PAGE);
+            out.writeNumber(contentObject);
+            out.write(REF_END);
+            out.write(END_OBJ);
+
+            objects = Math.max(objects, contentObject);
+            pages++;
+            content.size = 0;
+            linesOnPage = 0;
+        }
+
+        byte[] finishDocument() {
+            beginObject(2);
+            out.write(PAGES);
+            out.writeNumber(pages);
+            out.write(KIDS);
+            for (int page = 0; page < pages; page++) {
+                out.writeNumber(FIRST_PAGE_OBJECT + page * 2);
+                out.write(REF);
+            }
+            out.write(KIDS_END);
+
+            int xref = out.size;
+            out.write(XREF);
+            out.writeNumber(objects + 1);
+            out.write(XREF_FREE);
+            for (int object = 1; object <= objects; object++) {
+                out.writePadded(offsets[object], 10);
+                out.write(XREF_ENTRY_END);
+            }
+            out.write(TRAILER);
+            out.writeNumber(objects + 1);
+            out.write(TRAILER_ROOT);
+            out.writeNumber(xref);
+            out.write(EOF);
+            return Arrays.copyOf(out.buf, out.size);
+        }
+
+        void beginObject(int number) {
+            if (number >= offsets.length) {
+                offsets = Arrays.copyOf(offsets, Math.max(offsets.length * 2, number + 1));
+            }
+            offsets[number] = out.size;
+            out.writeNumber(number);
+            out.write(OBJ);
+        }
+    }
+
+    private static final class Bytes {
+        private byte[] buf;
+        private int size;
+
+        private final int initialCapacity;
+
+        Bytes(int capacity) {
+            this.initialCapacity = capacity;
+            this.buf = new byte[capacity];
+        }
+
+        /** Empties the buffer, dropping storage a very large document left behind. */
+        void reset() {
+            if (buf.length > RETAINED_BYTES) {
+                buf = new byte[initialCapacity];
+            }
+            size = 0;
+        }
+
+        void write(int b) {
+            ensure(1);
+            buf[size++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            write(bytes, 0, bytes.length);
+        }
+
+        void write(byte[] bytes, int from, int length) {
+            ensure(length);
+            System.arraycopy(bytes, from, buf, size, length);
+            size += length;
+        }
+
+        void writeNumber(int value) {
+            int digits = 1;
+            for (int rest = value / 10; rest > 0; rest /= 10) {
+                digits++;
+            }
+            writePadded(value, digits);
+        }
+
+        void writePadded(int value, int digits) {
+            ensure(digits);
+            for (int i = digits - 1; i >= 0; i--) {
+                buf[size + i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += digits;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, size + extra));
+            }
+        }
+    }
+}
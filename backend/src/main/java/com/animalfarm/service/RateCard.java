@@ -0,0 +1,62 @@
+package com.animalfarm.service;
+
+import com.animalfarm.dto.InvoiceParameterDto;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.InvoiceParameter;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * An immutable snapshot of one rate schedule with the feeds + medication sum already worked out
+ * per animal type. {@code version} is the schedule row's id; rows are never modified, so it
+ * identifies the exact rates an invoice was charged with.
+ */
+public final class RateCard {
+    private final long version;
+    private final int effectivePeriod;
+    private final InvoiceParameterDto parameters;
+    private final BigDecimal[] rates = new BigDecimal[AnimalType.values().length];
+
+    RateCard(long version, int effectivePeriod, InvoiceParameterDto parameters) {
+        this.version = version;
+        this.effectivePeriod = effectivePeriod;
+        this.parameters = parameters;
+        rates[AnimalType.CATTLE.ordinal()] = parameters.cattleMonthlyFeeds().add(parameters.cattleMonthlyMedication());
+        rates[AnimalType.GOAT.ordinal()] = parameters.goatMonthlyFeeds().add(parameters.goatMonthlyMedication());
+        rates[AnimalType.RAM.ordinal()] = parameters.ramMonthlyFeeds().add(parameters.ramMonthlyMedication());
+        rates[AnimalType.PIG.ordinal()] = parameters.pigMonthlyFeeds().add(parameters.pigMonthlyMedication());
+    }
+
+    static RateCard of(InvoiceParameter p) {
+        return new RateCard(p.getId(), p.getEffectivePeriod(), InvoiceParameterDto.from(p));
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /** The first month these rates apply to, or null for the original schedule. */
+    public YearMonth effectiveFrom() {
+        return effectivePeriod == 0 ? null : RateSchedule.yearMonth(effectivePeriod);
+    }
+
+    int effectivePeriod() {
+        return effectivePeriod;
+    }
+
+    public InvoiceParameterDto parameters() {
+        return parameters;
+    }
+
+    /** Monthly feeds plus medication for one animal of the given type. */
+    public BigDecimal rate(AnimalType type) {
+        return rates[type.ordinal()];
+    }
+
+    public BigDecimal charge(long cattle, long goats, long rams, long pigs) {
+        return rates[AnimalType.CATTLE.ordinal()].multiply(BigDecimal.valueOf(cattle))
+                .add(rates[AnimalType.GOAT.ordinal()].multiply(BigDecimal.valueOf(goats)))
+                .add(rates[AnimalType.RAM.ordinal()].multiply(BigDecimal.valueOf(rams)))
+                .add(rates[AnimalType.PIG.ordinal()].multiply(BigDecimal.valueOf(pigs)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.animalfarm.service;
+
+import com.animalfarm.model.InvoiceParameter;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The effective rate cards ordered by the month they start in. A lookup is a binary search over
+ * a sorted {@code int[]} of yyyymm periods, so resolving rates for any month costs no I/O.
+ */
+public final class RateSchedule {
+    private final int[] periods;
+    private final RateCard[] cards;
+    private final long latestVersion;
+
+    private RateSchedule(int[] periods, RateCard[] cards, long latestVersion) {
+        this.periods = periods;
+        this.cards = cards;
+        this.latestVersion = latestVersion;
+    }
+
+    /**
+     * Builds the schedule from rows sorted by effective period then id; when several rows share a
+     * period the last (newest) one is kept.
+     */
+    static RateSchedule of(List<InvoiceParameter> rows) {
+        List<RateCard> effective = new ArrayList<>(rows.size());
+        long latestVersion = 0;
+        for (InvoiceParameter row : rows) {
+            RateCard card = RateCard.of(row);
+            latestVersion = Math.max(latestVersion, card.version());
+            int last = effective.size() - 1;
+            if (last >= 0 && effective.get(last).effectivePeriod() == card.effectivePeriod()) {
+                effective.set(last, card);
+            } else {
+                effective.add(card);
+            }
+        }
+        int[] periods = new int[effective.size()];
+        for (int i = 0; i < periods.length; i++) {
+            periods[i] = effective.get(i).effectivePeriod();
+        }
+        return new RateSchedule(periods, effective.toArray(RateCard[]::new), latestVersion);
+    }
+
+    /**
+     * The card in force during {@code month}: the one with the latest start not after it.
+     */
+    public RateCard at(YearMonth month) {
+        int found = Arrays.binarySearch(periods, period(month));
+        int index = found >= 0 ? found : -found - 2;
+        if (index < 0) {
+            throw new IllegalStateException("No invoice rates in force for " + month);
+        }
+        return cards[index];
+    }
+
+    public List<RateCard> cards() {
+        return List.of(cards);
+    }
+
+    /** The newest schedule row this was built from; a reload never replaces a newer schedule. */
+    long latestVersion() {
+        return latestVersion;
+    }
+
+    static int period(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+
+    static YearMonth yearMonth(int period) {
+        return YearMonth.of(period / 100, period % 100);
+    }
+}
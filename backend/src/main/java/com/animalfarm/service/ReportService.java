@@ -1,8 +1,7 @@
 package com.animalfarm.service;
 
 import com.animalfarm.dto.AnimalSummary;
-import com.animalfarm.model.AnimalType;
-import com.animalfarm.model.Owner;
+import com.animalfarm.dto.OwnerAnimalTypeCounts;
 import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
 import com.lowagie.text.Paragraph;
@@ -10,21 +9,42 @@ import com.lowagie.text.Phrase;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
 import com.lowagie.text.pdf.PdfWriter;
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 
 @Service
 public class ReportService {
+    private static final PdfTemplate ANIMAL_LIST = PdfTemplate.builder()
+            .line("{}")
+            .line("{}")
+            .blank()
+            .row("AnimalId: {}, Type: {}, Breed: {}, Color: {}, DOB: {}, Sold: {}")
+            .empty("No records found.")
+            .compile();
+    private static final PdfTemplate OWNERS_LIST = PdfTemplate.builder()
+            .line("Owners List Report")
+            .line("Total owners: {}")
+            .blank()
+            .row("OwnerId: {}, Name: {} {}, Email: {}, Phone: {}, Address: {}")
+            .empty("No owners found.")
+            .compile();
+
+    private static final int CROSSTAB_FLUSH_ROWS = 500;
+
     private final AnimalService animalService;
     private final OwnerService ownerService;
+    private final OwnerTypeCrosstabService ownerTypeCrosstabService;
 
-    public ReportService(AnimalService animalService, OwnerService ownerService) {
+    public ReportService(
+            AnimalService animalService,
+            OwnerService ownerService,
+            OwnerTypeCrosstabService ownerTypeCrosstabService
+    ) {
         this.animalService = animalService;
         this.ownerService = ownerService;
+        this.ownerTypeCrosstabService = ownerTypeCrosstabService;
     }
 
     public byte[] ownerVsAnimalPdf(UUID ownerId) {
@@ -52,42 +72,32 @@ public class ReportService {
 
     public byte[] ownersListPdf() {
         var owners = ownerService.listOwners();
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document();
-            PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new Paragraph("Owners List Report"));
-            document.add(new Paragraph("Total owners: " + owners.size()));
-            document.add(new Paragraph(" "));
-            for (Owner owner : owners) {
-                document.add(new Paragraph(
-                        "OwnerId: " + owner.getOwnerId()
-                                + ", Name: " + owner.getFirstName() + " " + owner.getLastName()
-                                + ", Email: " + owner.getEmail()
-                                + ", Phone: " + owner.getPhoneNumber()
-                                + ", Address: " + owner.getAddress()
-                ));
-            }
-            if (owners.isEmpty()) {
-                document.add(new Paragraph("No owners found."));
-            }
-            document.close();
-            return out.toByteArray();
-        } catch (DocumentException | java.io.IOException e) {
-            throw new RuntimeException("Failed to generate owners list PDF", e);
-        }
+        return OWNERS_LIST.render(new Object[] {owners.size()}, owners, (owner, values) -> {
+            values[0] = owner.getOwnerId();
+            values[1] = owner.getFirstName();
+            values[2] = owner.getLastName();
+            values[3] = owner.getEmail();
+            values[4] = owner.getPhoneNumber();
+            values[5] = owner.getAddress();
+        });
     }
 
-    public byte[] ownerAnimalTypeCountsPdf() {
-        var owners = ownerService.listOwners();
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+    /**
+     * Writes the owner x animal type table straight to {@code out}, handing completed rows to
+     * the document every {@value #CROSSTAB_FLUSH_ROWS} owners so the table never grows with the
+     * number of owners.
+     */
+    public void ownerAnimalTypeCountsPdf(OutputStream out) {
+        try {
             Document document = new Document();
-            PdfWriter.getInstance(document, out);
+            PdfWriter.getInstance(document, out).setCloseStream(false);
             document.open();
             document.add(new Paragraph("Owner Animal Type Counts Report"));
             document.add(new Paragraph(" "));
             PdfPTable table = new PdfPTable(6);
             table.setWidthPercentage(100f);
+            table.setHeaderRows(1);
+            table.setComplete(false);
             table.addCell(headerCell("owner_id"));
             table.addCell(headerCell("firstname"));
             table.addCell(headerCell("Cattle"));
@@ -95,29 +105,31 @@ public class ReportService {
             table.addCell(headerCell("Rams"));
             table.addCell(headerCell("Pigs"));
 
-            for (Owner owner : owners) {
-                List<AnimalSummary> animals = animalService.getByOwner(owner.getOwnerId());
-                Map<AnimalType, Long> counts = animals.stream()
-                        .collect(Collectors.groupingBy(AnimalSummary::type, Collectors.counting()));
-                long cattle = counts.getOrDefault(AnimalType.CATTLE, 0L);
-                long goats = counts.getOrDefault(AnimalType.GOAT, 0L);
-                long rams = counts.getOrDefault(AnimalType.RAM, 0L);
-                long pigs = counts.getOrDefault(AnimalType.PIG, 0L);
-                table.addCell(String.valueOf(owner.getOwnerId()));
-                table.addCell(owner.getFirstName());
-                table.addCell(String.valueOf(cattle));
-                table.addCell(String.valueOf(goats));
-                table.addCell(String.valueOf(rams));
-                table.addCell(String.valueOf(pigs));
-            }
-            if (owners.isEmpty()) {
+            long owners = ownerTypeCrosstabService.forEachOwner(new OwnerTypeCrosstabService.RowHandler() {
+                private int pending;
+
+                @Override
+                public void accept(OwnerAnimalTypeCounts row) {
+                    table.addCell(String.valueOf(row.ownerId()));
+                    table.addCell(row.firstName());
+                    table.addCell(String.valueOf(row.cattle()));
+                    table.addCell(String.valueOf(row.goats()));
+                    table.addCell(String.valueOf(row.rams()));
+                    table.addCell(String.valueOf(row.pigs()));
+                    if (++pending == CROSSTAB_FLUSH_ROWS) {
+                        document.add(table);
+                        pending = 0;
+                    }
+                }
+            });
+            if (owners == 0) {
                 PdfPCell noData = new PdfPCell(new Phrase("No owners found."));
                 noData.setColspan(6);
                 table.addCell(noData);
             }
+            table.setComplete(true);
             document.add(table);
             document.close();
-            return out.toByteArray();
         } catch (DocumentException | java.io.IOException e) {
             throw new RuntimeException("Failed to generate owner animal type counts PDF", e);
         }
@@ -130,30 +142,13 @@ public class ReportService {
     }
 
     private byte[] buildPdf(String title, String subtitle, List<AnimalSummary> animals) {
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document();
-            PdfWriter.getInstance(document, out);
-            document.open();
-            document.add(new Paragraph(title));
-            document.add(new Paragraph(subtitle));
-            document.add(new Paragraph(" "));
-            for (AnimalSummary animal : animals) {
-                document.add(new Paragraph(
-                        "AnimalId: " + animal.animalId()
-                                + ", Type: " + animal.type()
-                                + ", Breed: " + animal.breed()
-                                + ", Color: " + animal.color()
-                                + ", DOB: " + animal.dateOfBirth()
-                                + ", Sold: " + animal.sold()
-                ));
-            }
-            if (animals.isEmpty()) {
-                document.add(new Paragraph("No records found."));
-            }
-            document.close();
-            return out.toByteArray();
-        } catch (DocumentException | java.io.IOException e) {
-            throw new RuntimeException("Failed to generate PDF", e);
-        }
+        return ANIMAL_LIST.render(new Object[] {title, subtitle}, animals, (animal, values) -> {
+            values[0] = animal.animalId();
+            values[1] = animal.type();
+            values[2] = animal.breed();
+            values[3] = animal.color();
+            values[4] = animal.dateOfBirth();
+            values[5] = animal.sold();
+        });
     }
 }
@@ -0,0 +1,6 @@
+package com.animalfarm.service;
+
+import java.nio.file.Path;
+
+public record StoredFile(Path path, String etag, String contentType) {
+}
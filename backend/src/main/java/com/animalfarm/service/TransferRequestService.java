@@ -11,23 +11,36 @@ import com.animalfarm.model.TransferStatus;
 import com.animalfarm.repository.TransferRequestRepository;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class TransferRequestService {
+    private static final Logger log = LoggerFactory.getLogger(TransferRequestService.class);
+
     private final TransferRequestRepository transferRequestRepository;
     private final OwnerService ownerService;
     private final AnimalService animalService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
 
     public TransferRequestService(
             TransferRequestRepository transferRequestRepository,
             OwnerService ownerService,
-            AnimalService animalService
+            AnimalService animalService,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.transfers.max-attempts:5}") int maxAttempts
     ) {
         this.transferRequestRepository = transferRequestRepository;
         this.ownerService = ownerService;
         this.animalService = animalService;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = Math.max(1, maxAttempts);
     }
 
     public TransferRequestSummary create(TransferRequestCreate request, ActorRole role, UUID actorOwnerId) {
@@ -52,34 +65,59 @@ public class TransferRequestService {
         return transferRequestRepository.findAll().stream().map(TransferRequestSummary::from).toList();
     }
 
-    @Transactional
+    /**
+     * Claims the request with a conditional PENDING -> APPROVED update, then transfers its animals
+     * in the same transaction. If the animals changed underneath (a concurrent sale or transfer),
+     * the whole attempt rolls back and is retried against fresh state.
+     */
     public void approve(Long requestId, AuthSession actor) {
-        ActorRole role = actor.role();
-        RoleValidator.requireAdmin(role);
-
-        TransferRequest tr = transferRequestRepository.findById(requestId)
-                .orElseThrow(() -> new ApiException("Transfer request not found: " + requestId));
-        if (tr.getStatus() != TransferStatus.PENDING) {
-            throw new ApiException("Transfer request is already processed.");
-        }
-
-        animalService.transferAnimals(new TransferAnimalsRequest(
-                tr.getToOwner().getOwnerId(),
-                tr.getAnimalIds()
-        ), actor);
-        tr.setStatus(TransferStatus.APPROVED);
+        RoleValidator.requireAdmin(actor.role());
+        withRetry(() -> {
+            TransferRequest tr = transferRequestRepository.findById(requestId)
+                    .orElseThrow(() -> new ApiException("Transfer request not found: " + requestId));
+            if (tr.getStatus() != TransferStatus.PENDING
+                    || transferRequestRepository.transition(requestId, TransferStatus.PENDING, TransferStatus.APPROVED) == 0) {
+                throw new ApiException("Transfer request is already processed.");
+            }
+            animalService.transferAnimals(new TransferAnimalsRequest(
+                    tr.getToOwner().getOwnerId(),
+                    tr.getAnimalIds()
+            ), actor);
+        });
     }
 
-    @Transactional
     public void reject(Long requestId, AuthSession actor) {
-        ActorRole role = actor.role();
-        RoleValidator.requireAdmin(role);
+        RoleValidator.requireAdmin(actor.role());
+        withRetry(() -> {
+            if (transferRequestRepository.transition(requestId, TransferStatus.PENDING, TransferStatus.REJECTED) == 0) {
+                throw transferRequestRepository.existsById(requestId)
+                        ? new ApiException("Transfer request is already processed.")
+                        : new ApiException("Transfer request not found: " + requestId);
+            }
+        });
+    }
+
+    private void withRetry(Runnable work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> work.run());
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Transfer request attempt {} hit a concurrent update, retrying", attempt);
+                backOff(attempt);
+            }
+        }
+    }
 
-        TransferRequest tr = transferRequestRepository.findById(requestId)
-                .orElseThrow(() -> new ApiException("Transfer request not found: " + requestId));
-        if (tr.getStatus() != TransferStatus.PENDING) {
-            throw new ApiException("Transfer request is already processed.");
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 10L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException("Interrupted while retrying transfer request.");
         }
-        tr.setStatus(TransferStatus.REJECTED);
     }
 }
@@ -0,0 +1,176 @@
+package com.animalfarm.service;
+
+import com.animalfarm.dto.UploadFormat;
+import com.animalfarm.exception.ApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a CSV (with a header row) or NDJSON upload into field maps keyed by column name, so
+ * callers validate both formats the same way. Malformed lines are reported and skipped.
+ */
+final class UploadedRows {
+    private UploadedRows() {
+    }
+
+    static List<Row> read(InputStream in, UploadFormat format, ObjectMapper objectMapper, int maxRows,
+                          ErrorSink reject) throws IOException {
+        return format == UploadFormat.CSV
+                ? readCsv(in, maxRows, reject)
+                : readNdjson(in, objectMapper, maxRows, reject);
+    }
+
+    private static List<Row> readNdjson(InputStream in, ObjectMapper objectMapper, int maxRows, ErrorSink reject)
+            throws IOException {
+        List<Row> rows = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String text;
+        long line = 0;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            checkSize(rows, maxRows);
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (!node.isObject()) {
+                    reject.add(line, "Expected a JSON object.");
+                    continue;
+                }
+                Map<String, String> fields = new HashMap<>();
+                node.fields().forEachRemaining(field -> {
+                    if (!field.getValue().isNull()) {
+                        fields.put(field.getKey(), field.getValue().asText());
+                    }
+                });
+                rows.add(new Row(line, fields));
+            } catch (JsonProcessingException e) {
+                reject.add(line, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+        return rows;
+    }
+
+    private static List<Row> readCsv(InputStream in, int maxRows, ErrorSink reject) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            throw new ApiException("CSV file is empty.");
+        }
+        List<Row> rows = new ArrayList<>();
+        List<String> values;
+        while ((values = csv.next()) != null) {
+            long line = csv.startLine();
+            if (values.size() == 1 && values.get(0).isEmpty()) {
+                continue;
+            }
+            checkSize(rows, maxRows);
+            if (values.size() != header.size()) {
+                reject.add(line, "Expected " + header.size() + " columns, found " + values.size() + ".");
+                continue;
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                if (!values.get(i).isEmpty()) {
+                    fields.put(header.get(i).trim(), values.get(i));
+                }
+            }
+            rows.add(new Row(line, fields));
+        }
+        return rows;
+    }
+
+    private static void checkSize(List<Row> rows, int maxRows) {
+        if (rows.size() >= maxRows) {
+            throw new ApiException("Uploads are limited to " + maxRows + " rows.");
+        }
+    }
+
+    @FunctionalInterface
+    interface ErrorSink {
+        void add(long line, String message);
+    }
+
+    record Row(long line, Map<String, String> fields) {
+        String get(String field) {
+            return fields.get(field);
+        }
+    }
+
+    /**
+     * Reads RFC 4180 records: quoted fields may contain commas, doubled quotes and line breaks.
+     */
+    private static final class CsvRecordReader {
+        private final BufferedReader reader;
+        private long line;
+        private long startLine;
+
+        CsvRecordReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        long startLine() {
+            return startLine;
+        }
+
+        List<String> next() throws IOException {
+            String text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            startLine = ++line;
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    String more = reader.readLine();
+                    if (more == null) {
+                        break;
+                    }
+                    line++;
+                    field.append('\n');
+                    text = more;
+                    i = 0;
+                    continue;
+                }
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else if (c != '\r') {
+                    field.append(c);
+                }
+            }
+            values.add(field.toString());
+            return values;
+        }
+    }
+}
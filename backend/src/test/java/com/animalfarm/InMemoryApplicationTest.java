@@ -0,0 +1,35 @@
+package com.animalfarm;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * The full application against an in-memory H2 database in MySQL mode, with the schedulers
+ * parked. Test classes carrying this annotation share one cached context and one database, so
+ * they must not assume they are alone in it.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:application;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.audit.partitioning.enabled=false",
+        "app.audit.spill-file=target/application-test/audit-spill.ndjson",
+        "app.images.dir=target/application-test/images",
+        "app.invoice.pdf-cache.dir=target/application-test/pdf-cache",
+        "app.invoice.outbox.poll-millis=3600000",
+        "app.invoice.runs.poll-millis=3600000",
+        "app.invoice.chunk-size=2",
+        "logging.level.org.springframework.mail=INFO"
+})
+@AutoConfigureMockMvc
+public @interface InMemoryApplicationTest {
+}
@@ -0,0 +1,44 @@
+package com.animalfarm.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.animalfarm.model.ActorRole;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class AccessTokenCacheTest {
+    private final AtomicLong now = new AtomicLong(1_000L);
+    private final AuthSession session = new AuthSession(1L, "admin", ActorRole.ADMIN, null, false);
+
+    @Test
+    void get_returnsCachedSessionUntilTokenExpiry() {
+        AccessTokenCache cache = new AccessTokenCache(10, now::get);
+        cache.put("token-a", session, 2_000L);
+
+        assertSame(session, cache.get("token-a"));
+        assertNull(cache.get("token-b"));
+        now.set(2_000L);
+        assertNull(cache.get("token-a"));
+
+        AccessTokenCacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(2, stats.misses());
+        assertEquals(0, stats.size());
+    }
+
+    @Test
+    void put_staysWithinMaxEntries() {
+        AccessTokenCache cache = new AccessTokenCache(100, now::get);
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("token-" + i, session, 5_000L);
+        }
+
+        AccessTokenCacheStats stats = cache.stats();
+        assertTrue(stats.size() <= 100);
+        assertTrue(stats.evictions() > 0);
+        assertSame(session, cache.get("token-999"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.animalfarm.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+class InMemoryRefreshTokenStoreTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore();
+
+    @Test
+    void revokeIfActive_succeedsOnceAndRevokeFamilyCoversEveryToken() {
+        store.save(token("a", "family", NOW.plusDays(1)));
+        store.save(token("b", "family", NOW.plusDays(1)));
+
+        assertTrue(store.revokeIfActive("a", NOW));
+        assertFalse(store.revokeIfActive("a", NOW));
+        store.revokeFamily("family", NOW);
+
+        assertTrue(store.find("b").orElseThrow().revoked());
+    }
+
+    @Test
+    void purge_stopsAtTheLimitAndTheNextCallTakesTheRest() {
+        for (int i = 0; i < 5; i++) {
+            store.save(token("expired-" + i, "family-" + i, NOW.minusMinutes(1)));
+        }
+        store.save(token("live", "family-live", NOW.plusDays(1)));
+        store.save(token("revoked", "family-live", NOW.plusDays(1)));
+        store.revokeIfActive("revoked", NOW.minusHours(2));
+
+        assertEquals(4, store.purge(NOW, 4));
+        assertEquals(3, store.size());
+        assertEquals(1, store.purge(NOW, 4));
+        assertEquals(0, store.purge(NOW, 4));
+
+        assertEquals(2, store.size());
+        assertTrue(store.find("live").isPresent());
+        assertTrue(store.find("revoked").orElseThrow().revoked());
+    }
+
+    private static RefreshTokenRecord token(String hash, String familyId, LocalDateTime expiresAt) {
+        return new RefreshTokenRecord(hash, 1L, familyId, expiresAt, null);
+    }
+}
@@ -0,0 +1,66 @@
+package com.animalfarm.auth;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Two million rotations to check that latency stays flat while periodic purges bound the store.
+ * Tagged {@code perf}, so it only runs with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+class RefreshTokenStoreLoadTest {
+    private static final int ROTATIONS = 2_000_000;
+    private static final int WINDOW = 100_000;
+    private static final int FAMILIES = 1_000;
+    // Short enough that expiry, not revocation, bounds the store across two million rotations.
+    private static final int LIFETIME_SECONDS = 10;
+
+    @Test
+    void rotationLatencyStaysFlatWhilePurgeKeepsStoreBounded() {
+        InMemoryRefreshTokenStore store = new InMemoryRefreshTokenStore();
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        String[] current = new String[FAMILIES];
+        for (int family = 0; family < FAMILIES; family++) {
+            current[family] = "f" + family + "-0";
+            store.save(new RefreshTokenRecord(current[family], 1L, "family-" + family, start.plusDays(7), null));
+        }
+
+        long[] windowNanos = new long[ROTATIONS / WINDOW];
+        int maxSize = 0;
+        for (int i = 1; i <= ROTATIONS; i++) {
+            // Each rotation advances a simulated clock by one millisecond.
+            LocalDateTime now = start.plusNanos(i * 1_000_000L);
+            int family = i % FAMILIES;
+            long t0 = System.nanoTime();
+            String previous = current[family];
+            assertTrue(store.find(previous).isPresent());
+            assertTrue(store.revokeIfActive(previous, now));
+            String next = "f" + family + "-" + i;
+            store.save(new RefreshTokenRecord(next, 1L, "family-" + family, now.plusSeconds(LIFETIME_SECONDS), null));
+            current[family] = next;
+            windowNanos[(i - 1) / WINDOW] += System.nanoTime() - t0;
+
+            if (i % WINDOW == 0) {
+                maxSize = Math.max(maxSize, store.size());
+                // Loop like RefreshTokenPurger until a batch comes back short.
+                int purged;
+                do {
+                    purged = store.purge(now, 1_000);
+                } while (purged == 1_000);
+            }
+        }
+
+        long[] perRotation = Arrays.stream(windowNanos).map(total -> total / WINDOW).toArray();
+        long[] sorted = perRotation.clone();
+        Arrays.sort(sorted);
+        long median = sorted[sorted.length / 2];
+        long lastWindows = Math.max(perRotation[perRotation.length - 1], perRotation[perRotation.length - 2]);
+
+        assertTrue(maxSize <= WINDOW + FAMILIES + 10_000 + 1, "store grew to " + maxSize);
+        assertTrue(lastWindows <= median * 10, "rotation latency drifted: " + Arrays.toString(perRotation));
+    }
+}
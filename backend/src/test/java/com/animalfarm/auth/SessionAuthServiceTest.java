@@ -0,0 +1,91 @@
+package com.animalfarm.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.exception.UnauthorizedException;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.AppUser;
+import com.animalfarm.repository.AppUserRepository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class SessionAuthServiceTest {
+
+    @Mock
+    private AppUserRepository appUserRepository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    private InMemoryRefreshTokenStore refreshTokenStore;
+    private SessionAuthService sessionAuthService;
+
+    @BeforeEach
+    void setUp() {
+        AppUser user = new AppUser();
+        ReflectionTestUtils.setField(user, "id", 1L);
+        user.setUsername("admin");
+        user.setPasswordHash("hash");
+        user.setRole(ActorRole.ADMIN);
+        when(appUserRepository.findByUsername("admin")).thenReturn(Optional.of(user));
+        when(appUserRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches(any(), any())).thenReturn(true);
+
+        refreshTokenStore = new InMemoryRefreshTokenStore();
+        sessionAuthService = new SessionAuthService(
+                appUserRepository,
+                refreshTokenStore,
+                new JwtTokenService("test-secret-test-secret-test-secret-0000", 15, 7),
+                passwordEncoder,
+                new AccessTokenCache(100)
+        );
+    }
+
+    @Test
+    void refresh_rotatesTokenWithinFamily() {
+        LoginResponse login = sessionAuthService.login(new LoginRequest("admin", "secret"));
+
+        LoginResponse rotated = sessionAuthService.refresh(login.refreshToken());
+        LoginResponse rotatedAgain = sessionAuthService.refresh(rotated.refreshToken());
+
+        assertNotEquals(login.refreshToken(), rotated.refreshToken());
+        assertEquals("admin", rotatedAgain.username());
+        assertEquals(3, refreshTokenStore.size());
+    }
+
+    @Test
+    void refresh_reusingRotatedTokenRevokesWholeFamily() {
+        LoginResponse login = sessionAuthService.login(new LoginRequest("admin", "secret"));
+        LoginResponse otherDevice = sessionAuthService.login(new LoginRequest("admin", "secret"));
+        LoginResponse rotated = sessionAuthService.refresh(login.refreshToken());
+
+        assertThrows(UnauthorizedException.class, () -> sessionAuthService.refresh(login.refreshToken()));
+        assertThrows(UnauthorizedException.class, () -> sessionAuthService.refresh(rotated.refreshToken()));
+        assertEquals("admin", sessionAuthService.refresh(otherDevice.refreshToken()).username());
+    }
+
+    @Test
+    void refresh_reusingRotatedTokenAfterPurgeStillRevokesWholeFamily() {
+        LoginResponse login = sessionAuthService.login(new LoginRequest("admin", "secret"));
+        LoginResponse rotated = sessionAuthService.refresh(login.refreshToken());
+
+        new RefreshTokenPurger(refreshTokenStore, 100).purge();
+        // A day later the rotated token has not expired yet, so it is still there to detect reuse.
+        assertEquals(0, refreshTokenStore.purge(LocalDateTime.now().plusDays(1), 100));
+
+        assertThrows(UnauthorizedException.class, () -> sessionAuthService.refresh(login.refreshToken()));
+        assertThrows(UnauthorizedException.class, () -> sessionAuthService.refresh(rotated.refreshToken()));
+    }
+}
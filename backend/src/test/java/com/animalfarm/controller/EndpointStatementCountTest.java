@@ -0,0 +1,180 @@
+package com.animalfarm.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.auth.JwtTokenService;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Animal;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.AnimalRepository;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import com.animalfarm.repository.OwnerRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+/**
+ * Runs endpoints against an in-memory database and counts the JDBC statements Hibernate prepares
+ * for each request, so a lazy association touched per row shows up as a failing count.
+ */
+@InMemoryApplicationTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class EndpointStatementCountTest {
+    private static final int OWNERS = 5;
+    private static final int ANIMALS_PER_OWNER = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Autowired
+    private OwnerInvoiceRepository ownerInvoiceRepository;
+
+    private String adminToken;
+    private UUID parentId;
+    private Owner firstOwner;
+    private Long invoiceId;
+
+    @BeforeAll
+    void seed() {
+        adminToken = jwtTokenService.generateAccessToken(1L, "admin", ActorRole.ADMIN, null, false);
+        Animal parent = null;
+        for (int o = 0; o < OWNERS; o++) {
+            Owner owner = new Owner();
+            owner.setFirstName("Owner" + o);
+            owner.setLastName("Test");
+            owner.setEmail("owner" + o + "@example.com");
+            owner.setPhoneNumber("555-000" + o);
+            owner.setAddress("Farm road " + o);
+            owner = ownerRepository.save(owner);
+            if (firstOwner == null) {
+                firstOwner = owner;
+            }
+            for (int a = 0; a < ANIMALS_PER_OWNER; a++) {
+                Animal animal = new Animal();
+                animal.setColor("brown");
+                animal.setDateOfBirth(LocalDate.of(2024, 1, 1 + a));
+                animal.setBreed("Angus");
+                animal.setType(AnimalType.CATTLE);
+                animal.setOwner(owner);
+                animal.setParentId(parent != null ? parent.getAnimalId() : null);
+                animal = animalRepository.save(animal);
+                if (parent == null) {
+                    parent = animal;
+                }
+            }
+            OwnerInvoice invoice = new OwnerInvoice();
+            invoice.setOwner(owner);
+            invoice.setPeriodYear(2026);
+            invoice.setPeriodMonth(9);
+            invoice.setCurrentCharge(BigDecimal.TEN);
+            invoice.setPreviousUnpaidBalance(BigDecimal.ZERO);
+            invoice.setTotalDue(BigDecimal.TEN);
+            invoiceId = ownerInvoiceRepository.save(invoice).getId();
+        }
+        parentId = parent.getAnimalId();
+    }
+
+    @Test
+    void animalListing_usesOneStatement() throws Exception {
+        assertStatements(1, get("/api/animals").param("limit", "100"));
+    }
+
+    @Test
+    void ownerAnimalListing_usesOneStatement() throws Exception {
+        assertStatements(1, get("/api/animals").param("ownerId", firstOwner.getOwnerId().toString()));
+    }
+
+    @Test
+    void parentReport_usesOneStatement() throws Exception {
+        assertStatements(1, get("/api/reports/parent-vs-animal").param("parentId", parentId.toString()));
+    }
+
+    @Test
+    void invoiceHistory_usesOneStatement() throws Exception {
+        assertStatements(1, get("/api/invoices/history"));
+        assertStatements(1, get("/api/invoices/history").param("year", "2026").param("month", "9"));
+    }
+
+    @Test
+    void invoiceZip_usesOneStatement() throws Exception {
+        // Other classes share the database; one month keeps the ZIP within a single page of invoices.
+        assertStatements(1, get("/api/invoices/history/zip").param("year", "2026").param("month", "9"));
+    }
+
+    @Test
+    void invoicePdf_usesOneStatement() throws Exception {
+        assertStatements(1, get("/api/invoices/" + invoiceId + "/pdf"));
+    }
+
+    @Test
+    void ownerTypeCrosstab_usesOneStatement() throws Exception {
+        assertStatements(1, get("/api/reports/owners-animal-type-counts"));
+        MvcResult json = assertStatements(1, get("/api/reports/owners-animal-type-counts/json"));
+        String body = json.getResponse().getContentAsString();
+        assertEquals(OWNERS, body.split("\"cattle\":" + ANIMALS_PER_OWNER + ",").length - 1, body);
+    }
+
+    @Test
+    void bulkTransfer_usesOneSelectAndOneUpdateForAllAnimals() throws Exception {
+        Owner owner = firstOwner;
+        String animalIds = animalRepository.findAll().stream()
+                .filter(animal -> animal.getOwner().getId().equals(owner.getId()))
+                .map(animal -> "\"" + animal.getAnimalId() + "\"")
+                .collect(Collectors.joining(","));
+
+        // owner lookup, animals IN query, bulk update
+        assertStatements(3, post("/api/animals/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"toOwnerId\":\"" + owner.getOwnerId() + "\",\"animalIds\":[" + animalIds + "]}"));
+    }
+
+    private MvcResult assertStatements(long expected, RequestBuilder request) throws Exception {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        MvcResult result = mockMvc.perform(withToken(request)).andExpect(status().isOk()).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount(), "JDBC statements for request");
+        return result;
+    }
+
+    private RequestBuilder withToken(RequestBuilder request) {
+        return servletContext -> {
+            var built = request.buildRequest(servletContext);
+            built.addHeader("Authorization", "Bearer " + adminToken);
+            return built;
+        };
+    }
+}
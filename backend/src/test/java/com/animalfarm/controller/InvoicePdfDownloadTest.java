@@ -0,0 +1,122 @@
+package com.animalfarm.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.auth.AuthInterceptor;
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.auth.JwtTokenService;
+import com.animalfarm.dto.OwnerUpdateRequest;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import com.animalfarm.repository.OwnerRepository;
+import com.animalfarm.service.MonthlyInvoiceService;
+import com.animalfarm.service.OwnerService;
+import com.animalfarm.service.StoredFile;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Downloads invoice PDFs from the shared in-memory application and checks that the ETag follows
+ * what is printed on them, and that a cached file removed before it is opened is rendered again.
+ */
+@InMemoryApplicationTest
+class InvoicePdfDownloadTest {
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private OwnerService ownerService;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private OwnerInvoiceRepository ownerInvoiceRepository;
+
+    @Test
+    void etagChangesWhenTheOwnersPrintedDetailsChange() throws Exception {
+        Owner owner = new Owner();
+        owner.setFirstName("Before");
+        owner.setLastName("Download");
+        owner.setEmail("before-" + UUID.randomUUID() + "@example.com");
+        owner.setPhoneNumber("555-0600");
+        owner.setAddress("Download road");
+        owner = ownerRepository.save(owner);
+        OwnerInvoice invoice = new OwnerInvoice();
+        invoice.setOwner(owner);
+        invoice.setPeriodYear(2034);
+        invoice.setPeriodMonth(1);
+        invoice.setCurrentCharge(BigDecimal.TEN);
+        invoice.setPreviousUnpaidBalance(BigDecimal.ZERO);
+        invoice.setTotalDue(BigDecimal.TEN);
+        Long invoiceId = ownerInvoiceRepository.save(invoice).getId();
+        String username = "download-" + UUID.randomUUID();
+
+        String original = etag(invoiceId);
+        update(owner, "Before", owner.getEmail(), "555-0601", username);
+        String afterPhone = etag(invoiceId);
+        update(owner, "After", owner.getEmail(), "555-0601", username);
+        String afterName = etag(invoiceId);
+
+        assertEquals(original, afterPhone, "the phone number is not printed");
+        assertNotEquals(original, afterName);
+    }
+
+    @Test
+    void fileEvictedBeforeItIsOpened_isRenderedAgain() throws Exception {
+        Path rendered = Files.write(dir.resolve("rendered.pdf"), "pdf".getBytes(StandardCharsets.UTF_8));
+        MonthlyInvoiceService monthlyInvoiceService = mock(MonthlyInvoiceService.class);
+        when(monthlyInvoiceService.downloadInvoicePdf(eq(7L), any(), any())).thenReturn(
+                new StoredFile(dir.resolve("evicted.pdf"), "invoice-7-v0-r2", "application/pdf"),
+                new StoredFile(rendered, "invoice-7-v1-r2", "application/pdf"));
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/invoices/7/pdf");
+        request.setAttribute(AuthInterceptor.AUTH_SESSION_ATTR, new AuthSession(1L, "admin", ActorRole.ADMIN, null, false));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        new InvoiceController(monthlyInvoiceService, null).downloadPdf(7L, request, response);
+
+        assertEquals("\"invoice-7-v1-r2\"", response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals("pdf".getBytes(StandardCharsets.UTF_8), response.getContentAsByteArray());
+    }
+
+    private String etag(Long invoiceId) throws Exception {
+        String token = jwtTokenService.generateAccessToken(1L, "admin", ActorRole.ADMIN, null, false);
+        return mockMvc.perform(get("/api/invoices/" + invoiceId + "/pdf").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    private void update(Owner owner, String firstName, String email, String phoneNumber, String username) {
+        ownerService.updateOwner(owner.getOwnerId(), new OwnerUpdateRequest(firstName, owner.getLastName(), email,
+                phoneNumber, owner.getAddress(), username, "Temp-pass-1"), ActorRole.ADMIN);
+    }
+}
@@ -0,0 +1,80 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.dto.AnimalExportFormat;
+import com.animalfarm.dto.AnimalExportRow;
+import com.animalfarm.dto.AnimalFilter;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.repository.AnimalRepository;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class AnimalExportServiceTest {
+    private static final UUID ANIMAL_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID OWNER_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Mock
+    private AnimalRepository animalRepository;
+
+    @Test
+    void export_writesCsvWithQuotedFieldsAndClosesStream() throws IOException {
+        AnimalFilter filter = AnimalFilter.byOwner(OWNER_ID);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(animalRepository.streamForExport(filter)).thenReturn(rows().onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = service().export(filter, AnimalExportFormat.CSV, out);
+
+        assertEquals(1, written);
+        assertEquals(
+                "id,animalId,color,dateOfBirth,breed,type,parentId,ownerId,sold\n"
+                        + "7," + ANIMAL_ID + ",\"brown, white\",2024-03-01,\"Big \"\"Red\"\"\",CATTLE,," + OWNER_ID + ",false\n",
+                out.toString(StandardCharsets.UTF_8)
+        );
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void export_writesOneJsonObjectPerLine() throws IOException {
+        AnimalFilter filter = AnimalFilter.byOwner(OWNER_ID);
+        when(animalRepository.streamForExport(filter)).thenReturn(Stream.concat(rows(), rows()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = service().export(filter, AnimalExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].startsWith("{\"id\":7,\"animalId\":\"" + ANIMAL_ID + "\""));
+        assertTrue(lines[1].contains("\"dateOfBirth\":\"2024-03-01\""));
+    }
+
+    private AnimalExportService service() {
+        JsonMapper mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        return new AnimalExportService(animalRepository, mapper);
+    }
+
+    private static Stream<AnimalExportRow> rows() {
+        return Stream.of(new AnimalExportRow(
+                7L, ANIMAL_ID, "brown, white", LocalDate.of(2024, 3, 1), "Big \"Red\"", AnimalType.CATTLE, null, OWNER_ID, false
+        ));
+    }
+}
@@ -0,0 +1,157 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.AnimalImportResult;
+import com.animalfarm.dto.UploadFormat;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Owner;
+import com.animalfarm.repository.OwnerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Runs the import against an in-memory H2 database in MySQL mode with a batch size of 2, so
+ * parents and offspring land in different batches.
+ */
+class AnimalImportServiceTest {
+    private static final AuthSession ADMIN = new AuthSession(1L, "admin", ActorRole.ADMIN, null, false);
+
+    private JdbcTemplate jdbcTemplate;
+    private OwnerRepository ownerRepository;
+    private AuditLogService auditLogService;
+    private ApplicationEventPublisher eventPublisher;
+    private AnimalImportService importService;
+    private UUID ownerId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:animal-import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table animals (id bigint auto_increment primary key, "
+                + "animal_id char(36) not null unique, parent_id char(36), type varchar(20) not null, "
+                + "breed varchar(255) not null, color varchar(255) not null, date_of_birth date not null, "
+                + "owner_id bigint not null, sold boolean not null, version bigint not null default 0)");
+        jdbcTemplate.execute("create table animal_lineage (ancestor_id bigint not null, "
+                + "descendant_id bigint not null, depth int not null, primary key (ancestor_id, descendant_id))");
+
+        ownerId = UUID.randomUUID();
+        Owner owner = new Owner();
+        ReflectionTestUtils.setField(owner, "id", 7L);
+        ReflectionTestUtils.setField(owner, "ownerId", ownerId);
+        ownerRepository = mock(OwnerRepository.class);
+        when(ownerRepository.findByOwnerIdIn(any())).thenReturn(List.of(owner));
+        auditLogService = mock(AuditLogService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        importService = new AnimalImportService(ownerRepository, jdbcTemplate, new LineageService(jdbcTemplate),
+                auditLogService, eventPublisher, new ObjectMapper(), 2, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    @Test
+    void importAnimals_csvInsertsRowsAndLineageInOrder() throws Exception {
+        UUID root = UUID.randomUUID();
+        UUID child = UUID.randomUUID();
+        String csv = "id,animalId,color,dateOfBirth,breed,type,parentId,ownerId,sold\n"
+                + "1," + root + ",Brown,2020-01-01,Angus,CATTLE,," + ownerId + ",false\n"
+                + "2," + child + ",\"Black, white\",2021-01-01,Angus,CATTLE," + root + "," + ownerId + ",false\n"
+                + "3,,Grey,2022-01-01,Boer,goat," + child + "," + ownerId + ",false\n";
+
+        AnimalImportResult result = importService.importAnimals(stream(csv), UploadFormat.CSV, ADMIN);
+
+        assertEquals(3, result.rows());
+        assertEquals(3, result.imported());
+        assertEquals(0, result.rejected());
+        assertEquals("Black, white", jdbcTemplate.queryForObject(
+                "select color from animals where animal_id = ?", String.class, child.toString()));
+        assertEquals(6, jdbcTemplate.queryForObject("select count(*) from animal_lineage", Integer.class));
+        assertEquals(2, jdbcTemplate.queryForObject("select max(depth) from animal_lineage", Integer.class));
+        ArgumentCaptor<AnimalsRegisteredEvent> event = ArgumentCaptor.forClass(AnimalsRegisteredEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(List.of(root, child), event.getValue().animals().stream()
+                .limit(2).map(AnimalRegisteredEvent::animalId).toList());
+        verify(ownerRepository, times(1)).findByOwnerIdIn(any());
+        verify(auditLogService).log(eq(ADMIN), eq("IMPORT_ANIMALS"), anyString());
+    }
+
+    @Test
+    void importAnimals_ndjsonReportsInvalidRowsAndKeepsTheRest() throws Exception {
+        UUID existing = UUID.randomUUID();
+        jdbcTemplate.update("insert into animals (animal_id, color, date_of_birth, breed, type, owner_id, sold) "
+                + "values (?, 'Red', date '2019-01-01', 'Duroc', 'PIG', 7, false)", existing.toString());
+        jdbcTemplate.update("insert into animal_lineage (ancestor_id, descendant_id, depth) "
+                + "select id, id, 0 from animals");
+        UUID rejectedParent = UUID.randomUUID();
+        String ndjson = String.join("\n",
+                row(null, existing, ownerId, "PIG"),
+                row(existing, null, ownerId, "PIG"),
+                row(null, null, UUID.randomUUID(), "PIG"),
+                row(rejectedParent, null, ownerId, "HORSE"),
+                row(null, rejectedParent, ownerId, "PIG"),
+                "{not json",
+                "");
+
+        AnimalImportResult result = importService.importAnimals(stream(ndjson), UploadFormat.NDJSON, ADMIN);
+
+        assertEquals(6, result.rows());
+        assertEquals(1, result.imported());
+        assertEquals(5, result.rejected());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L), result.errors().stream().map(e -> e.line()).sorted().toList());
+        assertTrue(result.errors().stream().anyMatch(e -> e.message().contains("already used")));
+        assertEquals(2, jdbcTemplate.queryForObject("select count(*) from animals", Integer.class));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select count(*) from animal_lineage where depth = 1", Integer.class));
+    }
+
+    @Test
+    void importAnimals_rejectsNonAdminAndOversizedUploads() {
+        AuthSession owner = new AuthSession(2L, "owner", ActorRole.OWNER, ownerId, false);
+        String rows = (row(null, null, ownerId, "PIG") + "\n").repeat(101);
+
+        assertThrows(ApiException.class,
+                () -> importService.importAnimals(stream(rows), UploadFormat.NDJSON, owner));
+        assertThrows(ApiException.class,
+                () -> importService.importAnimals(stream(rows), UploadFormat.NDJSON, ADMIN));
+    }
+
+    private static String row(UUID animalId, UUID parentId, UUID ownerId, String type) {
+        return "{\"animalId\":" + quoted(animalId) + ",\"color\":\"Pink\",\"dateOfBirth\":\"2023-05-01\","
+                + "\"breed\":\"Duroc\",\"type\":\"" + type + "\",\"parentId\":" + quoted(parentId)
+                + ",\"ownerId\":\"" + ownerId + "\"}";
+    }
+
+    private static String quoted(UUID value) {
+        return value == null ? "null" : "\"" + value + "\"";
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
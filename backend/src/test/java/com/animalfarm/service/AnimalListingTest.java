@@ -0,0 +1,158 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.dto.AnimalExportRow;
+import com.animalfarm.dto.AnimalFilter;
+import com.animalfarm.dto.AnimalPage;
+import com.animalfarm.dto.AnimalSummary;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.Animal;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.Owner;
+import com.animalfarm.repository.AnimalRepository;
+import com.animalfarm.repository.OwnerRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Pages through animals with the real specifications against the shared in-memory application.
+ * Every test's animals get a breed of their own, so filtering on it hides other classes' data.
+ */
+@InMemoryApplicationTest
+class AnimalListingTest {
+    @Autowired
+    private AnimalService animalService;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    private String breed;
+    private Owner first;
+    private Owner second;
+    private final List<UUID> saved = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        breed = "Listing-" + UUID.randomUUID();
+        first = owner("First");
+        second = owner("Second");
+        animal(first, AnimalType.CATTLE, LocalDate.of(2020, 1, 1), false);
+        animal(second, AnimalType.CATTLE, LocalDate.of(2020, 1, 2), false);
+        animal(first, AnimalType.GOAT, LocalDate.of(2020, 1, 3), true);
+        animal(first, AnimalType.CATTLE, LocalDate.of(2020, 1, 4), false);
+        animal(second, AnimalType.PIG, LocalDate.of(2020, 1, 5), false);
+        animal(first, AnimalType.CATTLE, LocalDate.of(2020, 1, 6), true);
+    }
+
+    @Test
+    void listAnimals_followsTheCursorUntilTheLastPage() {
+        AnimalFilter filter = filter(null, null, null, null, null);
+        List<UUID> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            AnimalPage page = animalService.listAnimals(filter, cursor, 4);
+            page.items().forEach(animal -> seen.add(animal.animalId()));
+            pageSizes.add(page.items().size());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(4, 2), pageSizes);
+        assertEquals(saved, seen);
+    }
+
+    @Test
+    void listAnimals_fullLastPageHasNoCursor() {
+        AnimalPage firstPage = animalService.listAnimals(filter(null, null, null, null, null), null, 3);
+        assertNotNull(firstPage.nextCursor());
+
+        AnimalPage lastPage = animalService.listAnimals(filter(null, null, null, null, null), firstPage.nextCursor(), 3);
+
+        assertEquals(saved.subList(3, 6), ids(lastPage));
+        assertNull(lastPage.nextCursor());
+        assertNull(animalService.listAnimals(filter(null, null, null, null, null), null, 6).nextCursor());
+    }
+
+    @Test
+    void listAnimals_combinesFilters() {
+        assertEquals(List.of(saved.get(0), saved.get(3)),
+                ids(animalService.listAnimals(filter(AnimalType.CATTLE, false, first, null, null), null, 10)));
+        assertEquals(List.of(saved.get(2), saved.get(5)),
+                ids(animalService.listAnimals(filter(null, true, null, null, null), null, 10)));
+        assertEquals(List.of(saved.get(1), saved.get(4)), ids(animalService.listAnimals(
+                filter(null, null, second, LocalDate.of(2020, 1, 2), LocalDate.of(2020, 1, 5)), null, 10)));
+        assertEquals(List.of(), ids(animalService.listAnimals(filter(AnimalType.RAM, null, null, null, null), null, 10)));
+    }
+
+    @Test
+    void listAnimals_keepsFilteringAcrossPages() {
+        AnimalFilter cattle = filter(AnimalType.CATTLE, null, null, null, null);
+
+        AnimalPage firstPage = animalService.listAnimals(cattle, null, 2);
+        AnimalPage secondPage = animalService.listAnimals(cattle, firstPage.nextCursor(), 2);
+
+        assertEquals(List.of(saved.get(0), saved.get(1)), ids(firstPage));
+        assertEquals(List.of(saved.get(3), saved.get(5)), ids(secondPage));
+        assertNull(secondPage.nextCursor());
+    }
+
+    @Test
+    void streamForExport_readsTheFilteredRowsOnTheExportPool() {
+        AnimalFilter cattle = filter(AnimalType.CATTLE, false, null, null, null);
+
+        try (Stream<AnimalExportRow> rows = animalRepository.streamForExport(cattle)) {
+            assertEquals(List.of(saved.get(0), saved.get(1), saved.get(3)),
+                    rows.map(AnimalExportRow::animalId).toList());
+        }
+    }
+
+    @Test
+    void listAnimals_rejectsCursorsItDidNotIssue() {
+        AnimalFilter filter = filter(null, null, null, null, null);
+
+        assertThrows(ApiException.class, () -> animalService.listAnimals(filter, "not-a-cursor", 10));
+    }
+
+    private AnimalFilter filter(AnimalType type, Boolean sold, Owner owner, LocalDate bornFrom, LocalDate bornTo) {
+        return new AnimalFilter(type, sold, owner == null ? null : owner.getOwnerId(), breed, bornFrom, bornTo);
+    }
+
+    private static List<UUID> ids(AnimalPage page) {
+        return page.items().stream().map(AnimalSummary::animalId).toList();
+    }
+
+    private Owner owner(String firstName) {
+        Owner owner = new Owner();
+        owner.setFirstName(firstName);
+        owner.setLastName("Listing");
+        owner.setEmail("listing-" + UUID.randomUUID() + "@example.com");
+        owner.setPhoneNumber("555-0500");
+        owner.setAddress("Listing road");
+        return ownerRepository.save(owner);
+    }
+
+    private void animal(Owner owner, AnimalType type, LocalDate born, boolean sold) {
+        Animal animal = new Animal();
+        animal.setColor("brown");
+        animal.setDateOfBirth(born);
+        animal.setBreed(breed);
+        animal.setType(type);
+        animal.setOwner(owner);
+        animal.setSold(sold);
+        saved.add(animalRepository.save(animal).getAnimalId());
+    }
+}
@@ -2,6 +2,12 @@ package com.animalfarm.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.animalfarm.dto.AnimalRequest;
@@ -15,14 +21,17 @@ import com.animalfarm.model.Owner;
 import com.animalfarm.repository.AnimalRepository;
 import com.animalfarm.repository.OwnerRepository;
 import java.time.LocalDate;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,11 +46,20 @@ class AnimalServiceTest {
     @Mock
     private AuditLogService auditLogService;
 
+    @Mock
+    private ImageStore imageStore;
+
+    @Mock
+    private LineageService lineageService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private AnimalService animalService;
 
     @BeforeEach
     void setUp() {
-        animalService = new AnimalService(animalRepository, ownerRepository, auditLogService);
+        animalService = new AnimalService(animalRepository, ownerRepository, auditLogService, imageStore, lineageService, eventPublisher);
     }
 
     @Test
@@ -68,7 +86,12 @@ class AnimalServiceTest {
         Animal animal = animal(10L, animalUuid, fromOwner, false);
 
         when(ownerRepository.findByOwnerId(toOwner.getOwnerId())).thenReturn(Optional.of(toOwner));
-        when(animalRepository.findByAnimalId(animalUuid)).thenReturn(Optional.of(animal));
+        when(animalRepository.findByAnimalIdIn(Set.of(animalUuid))).thenReturn(List.of(animal));
+        doAnswer(invocation -> {
+            List<Animal> moved = invocation.getArgument(0);
+            moved.forEach(a -> a.setOwner(invocation.getArgument(1)));
+            return null;
+        }).when(animalRepository).transferOwner(List.of(animal), toOwner);
 
         var result = animalService.transferAnimals(new TransferAnimalsRequest(
                 toOwner.getOwnerId(),
@@ -76,8 +99,31 @@ class AnimalServiceTest {
         ), new AuthSession(1L, "owner1", ActorRole.OWNER, fromOwner.getOwnerId(), false));
 
         assertEquals(1, result.size());
-        assertEquals(2L, animal.getOwner().getId());
+        assertEquals(animalUuid, result.get(0).animalId());
         assertEquals(toOwner.getOwnerId(), result.get(0).ownerId());
+        verify(animalRepository).transferOwner(List.of(animal), toOwner);
+        verify(auditLogService).log(any(), eq("TRANSFER_ANIMALS"), anyString());
+    }
+
+    @Test
+    void transferAnimals_loadsAllAnimalsAtOnceAndRejectsBeforeUpdating() {
+        Owner fromOwner = owner(1L, UUID.randomUUID());
+        Owner toOwner = owner(2L, UUID.randomUUID());
+        Animal first = animal(10L, UUID.randomUUID(), fromOwner, false);
+        Animal sold = animal(11L, UUID.randomUUID(), fromOwner, true);
+        Set<UUID> requested = new LinkedHashSet<>(List.of(first.getAnimalId(), sold.getAnimalId()));
+
+        when(ownerRepository.findByOwnerId(toOwner.getOwnerId())).thenReturn(Optional.of(toOwner));
+        when(animalRepository.findByAnimalIdIn(requested)).thenReturn(List.of(sold, first));
+
+        ApiException ex = assertThrows(ApiException.class, () -> animalService.transferAnimals(new TransferAnimalsRequest(
+                toOwner.getOwnerId(),
+                List.of(first.getAnimalId(), sold.getAnimalId(), first.getAnimalId())
+        ), new AuthSession(1L, "admin", ActorRole.ADMIN, null, false)));
+
+        assertEquals("Animal already sold to market: " + sold.getAnimalId(), ex.getMessage());
+        verify(animalRepository, never()).transferOwner(any(), any());
+        verify(animalRepository, never()).findByAnimalId(any());
     }
 
     @Test
@@ -88,7 +134,7 @@ class AnimalServiceTest {
         Animal animal = animal(11L, animalUuid, realOwner, false);
 
         when(ownerRepository.findByOwnerId(toOwner.getOwnerId())).thenReturn(Optional.of(toOwner));
-        when(animalRepository.findByAnimalId(animalUuid)).thenReturn(Optional.of(animal));
+        when(animalRepository.findByAnimalIdIn(Set.of(animalUuid))).thenReturn(List.of(animal));
 
         ApiException ex = assertThrows(ApiException.class, () -> animalService.transferAnimals(new TransferAnimalsRequest(
                 toOwner.getOwnerId(),
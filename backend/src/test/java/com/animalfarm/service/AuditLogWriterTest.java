@@ -0,0 +1,166 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.repository.AuditLogRepository;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class AuditLogWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @Test
+    void worker_insertsBufferedEventsInBoundedBatches() throws Exception {
+        recordBatches();
+        AuditLogWriter writer = writer(2048, AuditLogWriter.OverflowPolicy.BLOCK);
+        writer.start();
+        for (int i = 0; i < 1200; i++) {
+            writer.enqueue(event(i));
+        }
+        writer.stop();
+
+        assertEquals(1200, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 500), batchSizes::toString);
+        assertFalse(Files.exists(dir.resolve("spill.ndjson")));
+    }
+
+    @Test
+    void enqueue_spillsOverflowAndReplaysItOnStart() throws Exception {
+        recordBatches();
+        AuditLogWriter writer = writer(2, AuditLogWriter.OverflowPolicy.SPILL);
+        writer.enqueue(event(1));
+        writer.enqueue(event(2));
+        writer.enqueue(event(3));
+
+        assertEquals(1, Files.readAllLines(dir.resolve("spill.ndjson")).size());
+        writer.flush();
+        assertEquals(List.of(2), batchSizes);
+
+        writer.start();
+        writer.stop();
+        assertEquals(List.of(2, 1), batchSizes);
+        assertFalse(Files.exists(dir.resolve("spill.ndjson")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_bindsAMissingActorIdAsNull() throws Exception {
+        List<AuditEvent> written = new ArrayList<>();
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any())).thenAnswer(invocation -> {
+            ParameterizedPreparedStatementSetter<AuditEvent> setter = invocation.getArgument(3);
+            for (AuditEvent event : invocation.<Collection<AuditEvent>>getArgument(1)) {
+                setter.setValues(statement, event);
+                written.add(event);
+            }
+            return new int[0][];
+        });
+        AuditLogWriter writer = writer(16, AuditLogWriter.OverflowPolicy.BLOCK);
+        writer.enqueue(new AuditEvent(null, "system", ActorRole.ADMIN, "PURGE", "nightly", LocalDateTime.of(2026, 1, 1, 0, 0)));
+
+        writer.flush();
+
+        assertEquals(1, written.size());
+        verify(statement).setObject(1, null, Types.BIGINT);
+        assertFalse(Files.exists(dir.resolve("spill.ndjson")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_blockedProducerSpillsOnceTheWorkerHasDied() throws Exception {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any()))
+                .thenThrow(new OutOfMemoryError("worker dies"));
+        // Blocking for a minute would outlast the timeout below, so only noticing the dead worker passes.
+        AuditLogWriter writer = writer(2, AuditLogWriter.OverflowPolicy.BLOCK, 60_000);
+        writer.start();
+        writer.enqueue(event(1));
+        verify(jdbcTemplate, timeout(5_000)).batchUpdate(anyString(), any(Collection.class), anyInt(), any());
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 2; i <= 5; i++) {
+                writer.enqueue(event(i));
+            }
+        });
+        assertFalse(Files.readAllLines(dir.resolve("spill.ndjson")).isEmpty());
+        writer.stop();
+    }
+
+    @Test
+    void log_publishesOnlyAfterCommit() {
+        AuditLogWriter writer = mock(AuditLogWriter.class);
+        AuditLogService service = new AuditLogService(writer, mock(AuditLogRepository.class));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.log(new AuthSession(1L, "admin", ActorRole.ADMIN, null, false), "SELL_ANIMAL", "details");
+            verify(writer, never()).enqueue(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(writer).enqueue(any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recordBatches() {
+        when(jdbcTemplate.batchUpdate(anyString(), any(Collection.class), anyInt(), any())).thenAnswer(invocation -> {
+            synchronized (batchSizes) {
+                batchSizes.add(((Collection<?>) invocation.getArgument(1)).size());
+            }
+            return new int[0][];
+        });
+    }
+
+    private AuditLogWriter writer(int bufferSize, AuditLogWriter.OverflowPolicy overflow) {
+        return writer(bufferSize, overflow, 1000);
+    }
+
+    private AuditLogWriter writer(int bufferSize, AuditLogWriter.OverflowPolicy overflow, long blockMillis) {
+        return new AuditLogWriter(
+                jdbcTemplate,
+                JsonMapper.builder().findAndAddModules().build(),
+                bufferSize,
+                500,
+                50,
+                overflow,
+                blockMillis,
+                dir.resolve("spill.ndjson").toString()
+        );
+    }
+
+    private static AuditEvent event(int i) {
+        return new AuditEvent(1L, "admin", ActorRole.ADMIN, "TEST", "event " + i, LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+}
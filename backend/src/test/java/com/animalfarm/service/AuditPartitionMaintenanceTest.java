@@ -0,0 +1,45 @@
+package com.animalfarm.service;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class AuditPartitionMaintenanceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void maintain_dropsExpiredPartitionsAndAddsUpcomingMonths() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("audit_logs")))
+                .thenReturn(List.of("p202409", "p202410", "p202611", "pmax"));
+
+        new AuditPartitionMaintenance(jdbcTemplate, true, 24, 3).maintain(YearMonth.of(2026, 10));
+
+        verify(jdbcTemplate).execute("alter table audit_logs drop partition p202409");
+        verify(jdbcTemplate).execute("alter table audit_logs reorganize partition pmax into ("
+                + "partition p202612 values less than ('2027-01-01'), "
+                + "partition p202701 values less than ('2027-02-01'), "
+                + "partition pmax values less than (maxvalue))");
+    }
+
+    @Test
+    void maintain_leavesAnUnpartitionedTableAlone() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("audit_logs"))).thenReturn(List.of());
+
+        new AuditPartitionMaintenance(jdbcTemplate, true, 24, 1).maintain(YearMonth.of(2026, 10));
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
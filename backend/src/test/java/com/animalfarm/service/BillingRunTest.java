@@ -0,0 +1,217 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.dto.BillingRunOwnerEntry;
+import com.animalfarm.dto.InvoiceRunProgress;
+import com.animalfarm.model.BillingOwnerStatus;
+import com.animalfarm.model.BillingRunStatus;
+import com.animalfarm.model.Owner;
+import com.animalfarm.repository.BillingRunRepository;
+import com.animalfarm.repository.OwnerRepository;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Queues billing runs against the shared in-memory application and drives the worker by hand
+ * (the scheduler is parked), checking that runs can be resumed and re-run without billing anyone
+ * twice. Each test bills its own month, since other test classes leave owners and invoices behind.
+ */
+@InMemoryApplicationTest
+class BillingRunTest {
+    private static final int OWNERS = 5;
+
+    @Autowired
+    private BillingRunService billingRunService;
+
+    @Autowired
+    private MonthlyInvoicePipeline pipeline;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int owners;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < OWNERS; i++) {
+            Owner owner = new Owner();
+            owner.setFirstName("Billing" + i);
+            owner.setLastName("Test");
+            owner.setEmail("billing-" + UUID.randomUUID() + "@example.com");
+            owner.setPhoneNumber("555-02" + i);
+            owner.setAddress("Billing road " + i);
+            ownerRepository.save(owner);
+        }
+        owners = jdbcTemplate.queryForObject("select count(*) from owners", Integer.class);
+    }
+
+    @Test
+    void submit_returnsAtOnceAndTheWorkerBillsEveryOwner() {
+        YearMonth ym = YearMonth.of(2031, 1);
+
+        InvoiceRunProgress queued = billingRunService.submit(ym, "smtp-pass");
+
+        assertEquals(BillingRunStatus.QUEUED, queued.status());
+        assertTrue(queued.running());
+        assertEquals(owners, queued.totalOwners());
+        assertEquals(0, queued.processedOwners());
+        assertEquals(0, invoices(ym));
+        assertEquals(queued.runId(), billingRunService.submit(ym, null).runId());
+
+        assertTrue(pipeline.runNext());
+
+        InvoiceRunProgress done = billingRunService.get(queued.runId());
+        assertEquals(BillingRunStatus.COMPLETED, done.status());
+        assertFalse(done.running());
+        assertEquals(owners, done.processedOwners());
+        assertEquals(owners, done.invoicesCreated());
+        assertEquals(owners, done.emailsQueued());
+        assertEquals(owners, done.owners().get(BillingOwnerStatus.RENDERED));
+        assertEquals(owners, invoices(ym));
+        assertEquals(owners, jdbcTemplate.queryForObject("select count(*) from invoice_email_outbox o "
+                + "join owner_invoices i on i.id = o.invoice_id where i.period_year = 2031 and i.period_month = 1 "
+                + "and o.smtp_secret is not null and o.smtp_secret <> 'smtp-pass'", Integer.class));
+        assertEquals(queued.runId(), billingRunService.latest().runId());
+        assertFalse(pipeline.runNext());
+    }
+
+    @Test
+    void submit_returnsTheMonthsActiveRunEvenWhenAnotherMonthIsAhead() {
+        InvoiceRunProgress march = billingRunService.submit(YearMonth.of(2031, 3), null);
+        InvoiceRunProgress april = billingRunService.submit(YearMonth.of(2031, 4), null);
+
+        assertEquals(april.runId(), billingRunService.submit(YearMonth.of(2031, 4), null).runId());
+        assertEquals(1, jdbcTemplate.queryForObject("select count(*) from billing_runs "
+                + "where period_year = 2031 and period_month = 4", Integer.class));
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "insert into billing_runs (period_year, period_month, active_period, status, total_owners, "
+                        + "invoices_created, emails_queued, created_at) values (2031, 4, 203104, 'QUEUED', 0, 0, 0, ?)",
+                Timestamp.valueOf(LocalDateTime.now())));
+
+        assertTrue(pipeline.runNext());
+        assertTrue(pipeline.runNext());
+        assertEquals(BillingRunStatus.COMPLETED, billingRunService.get(march.runId()).status());
+        assertNotEquals(april.runId(), billingRunService.submit(YearMonth.of(2031, 4), null).runId());
+        assertTrue(pipeline.runNext());
+    }
+
+    @Test
+    void rerunAndResume_neverBillAnOwnerTwice() {
+        YearMonth ym = YearMonth.of(2031, 2);
+        billingRunService.submit(ym, null);
+        assertTrue(pipeline.runNext());
+
+        // A second run for the month, left half done by a node that died holding an expired lease.
+        InvoiceRunProgress second = billingRunService.submit(ym, null);
+        Long firstOwner = jdbcTemplate.queryForObject(
+                "select min(owner_id) from billing_run_owners where run_id = ?", Long.class, second.runId());
+        Long firstInvoice = jdbcTemplate.queryForObject("select id from owner_invoices "
+                + "where owner_id = ? and period_year = 2031 and period_month = 2", Long.class, firstOwner);
+        jdbcTemplate.update("update billing_run_owners set status = 'CREATED', invoice_id = ? "
+                + "where run_id = ? and owner_id = ?", firstInvoice, second.runId(), firstOwner);
+        jdbcTemplate.update("update billing_runs set status = 'RUNNING', lease_until = ?, claim_token = 'dead' "
+                + "where id = ?", Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)), second.runId());
+        assertFalse(pipeline.runNext(), "lease still held");
+
+        jdbcTemplate.update("update billing_runs set lease_until = ? where id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), second.runId());
+        assertTrue(pipeline.runNext());
+
+        InvoiceRunProgress resumed = billingRunService.get(second.runId());
+        assertEquals(BillingRunStatus.COMPLETED, resumed.status());
+        assertEquals(0, resumed.invoicesCreated());
+        assertEquals(owners - 1, resumed.owners().get(BillingOwnerStatus.RENDERED));
+        assertEquals(1, resumed.owners().get(BillingOwnerStatus.CREATED));
+        assertEquals(owners, invoices(ym));
+        List<BillingRunOwnerEntry> created = billingRunService.owners(second.runId(), BillingOwnerStatus.CREATED, 10);
+        assertEquals(1, created.size());
+        assertEquals(firstInvoice, created.get(0).invoiceId());
+    }
+
+    @Test
+    void workerThatLosesItsLease_stopsWithoutTouchingTheRun(
+            @Autowired BillingRunRepository billingRunRepository,
+            @Autowired HerdCountService herdCountService,
+            @Autowired InvoiceParameterService invoiceParameterService,
+            @Autowired InvoiceChunkWriter invoiceChunkWriter,
+            @Autowired InvoicePdfCache invoicePdfCache,
+            @Autowired TransactionTemplate transactionTemplate,
+            @Autowired @Qualifier("invoiceRenderExecutor") AsyncTaskExecutor renderers
+    ) {
+        YearMonth ym = YearMonth.of(2031, 3);
+        InvoiceRunProgress run = billingRunService.submit(ym, null);
+        // Another node claims the run while this worker is between its first and second chunk.
+        AtomicInteger chunks = new AtomicInteger();
+        OwnerRepository stalling = mock(OwnerRepository.class, AdditionalAnswers.delegatesTo(ownerRepository));
+        doAnswer(invocation -> {
+            if (chunks.incrementAndGet() == 2) {
+                jdbcTemplate.update("update billing_runs set claim_token = 'thief', lease_until = ? where id = ?",
+                        Timestamp.valueOf(LocalDateTime.now().plusMinutes(5)), run.runId());
+            }
+            return ownerRepository.findAllById(invocation.getArgument(0));
+        }).when(stalling).findAllById(any());
+        MonthlyInvoicePipeline slow = new MonthlyInvoicePipeline(billingRunRepository, stalling, herdCountService,
+                invoiceParameterService, invoiceChunkWriter, invoicePdfCache, jdbcTemplate, transactionTemplate,
+                2, 300, renderers);
+        assertTrue(slow.runNext());
+
+        InvoiceRunProgress stolen = billingRunService.get(run.runId());
+        assertEquals(BillingRunStatus.RUNNING, stolen.status());
+        assertNull(stolen.finishedAt());
+        assertEquals(2, stolen.processedOwners());
+        assertEquals(owners - 2, stolen.owners().get(BillingOwnerStatus.PENDING));
+        assertNull(stolen.owners().get(BillingOwnerStatus.FAILED));
+        assertEquals(2, invoices(ym));
+        assertEquals("thief", jdbcTemplate.queryForObject(
+                "select claim_token from billing_runs where id = ?", String.class, run.runId()));
+
+        jdbcTemplate.update("update billing_runs set lease_until = ? where id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), run.runId());
+        assertTrue(pipeline.runNext());
+        assertEquals(owners, invoices(ym));
+        assertEquals(BillingRunStatus.COMPLETED, billingRunService.get(run.runId()).status());
+    }
+
+    @Test
+    void ownerInvoices_areUniquePerOwnerAndPeriod() {
+        Long ownerId = jdbcTemplate.queryForObject("select max(id) from owners", Long.class);
+        String insert = "insert into owner_invoices (owner_id, period_year, period_month, cattle_count, goat_count, "
+                + "ram_count, pig_count, current_charge, previous_unpaid_balance, total_due, rate_version, paid, "
+                + "content_version, email_sent, created_at) values (?, 2031, 4, 0, 0, 0, 0, 0, 0, 0, 1, false, 0, false, ?)";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(insert, ownerId, now);
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(insert, ownerId, now));
+    }
+
+    private int invoices(YearMonth ym) {
+        return jdbcTemplate.queryForObject("select count(*) from owner_invoices where period_year = ? "
+                + "and period_month = ?", Integer.class, ym.getYear(), ym.getMonthValue());
+    }
+}
@@ -0,0 +1,128 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.model.Animal;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.Owner;
+import com.animalfarm.repository.AnimalRepository;
+import com.animalfarm.repository.OwnerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares the grouped herd count billing uses with the four-counts-per-owner path it replaced,
+ * against the shared in-memory application's database. Counts the JDBC statements Hibernate
+ * prepares for each and reports the wall time. Tagged {@code perf}, so it only runs with
+ * {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+@InMemoryApplicationTest
+class HerdCountBenchmarkTest {
+    private static final int OWNERS = 500;
+
+    @Autowired
+    private HerdCountService herdCountService;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void groupedCountUsesOneStatementInsteadOfFourPerOwner() {
+        List<Owner> owners = seed();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        AnimalType[] types = AnimalType.values();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        HerdCounts perOwner = transactionTemplate.execute(status -> {
+            HerdCounts counts = new HerdCounts(owners.size());
+            for (Owner owner : owners) {
+                for (AnimalType type : types) {
+                    counts.add(owner.getId(), type, countActive(owner.getId(), type));
+                }
+            }
+            return counts;
+        });
+        long perOwnerMillis = (System.nanoTime() - start) / 1_000_000;
+        long perOwnerStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        HerdCounts grouped = herdCountService.loadAllActiveCounts(owners.size());
+        long groupedMillis = (System.nanoTime() - start) / 1_000_000;
+        long groupedStatements = statistics.getPrepareStatementCount();
+
+        for (Owner owner : owners) {
+            for (AnimalType type : types) {
+                assertEquals(perOwner.get(owner.getId(), type), grouped.get(owner.getId(), type));
+            }
+        }
+        String report = String.format("grouped %d statements in %d ms vs per owner %d statements in %d ms",
+                groupedStatements, groupedMillis, perOwnerStatements, perOwnerMillis);
+        assertEquals((long) OWNERS * types.length, perOwnerStatements, report);
+        assertEquals(1, groupedStatements, report);
+        assertTrue(groupedMillis < perOwnerMillis, report);
+    }
+
+    /** The per-owner, per-type count billing issued before the grouped query, kept as the baseline. */
+    private long countActive(Long ownerId, AnimalType type) {
+        return entityManager.createQuery("select count(a) from Animal a "
+                        + "where a.owner.id = :ownerId and a.type = :type and a.sold = false", Long.class)
+                .setParameter("ownerId", ownerId)
+                .setParameter("type", type)
+                .getSingleResult();
+    }
+
+    private List<Owner> seed() {
+        List<Owner> owners = new ArrayList<>();
+        List<Animal> animals = new ArrayList<>();
+        AnimalType[] types = AnimalType.values();
+        for (int o = 0; o < OWNERS; o++) {
+            Owner owner = new Owner();
+            owner.setFirstName("Herd" + o);
+            owner.setLastName("Benchmark");
+            owner.setEmail("herd-" + UUID.randomUUID() + "@example.com");
+            owner.setPhoneNumber("555-0800");
+            owner.setAddress("Herd road " + o);
+            owners.add(owner);
+            for (int a = 0; a <= o % 5; a++) {
+                Animal animal = new Animal();
+                animal.setColor("brown");
+                animal.setDateOfBirth(LocalDate.of(2024, 1, 1 + a));
+                animal.setBreed("Herd benchmark");
+                animal.setType(types[(o + a) % types.length]);
+                animal.setOwner(owner);
+                animal.setSold(a == 4);
+                animals.add(animal);
+            }
+        }
+        List<Owner> saved = ownerRepository.saveAll(owners);
+        animalRepository.saveAll(animals);
+        return saved;
+    }
+}
@@ -0,0 +1,116 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class HerdGraphTest {
+    private static final UUID ROOT = new UUID(1, 1);
+    private static final UUID A = new UUID(1, 2);
+    private static final UUID B = new UUID(1, 3);
+    private static final UUID A1 = new UUID(1, 4);
+    private static final UUID B1 = new UUID(1, 5);
+
+    @Test
+    void build_countsDescendantsAndResolvesParentsRegardlessOfRowOrder() {
+        HerdGraph.Builder builder = new HerdGraph.Builder();
+        builder.add(5, B1, B, false);
+        builder.add(1, ROOT, null, false);
+        builder.add(2, A, ROOT, false);
+        builder.add(3, B, ROOT, true);
+        builder.add(4, A1, A, false);
+        builder.add(9, new UUID(2, 2), new UUID(7, 7), false);
+
+        HerdGraph.Snapshot graph = builder.build();
+
+        assertEquals(6, graph.size());
+        assertEquals(4, graph.descendants(1));
+        assertEquals(3, graph.activeDescendants(1));
+        assertEquals(2, graph.generations(4));
+        assertEquals(-1, graph.parent(9));
+        assertEquals(4, graph.indexOf(A1));
+        assertEquals(-1, graph.indexOf(new UUID(3, 3)));
+        assertEquals(1.0 / 32, graph.coefficientOfInbreeding(4, 5, 5));
+        assertEquals(0.25, graph.coefficientOfInbreeding(4, 2, 5));
+        assertEquals(0, graph.coefficientOfInbreeding(4, 5, 1));
+        assertEquals(0, graph.coefficientOfInbreeding(4, 9, 5));
+    }
+
+    @Test
+    void updates_publishNewSnapshotsAndLeaveOldOnesUntouched() {
+        HerdGraph.Builder builder = new HerdGraph.Builder();
+        builder.add(1, ROOT, null, false);
+        builder.add(2, A, ROOT, false);
+        HerdGraph.Snapshot before = builder.build();
+
+        HerdGraph.Snapshot born = before.withBirth(40, A1, before.indexOf(A));
+        HerdGraph.Snapshot sold = born.withSale(2);
+
+        assertEquals(1, before.descendants(1));
+        assertFalse(before.contains(40));
+        assertEquals(2, born.descendants(1));
+        assertEquals(40, born.indexOf(A1));
+        assertEquals(2, born.parent(40));
+        assertEquals(2, sold.descendants(1));
+        assertEquals(1, sold.activeDescendants(1));
+        assertTrue(sold.isSold(2));
+        assertFalse(born.isSold(2));
+    }
+
+    @Test
+    void withBirths_appliesAWholeImportInOneCopy() {
+        HerdGraph.Builder builder = new HerdGraph.Builder();
+        builder.add(1, ROOT, null, false);
+        HerdGraph.Snapshot before = builder.build();
+
+        HerdGraph.Snapshot imported = before.withBirths(List.of(
+                new AnimalRegisteredEvent(2, A, ROOT),
+                new AnimalRegisteredEvent(3, A1, A),
+                new AnimalRegisteredEvent(1, ROOT, null)));
+
+        assertEquals(1, before.size());
+        assertEquals(3, imported.size());
+        assertEquals(2, imported.descendants(1));
+        assertEquals(2, imported.parent(3));
+        assertEquals(2, imported.generations(3));
+    }
+
+    @Test
+    void singleBirths_matchABuiltGraphAndLeaveEarlierSnapshotsUntouched() {
+        int animals = 5_000;
+        Random random = new Random(7);
+        UUID[] ids = new UUID[animals + 1];
+        int[] parents = new int[animals + 1];
+        HerdGraph.Builder builder = new HerdGraph.Builder();
+        HerdGraph.Snapshot incremental = HerdGraph.Snapshot.EMPTY;
+        HerdGraph.Snapshot halfway = null;
+        for (int id = 1; id <= animals; id++) {
+            ids[id] = new UUID(random.nextLong() | 1, random.nextLong());
+            // Parents come from the last few hundred animals, so births reach back across several blocks.
+            parents[id] = id > 1 ? Math.max(1, id - 1 - random.nextInt(300)) : -1;
+            builder.add(id, ids[id], parents[id] < 0 ? null : ids[parents[id]], false);
+            incremental = incremental.withBirth(id, ids[id], parents[id]);
+            if (id == animals / 2) {
+                halfway = incremental;
+            }
+        }
+        HerdGraph.Snapshot built = builder.build();
+
+        assertEquals(animals, incremental.size());
+        for (int id = 1; id <= animals; id++) {
+            assertEquals(id, incremental.indexOf(ids[id]));
+            assertEquals(parents[id], incremental.parent(id));
+            assertEquals(built.descendants(id), incremental.descendants(id));
+            assertEquals(built.activeDescendants(id), incremental.activeDescendants(id));
+        }
+        assertEquals(animals / 2, halfway.size());
+        assertFalse(halfway.contains(animals / 2 + 1));
+        assertEquals(-1, halfway.indexOf(ids[animals]));
+        assertEquals(animals / 2 - 1, halfway.descendants(1));
+    }
+}
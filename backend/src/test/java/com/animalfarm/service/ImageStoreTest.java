@@ -0,0 +1,45 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.animalfarm.exception.ApiException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ImageStoreTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    void store_deduplicatesIdenticalContent() throws IOException {
+        ImageStore store = new ImageStore(root.toString());
+        byte[] bytes = "same image bytes".getBytes(StandardCharsets.UTF_8);
+
+        String first = store.store(new ByteArrayInputStream(bytes));
+        String second = store.store(new ByteArrayInputStream(bytes));
+        String other = store.store(new ByteArrayInputStream("other".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertArrayEquals(bytes, Files.readAllBytes(store.resolve(first)));
+        try (var files = Files.list(root.resolve(first.substring(0, 2)))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void resolve_rejectsNonHashReferences() {
+        ImageStore store = new ImageStore(root.toString());
+
+        assertThrows(ApiException.class, () -> store.resolve("../../etc/passwd"));
+    }
+}
@@ -0,0 +1,207 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.InvoiceEmailOutboxRepository;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import com.animalfarm.repository.OwnerRepository;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drives dispatchers built on the shared in-memory application, with the mail sender mocked, to
+ * check claiming, retry backoff and giving up.
+ */
+@InMemoryApplicationTest
+class InvoiceEmailDispatcherTest {
+    private static final long BACKOFF_SECONDS = 60;
+
+    @Autowired
+    private InvoiceEmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private OwnerInvoiceRepository ownerInvoiceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("invoiceRenderExecutor")
+    private AsyncTaskExecutor invoiceRenderExecutor;
+
+    private InvoiceEmailService invoiceEmailService;
+    private InvoiceEmailDispatcher dispatcher;
+    private Long invoiceId;
+    private Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        // Park emails other test classes queued, so each batch holds only this test's row.
+        jdbcTemplate.update("update invoice_email_outbox set next_attempt_at = ? where status = 'PENDING'",
+                Timestamp.valueOf(LocalDateTime.now().plusYears(10)));
+        Owner owner = new Owner();
+        owner.setFirstName("Outbox");
+        owner.setLastName("Test");
+        owner.setEmail("outbox-" + UUID.randomUUID() + "@example.com");
+        owner.setPhoneNumber("555-0300");
+        owner.setAddress("Outbox road");
+        owner = ownerRepository.save(owner);
+        ownerId = owner.getId();
+        OwnerInvoice invoice = new OwnerInvoice();
+        invoice.setOwner(owner);
+        invoice.setPeriodYear(2032);
+        invoice.setPeriodMonth(1);
+        invoice.setCurrentCharge(BigDecimal.TEN);
+        invoice.setPreviousUnpaidBalance(BigDecimal.ZERO);
+        invoice.setTotalDue(BigDecimal.TEN);
+        invoiceId = ownerInvoiceRepository.save(invoice).getId();
+        jdbcTemplate.update("insert into invoice_email_outbox (invoice_id, status, attempts, next_attempt_at, "
+                + "smtp_secret, created_at) values (?, 'PENDING', 0, ?, 'sealed', ?)",
+                invoiceId, Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), Timestamp.valueOf(LocalDateTime.now()));
+
+        invoiceEmailService = mock(InvoiceEmailService.class);
+        dispatcher = dispatcher(2);
+    }
+
+    @Test
+    void failedSend_backsOffExponentiallyThenGivesUp() {
+        when(invoiceEmailService.sendOwnerInvoices(anyList(), anyMap(), eq("sealed")))
+                .thenReturn(Map.of(invoiceId, "Failed to send invoice email: 421 try later"));
+
+        LocalDateTime before = LocalDateTime.now();
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        Map<String, Object> row = outbox();
+        assertEquals("PENDING", row.get("status"));
+        assertEquals(1, ((Number) row.get("attempts")).intValue());
+        assertEquals("sealed", row.get("smtp_secret"));
+        assertNull(row.get("claim_token"));
+        assertRetryAt(row, before, BACKOFF_SECONDS);
+        assertEquals("Failed to send invoice email: 421 try later", jdbcTemplate.queryForObject(
+                "select email_error from owner_invoices where id = ?", String.class, invoiceId));
+        assertEquals(0, dispatcher.dispatchBatch(), "not due until the backoff has passed");
+
+        makeDue();
+        before = LocalDateTime.now();
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        row = outbox();
+        assertEquals("FAILED", row.get("status"));
+        assertEquals(2, ((Number) row.get("attempts")).intValue());
+        assertNull(row.get("smtp_secret"), "sealed password dropped once the row is done");
+        assertRetryAt(row, before, BACKOFF_SECONDS * 2);
+        makeDue();
+        assertEquals(0, dispatcher.dispatchBatch());
+        verify(invoiceEmailService, times(2)).sendOwnerInvoices(anyList(), anyMap(), eq("sealed"));
+    }
+
+    @Test
+    void rowClaimedByOneDispatcher_isNotSentByAnother() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(invoiceEmailService.sendOwnerInvoices(anyList(), anyMap(), any())).thenAnswer(invocation -> {
+            sending.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return Map.of();
+        });
+        InvoiceEmailDispatcher otherNode = dispatcher(2);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(dispatcher::dispatchBatch);
+        assertTrue(sending.await(10, TimeUnit.SECONDS));
+
+        assertEquals(0, otherNode.dispatchBatch());
+        release.countDown();
+        assertEquals(1, first.get(10, TimeUnit.SECONDS));
+
+        Map<String, Object> row = outbox();
+        assertEquals("SENT", row.get("status"));
+        assertNull(row.get("smtp_secret"));
+        assertTrue(jdbcTemplate.queryForObject(
+                "select email_sent from owner_invoices where id = ?", Boolean.class, invoiceId));
+        verify(invoiceEmailService, times(1)).sendOwnerInvoices(anyList(), anyMap(), any());
+    }
+
+    @Test
+    void sentEmail_completesTheOwnerOnlyInTheRunThatQueuedIt() {
+        when(invoiceEmailService.sendOwnerInvoices(anyList(), anyMap(), any())).thenReturn(Map.of());
+        long queuing = run();
+        long earlier = run();
+        jdbcTemplate.update("update invoice_email_outbox set run_id = ? where invoice_id = ?", queuing, invoiceId);
+
+        assertEquals(1, dispatcher.dispatchBatch());
+
+        assertEquals("EMAILED", runOwnerStatus(queuing));
+        assertEquals("RENDERED", runOwnerStatus(earlier));
+    }
+
+    private long run() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("insert into billing_runs (period_year, period_month, status, total_owners, "
+                + "invoices_created, emails_queued, created_at) values (2032, 1, 'COMPLETED', 1, 1, 1, ?)",
+                Timestamp.valueOf(now));
+        long runId = jdbcTemplate.queryForObject("select max(id) from billing_runs", Long.class);
+        jdbcTemplate.update("insert into billing_run_owners (run_id, owner_id, status, invoice_id, updated_at) "
+                + "values (?, ?, 'RENDERED', ?, ?)", runId, ownerId, invoiceId, Timestamp.valueOf(now));
+        return runId;
+    }
+
+    private String runOwnerStatus(long runId) {
+        return jdbcTemplate.queryForObject("select status from billing_run_owners where run_id = ? and owner_id = ?",
+                String.class, runId, ownerId);
+    }
+
+    private InvoiceEmailDispatcher dispatcher(int maxAttempts) {
+        InvoicePdfCache pdfs = mock(InvoicePdfCache.class);
+        when(pdfs.bytes(any())).thenReturn(new byte[] {'%', 'P', 'D', 'F'});
+        return new InvoiceEmailDispatcher(outboxRepository, invoiceEmailService, pdfs, jdbcTemplate,
+                transactionTemplate, 10, maxAttempts, BACKOFF_SECONDS, 600, 1000, invoiceRenderExecutor);
+    }
+
+    private Map<String, Object> outbox() {
+        return jdbcTemplate.queryForMap("select status, attempts, next_attempt_at, smtp_secret, claim_token "
+                + "from invoice_email_outbox where invoice_id = ?", invoiceId);
+    }
+
+    private void makeDue() {
+        jdbcTemplate.update("update invoice_email_outbox set next_attempt_at = ? where invoice_id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusSeconds(1)), invoiceId);
+    }
+
+    private static void assertRetryAt(Map<String, Object> row, LocalDateTime sentFrom, long seconds) {
+        LocalDateTime retryAt = ((Timestamp) row.get("next_attempt_at")).toLocalDateTime();
+        assertFalse(retryAt.isBefore(sentFrom.plusSeconds(seconds)), "retry at " + retryAt);
+        assertTrue(retryAt.isBefore(LocalDateTime.now().plusSeconds(seconds + 1)), "retry at " + retryAt);
+    }
+}
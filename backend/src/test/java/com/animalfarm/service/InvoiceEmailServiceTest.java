@@ -0,0 +1,168 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class InvoiceEmailServiceTest {
+
+    private FakeSmtpServer smtp;
+    private InvoiceEmailService invoiceEmailService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        smtp = new FakeSmtpServer("blocked@example.com");
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(smtp.port());
+        invoiceEmailService = new InvoiceEmailService(sender, "billing@example.com", "127.0.0.1", smtp.port(), "", false, false,
+                "test-outbox-secret");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        smtp.close();
+    }
+
+    @Test
+    void sendOwnerInvoices_sendsWholeBatchOverOneConnection() {
+        List<OwnerInvoice> invoices = List.of(invoice(1L, "a@example.com"), invoice(2L, "b@example.com"), invoice(3L, "c@example.com"));
+
+        Map<Long, String> failures = invoiceEmailService.sendOwnerInvoices(invoices, pdfs(invoices), null);
+
+        assertTrue(failures.isEmpty());
+        assertEquals(1, smtp.connections.get());
+        assertEquals(3, smtp.messages.get());
+    }
+
+    @Test
+    void sendOwnerInvoices_reportsOnlyRejectedRecipients() {
+        List<OwnerInvoice> invoices = List.of(invoice(1L, "a@example.com"), invoice(2L, "blocked@example.com"), invoice(3L, "c@example.com"));
+
+        Map<Long, String> failures = invoiceEmailService.sendOwnerInvoices(invoices, pdfs(invoices), null);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(2L));
+        assertEquals(2, smtp.messages.get());
+    }
+
+    @Test
+    void sendOwnerInvoices_failsBatchWhoseSealedPasswordCannotBeOpened() {
+        List<OwnerInvoice> invoices = List.of(invoice(1L, "a@example.com"), invoice(2L, "b@example.com"));
+        String sealed = invoiceEmailService.sealPassword("s3cret");
+        String tampered = sealed.substring(0, sealed.length() - 2) + (sealed.endsWith("00") ? "11" : "00");
+
+        Map<Long, String> failures = invoiceEmailService.sendOwnerInvoices(invoices, pdfs(invoices), tampered);
+
+        assertEquals(2, failures.size());
+        assertNull(invoiceEmailService.sealPassword(" "));
+        assertEquals(0, smtp.connections.get());
+    }
+
+    private static Map<Long, byte[]> pdfs(List<OwnerInvoice> invoices) {
+        return invoices.stream().collect(Collectors.toMap(OwnerInvoice::getId, inv -> new byte[] {'%', 'P', 'D', 'F'}));
+    }
+
+    private static OwnerInvoice invoice(Long id, String email) {
+        Owner owner = new Owner();
+        ReflectionTestUtils.setField(owner, "id", id);
+        ReflectionTestUtils.setField(owner, "ownerId", UUID.randomUUID());
+        owner.setFirstName("Owner" + id);
+        owner.setEmail(email);
+        OwnerInvoice invoice = new OwnerInvoice();
+        ReflectionTestUtils.setField(invoice, "id", id);
+        invoice.setOwner(owner);
+        invoice.setPeriodYear(2026);
+        invoice.setPeriodMonth(3);
+        invoice.setTotalDue(new BigDecimal("10.00"));
+        return invoice;
+    }
+
+    private static final class FakeSmtpServer implements AutoCloseable {
+        private final ServerSocket serverSocket;
+        private final String rejectedRecipient;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+
+        FakeSmtpServer(String rejectedRecipient) throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            this.rejectedRecipient = rejectedRecipient;
+            Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try (Socket socket = serverSocket.accept()) {
+                    connections.incrementAndGet();
+                    converse(socket);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void converse(Socket socket) throws IOException {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            OutputStream out = socket.getOutputStream();
+            reply(out, "220 localhost fake smtp");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(out, "250 localhost");
+                } else if (command.startsWith("RCPT") && line.contains(rejectedRecipient)) {
+                    reply(out, "550 mailbox unavailable");
+                } else if (command.startsWith("DATA")) {
+                    reply(out, "354 end with .");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // discard message body
+                    }
+                    messages.incrementAndGet();
+                    reply(out, "250 queued");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 bye");
+                    return;
+                } else {
+                    reply(out, "250 ok");
+                }
+            }
+        }
+
+        private static void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
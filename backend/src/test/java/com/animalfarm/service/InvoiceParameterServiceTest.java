@@ -0,0 +1,132 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.dto.InvoiceParameterUpdateRequest;
+import com.animalfarm.dto.InvoiceRateScheduleEntry;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.InvoiceParameter;
+import com.animalfarm.repository.InvoiceParameterRepository;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceParameterServiceTest {
+
+    @Mock
+    private InvoiceParameterRepository invoiceParameterRepository;
+
+    private InvoiceParameterService invoiceParameterService;
+
+    @BeforeEach
+    void setUp() {
+        invoiceParameterService = new InvoiceParameterService(invoiceParameterRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rateCard_readsSchedulesOnceAndPrecomputesRates() {
+        InvoiceParameter p = schedule(1L, 0, "8.00");
+        p.setCattleMonthlyMedication(new BigDecimal("2.50"));
+        when(invoiceParameterRepository.findAllByOrderByEffectivePeriodAscIdAsc()).thenReturn(List.of(p));
+
+        RateCard first = invoiceParameterService.rateCard();
+        for (int month = 1; month <= 1_000; month++) {
+            assertSame(first, invoiceParameterService.rateCard(YearMonth.of(1990, 1).plusMonths(month)));
+        }
+
+        verify(invoiceParameterRepository, times(1)).findAllByOrderByEffectivePeriodAscIdAsc();
+        assertEquals(new BigDecimal("10.50"), first.rate(AnimalType.CATTLE));
+        assertEquals(new BigDecimal("21.00"), first.charge(2, 0, 0, 0));
+    }
+
+    @Test
+    void rateCard_resolvesTheScheduleInForceForEachMonth() {
+        when(invoiceParameterRepository.findAllByOrderByEffectivePeriodAscIdAsc()).thenReturn(List.of(
+                schedule(1L, 0, "1.00"),
+                schedule(4L, 202401, "2.00"),
+                schedule(2L, 202406, "3.00"),
+                schedule(5L, 202406, "3.50"),
+                schedule(3L, 202501, "4.00")));
+
+        assertEquals(1L, invoiceParameterService.rateCard(YearMonth.of(2023, 12)).version());
+        assertEquals(4L, invoiceParameterService.rateCard(YearMonth.of(2024, 1)).version());
+        assertEquals(4L, invoiceParameterService.rateCard(YearMonth.of(2024, 5)).version());
+        assertEquals(5L, invoiceParameterService.rateCard(YearMonth.of(2024, 6)).version());
+        assertEquals(5L, invoiceParameterService.rateCard(YearMonth.of(2024, 12)).version());
+        assertEquals(3L, invoiceParameterService.rateCard(YearMonth.of(2031, 7)).version());
+        assertEquals(YearMonth.of(2024, 6), invoiceParameterService.rateCard(YearMonth.of(2024, 8)).effectiveFrom());
+    }
+
+    @Test
+    void history_marksSchedulesReplacedForTheSameMonth() {
+        when(invoiceParameterRepository.findAllByOrderByEffectivePeriodAscIdAsc()).thenReturn(List.of(
+                schedule(1L, 0, "1.00"), schedule(2L, 202406, "3.00"), schedule(5L, 202406, "3.50")));
+
+        List<InvoiceRateScheduleEntry> history = invoiceParameterService.history(ActorRole.ADMIN);
+
+        assertEquals(List.of(false, true, false), history.stream().map(InvoiceRateScheduleEntry::superseded).toList());
+        assertEquals(null, history.get(0).effectiveFrom());
+    }
+
+    @Test
+    void update_addsAScheduleAndSwapsItInOnlyAfterCommit() {
+        InvoiceParameter original = schedule(1L, 0, "0.00");
+        InvoiceParameter[] added = new InvoiceParameter[1];
+        when(invoiceParameterRepository.findAllByOrderByEffectivePeriodAscIdAsc())
+                .thenReturn(List.of(original))
+                .thenAnswer(inv -> List.of(original, added[0]));
+        when(invoiceParameterRepository.save(any())).thenAnswer(inv -> {
+            added[0] = inv.getArgument(0);
+            ReflectionTestUtils.setField(added[0], "id", 2L);
+            return added[0];
+        });
+        RateCard before = invoiceParameterService.rateCard(YearMonth.of(2026, 3));
+
+        TransactionSynchronizationManager.initSynchronization();
+        invoiceParameterService.update(request("3.00", YearMonth.of(2026, 3)), ActorRole.ADMIN);
+
+        assertEquals(202603, added[0].getEffectivePeriod());
+        assertSame(before, invoiceParameterService.rateCard(YearMonth.of(2026, 3)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        RateCard after = invoiceParameterService.rateCard(YearMonth.of(2026, 3));
+        assertEquals(2, after.version());
+        assertEquals(new BigDecimal("6.00"), after.rate(AnimalType.PIG));
+        assertEquals(1, invoiceParameterService.rateCard(YearMonth.of(2026, 2)).version());
+    }
+
+    private static InvoiceParameter schedule(Long id, int effectivePeriod, String feeds) {
+        InvoiceParameter p = new InvoiceParameter();
+        ReflectionTestUtils.setField(p, "id", id);
+        p.setEffectivePeriod(effectivePeriod);
+        p.setCattleMonthlyFeeds(new BigDecimal(feeds));
+        return p;
+    }
+
+    private static InvoiceParameterUpdateRequest request(String amount, YearMonth effectiveFrom) {
+        BigDecimal value = new BigDecimal(amount);
+        return new InvoiceParameterUpdateRequest(value, value, value, value, value, value, value, value, effectiveFrom);
+    }
+}
@@ -0,0 +1,101 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.model.OwnerInvoice;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class InvoicePdfCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private InvoicePdfService invoicePdfService;
+
+    @BeforeEach
+    void setUp() {
+        invoicePdfService = mock(InvoicePdfService.class);
+        when(invoicePdfService.buildInvoicePdf(any())).thenAnswer(inv -> {
+            OwnerInvoice invoice = inv.getArgument(0);
+            return ("pdf-" + invoice.getId() + "-" + invoice.isPaid()).repeat(10).getBytes();
+        });
+    }
+
+    @Test
+    void get_rendersOnceAndServesFromDisk() throws Exception {
+        InvoicePdfCache cache = new InvoicePdfCache(invoicePdfService, dir.toString(), 1 << 20);
+        OwnerInvoice invoice = invoice(1L);
+
+        StoredFile first = cache.get(invoice);
+        StoredFile second = cache.get(invoice);
+
+        assertEquals(first.etag(), second.etag());
+        assertArrayEquals("pdf-1-false".repeat(10).getBytes(), Files.readAllBytes(second.path()));
+        verify(invoicePdfService, times(1)).buildInvoicePdf(invoice);
+    }
+
+    @Test
+    void markingPaid_changesKeyAndInvalidateRemovesOnlyThatInvoice() {
+        InvoicePdfCache cache = new InvoicePdfCache(invoicePdfService, dir.toString(), 1 << 20);
+        OwnerInvoice paid = invoice(1L);
+        OwnerInvoice other = invoice(2L);
+        StoredFile before = cache.get(paid);
+        StoredFile untouched = cache.get(other);
+
+        paid.setPaid(true);
+        cache.invalidate(1L);
+        StoredFile after = cache.get(paid);
+
+        assertNotEquals(before.etag(), after.etag());
+        assertFalse(Files.exists(before.path()));
+        assertTrue(Files.exists(untouched.path()));
+        assertTrue(Files.exists(after.path()));
+    }
+
+    @Test
+    void get_evictsLeastRecentlyUsedBeyondBudget() {
+        long entrySize = invoicePdfService.buildInvoicePdf(invoice(1L)).length;
+        InvoicePdfCache cache = new InvoicePdfCache(invoicePdfService, dir.toString(), entrySize * 2);
+        StoredFile one = cache.get(invoice(1L));
+        StoredFile two = cache.get(invoice(2L));
+        cache.get(invoice(1L));
+
+        StoredFile three = cache.get(invoice(3L));
+
+        assertTrue(Files.exists(one.path()));
+        assertFalse(Files.exists(two.path()));
+        assertTrue(Files.exists(three.path()));
+        assertEquals(entrySize * 2, cache.totalBytes());
+    }
+
+    @Test
+    void constructor_reindexesExistingFiles() {
+        new InvoicePdfCache(invoicePdfService, dir.toString(), 1 << 20).get(invoice(1L));
+
+        InvoicePdfCache restarted = new InvoicePdfCache(invoicePdfService, dir.toString(), 1 << 20);
+        restarted.get(invoice(1L));
+
+        assertTrue(restarted.totalBytes() > 0);
+        verify(invoicePdfService, times(1)).buildInvoicePdf(any());
+    }
+
+    private static OwnerInvoice invoice(Long id) {
+        OwnerInvoice invoice = new OwnerInvoice();
+        ReflectionTestUtils.setField(invoice, "id", id);
+        return invoice;
+    }
+}
@@ -0,0 +1,119 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.config.TaskExecutorConfig;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceZipServiceTest {
+
+    @Mock
+    private OwnerInvoiceRepository ownerInvoiceRepository;
+
+    @Mock
+    private InvoicePdfCache invoicePdfCache;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final ThreadPoolTaskExecutor renderers = new TaskExecutorConfig().invoiceRenderExecutor(3);
+
+    @BeforeEach
+    void setUp() {
+        renderers.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        renderers.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stream_writesEntriesInQueryOrderAcrossPages() throws Exception {
+        Owner owner = new Owner();
+        ReflectionTestUtils.setField(owner, "ownerId", UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        List<OwnerInvoice> invoices = new ArrayList<>();
+        for (long id = 5; id >= 1; id--) {
+            OwnerInvoice invoice = new OwnerInvoice();
+            ReflectionTestUtils.setField(invoice, "id", id);
+            invoice.setOwner(owner);
+            invoice.setPeriodYear(2026);
+            invoice.setPeriodMonth(9);
+            invoices.add(invoice);
+        }
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+                ((TransactionCallback<?>) inv.getArgument(0)).doInTransaction(null));
+        when(ownerInvoiceRepository.findBy(any(Specification.class), any()))
+                .thenReturn(invoices.subList(0, 2), invoices.subList(2, 4), invoices.subList(4, 5));
+        // The first invoice finishes only after the next two, so entries only come out in order if the
+        // writer waits for them.
+        CountDownLatch laterRendered = new CountDownLatch(2);
+        when(invoicePdfCache.bytes(any())).thenAnswer(inv -> {
+            OwnerInvoice invoice = inv.getArgument(0);
+            if (invoice.getId() == 5) {
+                assertTrue(laterRendered.await(10, TimeUnit.SECONDS));
+            } else if (invoice.getId() >= 3) {
+                laterRendered.countDown();
+            }
+            return ("pdf-" + invoice.getId()).getBytes(StandardCharsets.UTF_8);
+        });
+        InvoiceZipService service = new InvoiceZipService(
+                ownerInvoiceRepository, invoicePdfCache, transactionTemplate, renderers, 3, 2);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.stream(ActorRole.ADMIN, null, null, null, null).writeTo(out);
+
+        List<String> contents = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                contents.add(entry.getName() + "=" + new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(5, contents.size());
+        for (int i = 0; i < 5; i++) {
+            long id = 5 - i;
+            assertEquals("invoice-" + id + "-owner-00000000-0000-0000-0000-000000000001-2026-09.pdf=pdf-" + id,
+                    contents.get(i));
+        }
+    }
+
+    @Test
+    void stream_requiresAdminForAllOwners() {
+        InvoiceZipService service = new InvoiceZipService(
+                ownerInvoiceRepository, invoicePdfCache, transactionTemplate, renderers, 1, 10);
+
+        assertThrows(ApiException.class, () -> service.stream(ActorRole.OWNER, null, null, null, null));
+    }
+}
@@ -0,0 +1,68 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * The legacy {@code animals.image} column is no longer mapped, so this builds the pre-migration
+ * table shape by hand in an in-memory H2 database.
+ */
+class LegacyImageMigrationTest {
+    @TempDir
+    Path root;
+
+    private JdbcTemplate jdbcTemplate;
+    private ImageStore imageStore;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:legacy-images;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("create table animals (id bigint primary key, image clob, "
+                + "image_hash varchar(64), image_content_type varchar(100))");
+        imageStore = new ImageStore(root.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    @Test
+    void run_movesDataUrlsAndLeavesEverythingElseInPlace() throws Exception {
+        byte[] png = "png bytes".getBytes(StandardCharsets.UTF_8);
+        jdbcTemplate.update("insert into animals (id, image) values (1, ?)",
+                "data:image/png;base64," + Base64.getEncoder().encodeToString(png));
+        jdbcTemplate.update("insert into animals (id, image) values (2, 'https://example.com/cow.jpg')");
+        jdbcTemplate.update("insert into animals (id, image) values (3, 'data:image/png;base64,@@not base64@@')");
+
+        new LegacyImageMigration(jdbcTemplate, imageStore).run();
+
+        Map<String, Object> moved = row(1);
+        assertNull(moved.get("image"));
+        assertEquals("image/png", moved.get("image_content_type"));
+        assertArrayEquals(png, Files.readAllBytes(imageStore.resolve((String) moved.get("image_hash"))));
+        assertEquals("https://example.com/cow.jpg", row(2).get("image"));
+        assertNull(row(2).get("image_hash"));
+        assertEquals("data:image/png;base64,@@not base64@@", row(3).get("image"));
+        assertNull(row(3).get("image_hash"));
+    }
+
+    private Map<String, Object> row(long id) {
+        return jdbcTemplate.queryForMap("select cast(image as varchar) as image, image_hash, image_content_type "
+                + "from animals where id = ?", id);
+    }
+}
@@ -0,0 +1,133 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.animalfarm.dto.InbreedingCheck;
+import com.animalfarm.dto.LineageNode;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Animal;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the lineage SQL against an in-memory H2 database in MySQL mode. The pedigree is
+ * root -> a -> a1 -> a1x and root -> b -> b1, plus an unrelated animal.
+ */
+class LineageServiceTest {
+    private JdbcTemplate jdbcTemplate;
+    private LineageService lineageService;
+    private long nextId;
+    private UUID root;
+    private UUID a;
+    private UUID a1;
+    private UUID a1x;
+    private UUID b1;
+    private UUID stranger;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:lineage;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table animals (id bigint primary key, animal_id char(36) not null, "
+                + "parent_id char(36), type varchar(20) not null, breed varchar(255) not null, "
+                + "color varchar(255) not null, date_of_birth date not null, sold boolean not null)");
+        jdbcTemplate.execute("create table animal_lineage (ancestor_id bigint not null, "
+                + "descendant_id bigint not null, depth int not null, primary key (ancestor_id, descendant_id))");
+        lineageService = new LineageService(jdbcTemplate);
+
+        root = register(null);
+        a = register(root);
+        UUID b = register(root);
+        a1 = register(a);
+        a1x = register(a1);
+        b1 = register(b);
+        stranger = register(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("drop all objects");
+    }
+
+    @Test
+    void descendants_returnsWholeSubtreeByDepth() {
+        List<LineageNode> nodes = lineageService.descendants(root, null, ActorRole.ADMIN);
+
+        assertEquals(6, nodes.size());
+        assertEquals(root, nodes.get(0).animalId());
+        assertEquals(List.of(0, 1, 1, 2, 2, 3), nodes.stream().map(LineageNode::depth).toList());
+        assertEquals(a1, nodes.get(5).parentId());
+        assertEquals(3, lineageService.descendants(root, 1, ActorRole.ADMIN).size());
+    }
+
+    @Test
+    void ancestors_stopsAtRequestedGenerations() {
+        List<LineageNode> chain = lineageService.ancestors(a1x, 2, ActorRole.ADMIN);
+
+        assertEquals(List.of(a1x, a1, a), chain.stream().map(LineageNode::animalId).toList());
+        assertThrows(ApiException.class, () -> lineageService.ancestors(UUID.randomUUID(), 2, ActorRole.ADMIN));
+    }
+
+    @Test
+    void checkPairing_findsNearestCommonAncestor() {
+        InbreedingCheck cousins = lineageService.checkPairing(a1, b1, 5, ActorRole.ADMIN);
+        InbreedingCheck parentChild = lineageService.checkPairing(a1x, a1, 5, ActorRole.ADMIN);
+        InbreedingCheck tooFar = lineageService.checkPairing(a1x, b1, 2, ActorRole.ADMIN);
+        InbreedingCheck unrelated = lineageService.checkPairing(a1, stranger, 5, ActorRole.ADMIN);
+
+        assertTrue(cousins.related());
+        assertEquals(root, cousins.commonAncestorId());
+        assertEquals(1.0 / 32, cousins.coefficient());
+        assertEquals(a1, parentChild.commonAncestorId());
+        assertEquals(0.25, parentChild.coefficient());
+        assertFalse(tooFar.related());
+        assertFalse(unrelated.related());
+    }
+
+    @Test
+    void rebuild_matchesIncrementalRows() {
+        List<String> incremental = lineageRows();
+        LineageIndexBuilder builder = new LineageIndexBuilder(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource())));
+
+        builder.rebuild();
+
+        assertEquals(incremental, lineageRows());
+    }
+
+    @Test
+    void queries_requireAdmin() {
+        assertThrows(ApiException.class, () -> lineageService.descendants(root, null, ActorRole.OWNER));
+    }
+
+    private UUID register(UUID parentId) {
+        long id = ++nextId;
+        UUID animalId = UUID.randomUUID();
+        jdbcTemplate.update("insert into animals values (?, ?, ?, 'GOAT', 'Boer', 'white', date '2024-01-01', false)",
+                id, animalId.toString(), parentId != null ? parentId.toString() : null);
+        Animal animal = new Animal();
+        ReflectionTestUtils.setField(animal, "id", id);
+        animal.setAnimalId(animalId);
+        animal.setParentId(parentId);
+        lineageService.recordBirth(animal);
+        return animalId;
+    }
+
+    private List<String> lineageRows() {
+        return jdbcTemplate.queryForList("select concat(ancestor_id, '-', descendant_id, '-', depth) from animal_lineage "
+                + "order by ancestor_id, descendant_id", String.class);
+    }
+}
@@ -0,0 +1,172 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.dto.InvoiceRunProgress;
+import com.animalfarm.model.BillingOwnerStatus;
+import com.animalfarm.model.BillingRunStatus;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.BillingRunRepository;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import com.animalfarm.repository.OwnerRepository;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the billing worker with different chunk sizes against the shared in-memory application,
+ * recording the owner chunks it loads, and bills owners who already have an invoice for the month.
+ */
+@InMemoryApplicationTest
+class MonthlyInvoicePipelineTest {
+    @Autowired
+    private BillingRunService billingRunService;
+
+    @Autowired
+    private BillingRunRepository billingRunRepository;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private OwnerInvoiceRepository ownerInvoiceRepository;
+
+    @Autowired
+    private HerdCountService herdCountService;
+
+    @Autowired
+    private InvoiceParameterService invoiceParameterService;
+
+    @Autowired
+    private InvoiceChunkWriter invoiceChunkWriter;
+
+    @Autowired
+    private InvoicePdfCache invoicePdfCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("invoiceRenderExecutor")
+    private AsyncTaskExecutor invoiceRenderExecutor;
+
+    private final List<Integer> chunkSizes = new ArrayList<>();
+    private int owners;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            Owner owner = new Owner();
+            owner.setFirstName("Pipeline" + i);
+            owner.setLastName("Test");
+            owner.setEmail("pipeline-" + UUID.randomUUID() + "@example.com");
+            owner.setPhoneNumber("555-04" + i);
+            owner.setAddress("Pipeline road " + i);
+            ownerRepository.save(owner);
+        }
+        owners = jdbcTemplate.queryForObject("select count(*) from owners", Integer.class);
+    }
+
+    @Test
+    void run_takesOwnersInChunksUpToTheLastPartialOne() {
+        int chunkSize = owners - 1;
+        InvoiceRunProgress run = runWithChunkSize(YearMonth.of(2033, 1), chunkSize);
+
+        assertEquals(List.of(chunkSize, 1), chunkSizes);
+        assertEquals(BillingRunStatus.COMPLETED, run.status());
+        assertEquals(owners, run.invoicesCreated());
+        assertEquals(owners, invoices(YearMonth.of(2033, 1)));
+    }
+
+    @Test
+    void run_withChunkSizeDividingTheOwnersLeavesNoEmptyChunk() {
+        InvoiceRunProgress run = runWithChunkSize(YearMonth.of(2033, 2), owners);
+
+        assertEquals(List.of(owners), chunkSizes);
+        assertEquals(owners, run.owners().get(BillingOwnerStatus.RENDERED));
+
+        chunkSizes.clear();
+        run = runWithChunkSize(YearMonth.of(2033, 3), 1);
+
+        assertEquals(owners, chunkSizes.size());
+        assertEquals(owners, run.processedOwners());
+        assertEquals(owners, invoices(YearMonth.of(2033, 3)));
+    }
+
+    @Test
+    void run_reusesInvoicesOwnersAlreadyHaveForTheMonth() {
+        YearMonth ym = YearMonth.of(2033, 4);
+        List<Owner> all = ownerRepository.findAll();
+        Long unsent = invoice(all.get(0), ym, false);
+        Long emailed = invoice(all.get(1), ym, true);
+
+        InvoiceRunProgress run = runWithChunkSize(ym, 2);
+
+        assertEquals(BillingRunStatus.COMPLETED, run.status());
+        assertEquals(owners - 2, run.invoicesCreated());
+        assertEquals(owners - 1, run.emailsQueued());
+        assertEquals(owners, invoices(ym));
+        assertEquals(1, run.owners().get(BillingOwnerStatus.EMAILED));
+        assertEquals(owners - 1, run.owners().get(BillingOwnerStatus.RENDERED));
+        assertEquals("RENDERED", runOwnerStatus(run.runId(), unsent));
+        assertEquals("EMAILED", runOwnerStatus(run.runId(), emailed));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "select count(*) from invoice_email_outbox where invoice_id = ?", Integer.class, emailed));
+    }
+
+    private InvoiceRunProgress runWithChunkSize(YearMonth ym, int chunkSize) {
+        InvoiceRunProgress queued = billingRunService.submit(ym, null);
+        OwnerRepository recording = mock(OwnerRepository.class, AdditionalAnswers.delegatesTo(ownerRepository));
+        doAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            chunkSizes.add(ids.size());
+            return ownerRepository.findAllById(ids);
+        }).when(recording).findAllById(any());
+        MonthlyInvoicePipeline pipeline = new MonthlyInvoicePipeline(billingRunRepository, recording,
+                herdCountService, invoiceParameterService, invoiceChunkWriter, invoicePdfCache, jdbcTemplate,
+                transactionTemplate, chunkSize, 300, invoiceRenderExecutor);
+        pipeline.runNext();
+        return billingRunService.get(queued.runId());
+    }
+
+    private Long invoice(Owner owner, YearMonth ym, boolean emailSent) {
+        OwnerInvoice invoice = new OwnerInvoice();
+        invoice.setOwner(owner);
+        invoice.setPeriodYear(ym.getYear());
+        invoice.setPeriodMonth(ym.getMonthValue());
+        invoice.setCurrentCharge(BigDecimal.ONE);
+        invoice.setPreviousUnpaidBalance(BigDecimal.ZERO);
+        invoice.setTotalDue(BigDecimal.ONE);
+        invoice.setEmailSent(emailSent);
+        return ownerInvoiceRepository.save(invoice).getId();
+    }
+
+    private String runOwnerStatus(Long runId, Long invoiceId) {
+        return jdbcTemplate.queryForObject("select status from billing_run_owners where run_id = ? and invoice_id = ?",
+                String.class, runId, invoiceId);
+    }
+
+    private int invoices(YearMonth ym) {
+        return jdbcTemplate.queryForObject("select count(*) from owner_invoices where period_year = ? "
+                + "and period_month = ?", Integer.class, ym.getYear(), ym.getMonthValue());
+    }
+}
@@ -0,0 +1,146 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.dto.MonthlyInvoiceResponse;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.InvoiceParameter;
+import com.animalfarm.model.Owner;
+import com.animalfarm.repository.AnimalRepository;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import com.animalfarm.repository.OwnerTypeCount;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class MonthlyInvoiceServiceTest {
+
+    @Mock
+    private AnimalRepository animalRepository;
+
+    @Mock
+    private OwnerService ownerService;
+
+    @Mock
+    private InvoiceParameterService invoiceParameterService;
+
+    @Mock
+    private OwnerInvoiceRepository ownerInvoiceRepository;
+
+    @Mock
+    private InvoicePdfCache invoicePdfCache;
+
+    @Mock
+    private BillingRunService billingRunService;
+
+    @Mock
+    private InvoiceZipService invoiceZipService;
+
+    @Mock
+    private OwnerBalanceLedger balanceLedger;
+
+    private MonthlyInvoiceService monthlyInvoiceService;
+
+    @BeforeEach
+    void setUp() {
+        monthlyInvoiceService = new MonthlyInvoiceService(
+                new HerdCountService(animalRepository),
+                ownerService,
+                invoiceParameterService,
+                ownerInvoiceRepository,
+                invoicePdfCache,
+                billingRunService,
+                invoiceZipService,
+                balanceLedger
+        );
+    }
+
+    @Test
+    void generateForAllOwners_usesSingleGroupedCountQuery() {
+        int ownerCount = 2_000;
+        List<Owner> owners = new ArrayList<>();
+        List<OwnerTypeCount> rows = new ArrayList<>();
+        for (long id = 1; id <= ownerCount; id++) {
+            owners.add(owner(id));
+            rows.add(row(id, AnimalType.CATTLE, id % 7));
+            rows.add(row(id, AnimalType.PIG, 2));
+        }
+        when(ownerService.listOwners()).thenReturn(owners);
+        when(invoiceParameterService.rateCard()).thenReturn(RateCard.of(parameters()));
+        when(animalRepository.streamActiveCountsByOwnerAndType()).thenReturn(rows.stream());
+
+        List<MonthlyInvoiceResponse> result = monthlyInvoiceService.generateForAllOwners(ActorRole.ADMIN);
+
+        verify(animalRepository, times(1)).streamActiveCountsByOwnerAndType();
+        assertEquals(ownerCount, result.size());
+        MonthlyInvoiceResponse sixth = result.get(5);
+        assertEquals(6, sixth.cattleCount());
+        assertEquals(0, sixth.goatCount());
+        assertEquals(2, sixth.pigCount());
+        assertEquals(new BigDecimal("80.00"), sixth.totalAmount());
+    }
+
+    @Test
+    void generateForOwner_missingOwnerInCountsBillsZero() {
+        Owner owner = owner(9L);
+        when(ownerService.getOwner(owner.getOwnerId())).thenReturn(owner);
+        when(invoiceParameterService.rateCard()).thenReturn(RateCard.of(parameters()));
+        when(animalRepository.findActiveCountsByOwner(9L)).thenReturn(List.of());
+
+        MonthlyInvoiceResponse result = monthlyInvoiceService.generateForOwner(owner.getOwnerId(), ActorRole.ADMIN, null);
+
+        assertEquals(0, result.cattleCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(result.totalAmount()));
+    }
+
+    private static InvoiceParameter parameters() {
+        InvoiceParameter p = new InvoiceParameter();
+        ReflectionTestUtils.setField(p, "id", 1L);
+        p.setCattleMonthlyFeeds(new BigDecimal("8.00"));
+        p.setCattleMonthlyMedication(new BigDecimal("2.00"));
+        p.setPigMonthlyFeeds(new BigDecimal("7.00"));
+        p.setPigMonthlyMedication(new BigDecimal("3.00"));
+        return p;
+    }
+
+    private static Owner owner(Long id) {
+        Owner owner = new Owner();
+        ReflectionTestUtils.setField(owner, "id", id);
+        ReflectionTestUtils.setField(owner, "ownerId", UUID.randomUUID());
+        owner.setFirstName("Owner" + id);
+        owner.setLastName("Last");
+        owner.setEmail("owner" + id + "@example.com");
+        return owner;
+    }
+
+    private static OwnerTypeCount row(Long ownerId, AnimalType type, long total) {
+        return new OwnerTypeCount() {
+            @Override
+            public Long getOwnerId() {
+                return ownerId;
+            }
+
+            @Override
+            public AnimalType getType() {
+                return type;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
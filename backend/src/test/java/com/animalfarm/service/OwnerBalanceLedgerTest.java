@@ -0,0 +1,189 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import com.animalfarm.repository.OwnerRepository;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the ledger against the shared in-memory application's schema and checks it always agrees
+ * with a scan of the owner's unpaid invoices. Every test bills owners of its own.
+ */
+@InMemoryApplicationTest
+class OwnerBalanceLedgerTest {
+    @Autowired
+    private OwnerBalanceLedger ledger;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private OwnerInvoiceRepository ownerInvoiceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Owner owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = owner();
+    }
+
+    @Test
+    void recordCreated_carriesTheLatestUnpaidTotalIntoTheNextMonth() {
+        create(2025, 1, "10.00");
+        assertEquals(new BigDecimal("10.00"), carriedInto(YearMonth.of(2025, 2)));
+
+        OwnerInvoice february = create(2025, 2, "25.00");
+        assertEquals(new BigDecimal("25.00"), carriedInto(YearMonth.of(2025, 3)));
+
+        // Billing January again late must not see February's balance.
+        assertEquals(BigDecimal.ZERO, carriedInto(YearMonth.of(2025, 1)));
+        assertEquals(new BigDecimal("10.00"), carriedInto(YearMonth.of(2025, 2)));
+
+        create(2024, 12, "3.00");
+        assertEquals(february.getId(), ledger.entries(List.of(owner.getId())).get(owner.getId()).lastInvoiceId());
+    }
+
+    @Test
+    void recordPaid_movesBackToTheNextOlderUnpaidInvoiceOrRemovesTheRow() {
+        OwnerInvoice january = create(2025, 1, "10.00");
+        OwnerInvoice february = create(2025, 2, "25.00");
+        OwnerInvoice march = create(2025, 3, "40.00");
+
+        pay(january);
+        assertEquals(new BigDecimal("40.00"), carriedInto(YearMonth.of(2025, 4)));
+
+        pay(march);
+        assertEquals(new BigDecimal("25.00"), carriedInto(YearMonth.of(2025, 4)));
+
+        pay(february);
+        assertFalse(ledger.entries(List.of(owner.getId())).containsKey(owner.getId()));
+        assertEquals(BigDecimal.ZERO, carriedInto(YearMonth.of(2025, 4)));
+    }
+
+    @Test
+    void recordPaid_makesConcurrentPaymentsForOneOwnerTakeTurns() throws Exception {
+        create(2025, 1, "10.00");
+        OwnerInvoice february = create(2025, 2, "25.00");
+        OwnerInvoice march = create(2025, 3, "40.00");
+        CountDownLatch marchRecorded = new CountDownLatch(1);
+        CountDownLatch commitMarch = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> payingMarch = pool.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                pay(march);
+                marchRecorded.countDown();
+                await(commitMarch);
+            }));
+            await(marchRecorded);
+
+            Thread payingFebruary = new Thread(() -> transactionTemplate.executeWithoutResult(status -> pay(february)));
+            payingFebruary.start();
+            payingFebruary.join(200);
+            assertTrue(payingFebruary.isAlive(), "February's payment should wait for March's to commit");
+
+            commitMarch.countDown();
+            payingMarch.get(10, TimeUnit.SECONDS);
+            payingFebruary.join(10_000);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(new BigDecimal("10.00"), carriedInto(YearMonth.of(2025, 4)));
+    }
+
+    @Test
+    void rebuild_pointsEveryOwnerAtTheLatestUnpaidInvoice() {
+        Owner settled = owner();
+        Owner other = owner();
+        insert(owner, 2024, 11, "5.00", false);
+        insert(owner, 2025, 1, "9.00", false);
+        insert(owner, 2025, 2, "12.00", true);
+        OwnerInvoice paid = insert(settled, 2024, 12, "1.00", true);
+        insert(other, 2024, 12, "2.00", false);
+        jdbcTemplate.update("insert into owner_balances (owner_id, balance, last_period, last_invoice_id) "
+                + "values (?, 99.00, 202412, ?)", settled.getId(), paid.getId());
+        long owing = jdbcTemplate.queryForObject(
+                "select count(distinct owner_id) from owner_invoices where paid = false", Long.class);
+
+        assertEquals(owing, ledger.rebuild());
+
+        Map<Long, OwnerBalanceLedger.Entry> entries =
+                ledger.entries(List.of(owner.getId(), settled.getId(), other.getId()));
+        assertEquals(new BigDecimal("9.00"), entries.get(owner.getId()).balance());
+        assertEquals(202501, entries.get(owner.getId()).lastPeriod());
+        assertFalse(entries.containsKey(settled.getId()));
+        assertEquals(new BigDecimal("2.00"), entries.get(other.getId()).balance());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private BigDecimal carriedInto(YearMonth ym) {
+        return ledger.carriedInto(owner.getId(), ledger.entries(List.of(owner.getId())).get(owner.getId()), ym);
+    }
+
+    private OwnerInvoice create(int year, int month, String totalDue) {
+        OwnerInvoice invoice = insert(owner, year, month, totalDue, false);
+        ledger.recordCreated(List.of(invoice));
+        return invoice;
+    }
+
+    private void pay(OwnerInvoice invoice) {
+        jdbcTemplate.update("update owner_invoices set paid = true where id = ?", invoice.getId());
+        ledger.recordPaid(invoice);
+    }
+
+    private OwnerInvoice insert(Owner invoiceOwner, int year, int month, String totalDue, boolean paid) {
+        OwnerInvoice invoice = new OwnerInvoice();
+        invoice.setOwner(invoiceOwner);
+        invoice.setPeriodYear(year);
+        invoice.setPeriodMonth(month);
+        invoice.setCurrentCharge(new BigDecimal(totalDue));
+        invoice.setPreviousUnpaidBalance(BigDecimal.ZERO);
+        invoice.setTotalDue(new BigDecimal(totalDue));
+        invoice.setPaid(paid);
+        return ownerInvoiceRepository.save(invoice);
+    }
+
+    private Owner owner() {
+        Owner created = new Owner();
+        created.setFirstName("Ledger");
+        created.setLastName("Test");
+        created.setEmail("ledger-" + UUID.randomUUID() + "@example.com");
+        created.setPhoneNumber("555-0600");
+        created.setAddress("Ledger road");
+        return ownerRepository.save(created);
+    }
+}
@@ -0,0 +1,176 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.animalfarm.InMemoryApplicationTest;
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.dto.PaymentLineResult;
+import com.animalfarm.dto.PaymentLineStatus;
+import com.animalfarm.dto.PaymentReconciliationResult;
+import com.animalfarm.dto.UploadFormat;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.animalfarm.repository.OwnerInvoiceRepository;
+import com.animalfarm.repository.OwnerRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs reconciliation against the shared in-memory application's schema with a chunk size of 2,
+ * so the paid flags are written by more than one update. Every test pays invoices of owners of its
+ * own; the PDF cache and audit log are mocks so their calls can be checked.
+ */
+@InMemoryApplicationTest
+class PaymentReconciliationServiceTest {
+    private static final AuthSession ADMIN = new AuthSession(1L, "admin", ActorRole.ADMIN, null, false);
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private OwnerInvoiceRepository ownerInvoiceRepository;
+
+    @Autowired
+    private OwnerBalanceLedger balanceLedger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private InvoicePdfCache invoicePdfCache;
+    private AuditLogService auditLogService;
+    private PaymentReconciliationService reconciliationService;
+    private Owner owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = owner();
+        invoicePdfCache = mock(InvoicePdfCache.class);
+        auditLogService = mock(AuditLogService.class);
+        reconciliationService = new PaymentReconciliationService(ownerRepository, jdbcTemplate,
+                balanceLedger, invoicePdfCache, auditLogService, new ObjectMapper(), 2, 100);
+    }
+
+    @Test
+    void reconcile_csvMarksMatchedInvoicesPaidAndReportsEveryLine() {
+        long january = invoice(owner, 2026, 1, "10.00", false);
+        long february = invoice(owner, 2026, 2, "25.00", false);
+        long march = invoice(owner, 2026, 3, "40.00", false);
+        long paidEarlier = invoice(owner, 2025, 12, "5.00", true);
+        long other = invoice(owner(), 2026, 3, "12.00", false);
+        jdbcTemplate.update("insert into owner_balances (owner_id, balance, last_period, last_invoice_id) "
+                + "values (?, 40.00, 202603, ?)", owner.getId(), march);
+        String csv = "invoiceId,ownerId,year,month,amount\n"
+                + march + ",,,,40.00\n"
+                + "," + owner.getOwnerId() + ",2026,1,\n"
+                + march + ",,,,\n"
+                + paidEarlier + ",,,,\n"
+                + other + ",,,,99.00\n"
+                + Long.MAX_VALUE + ",,,,\n"
+                + "," + owner.getOwnerId() + ",2026,13,\n"
+                + "abc,,,,\n";
+
+        PaymentReconciliationResult result = transactionTemplate.execute(status -> {
+            PaymentReconciliationResult reconciled = reconcile(csv, UploadFormat.CSV, ADMIN);
+            verify(invoicePdfCache, never()).invalidate(march);
+            return reconciled;
+        });
+
+        assertEquals(8, result.lines());
+        assertEquals(2, result.paid());
+        assertEquals(1, result.alreadyPaid());
+        assertEquals(5, result.rejected());
+        assertEquals(List.of(PaymentLineStatus.PAID, PaymentLineStatus.PAID, PaymentLineStatus.DUPLICATE,
+                        PaymentLineStatus.ALREADY_PAID, PaymentLineStatus.AMOUNT_MISMATCH, PaymentLineStatus.NOT_FOUND,
+                        PaymentLineStatus.INVALID, PaymentLineStatus.INVALID),
+                result.results().stream().map(PaymentLineResult::status).toList());
+        assertEquals(List.of(2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L),
+                result.results().stream().map(PaymentLineResult::line).toList());
+        assertEquals(january, result.results().get(1).invoiceId());
+
+        assertEquals(List.of(february, other), jdbcTemplate.queryForList(
+                "select id from owner_invoices where paid = false and id in (?, ?, ?, ?) order by id",
+                Long.class, january, february, march, other));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "select content_version from owner_invoices where id = ?", Integer.class, march));
+        assertEquals(new BigDecimal("25.00"), jdbcTemplate.queryForObject(
+                "select balance from owner_balances where owner_id = ?", BigDecimal.class, owner.getId()));
+        verify(auditLogService).log(eq(ADMIN), eq("RECONCILE_PAYMENTS"), anyString());
+        verify(invoicePdfCache).invalidate(march);
+        verify(invoicePdfCache).invalidate(january);
+    }
+
+    @Test
+    void reconcile_ndjsonPayingTheLastUnpaidInvoiceClearsTheBalance() {
+        long only = invoice(owner, 2026, 4, "30.00", false);
+        jdbcTemplate.update("insert into owner_balances (owner_id, balance, last_period, last_invoice_id) "
+                + "values (?, 30.00, 202604, ?)", owner.getId(), only);
+        String ndjson = "{\"ownerId\":\"" + owner.getOwnerId() + "\",\"year\":2026,\"month\":4,\"amount\":30}\n";
+
+        PaymentReconciliationResult result =
+                transactionTemplate.execute(status -> reconcile(ndjson, UploadFormat.NDJSON, ADMIN));
+
+        assertEquals(1, result.paid());
+        assertFalse(balanceLedger.entries(List.of(owner.getId())).containsKey(owner.getId()));
+    }
+
+    @Test
+    void reconcile_rejectsNonAdmin() {
+        AuthSession ownerSession = new AuthSession(2L, "owner", ActorRole.OWNER, owner.getOwnerId(), false);
+
+        assertThrows(ApiException.class, () -> reconcile("{\"invoiceId\":1}", UploadFormat.NDJSON, ownerSession));
+    }
+
+    private PaymentReconciliationResult reconcile(String text, UploadFormat format, AuthSession actor) {
+        try {
+            return reconciliationService.reconcile(
+                    new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), format, actor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long invoice(Owner invoiceOwner, int year, int month, String totalDue, boolean paid) {
+        OwnerInvoice invoice = new OwnerInvoice();
+        invoice.setOwner(invoiceOwner);
+        invoice.setPeriodYear(year);
+        invoice.setPeriodMonth(month);
+        invoice.setCurrentCharge(new BigDecimal(totalDue));
+        invoice.setPreviousUnpaidBalance(BigDecimal.ZERO);
+        invoice.setTotalDue(new BigDecimal(totalDue));
+        invoice.setPaid(paid);
+        return ownerInvoiceRepository.save(invoice).getId();
+    }
+
+    private Owner owner() {
+        Owner created = new Owner();
+        created.setFirstName("Payments");
+        created.setLastName("Test");
+        created.setEmail("payments-" + UUID.randomUUID() + "@example.com");
+        created.setPhoneNumber("555-0700");
+        created.setAddress("Payments road");
+        return ownerRepository.save(created);
+    }
+}
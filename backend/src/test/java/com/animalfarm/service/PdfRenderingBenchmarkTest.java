@@ -0,0 +1,111 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.OwnerInvoice;
+import com.lowagie.text.Document;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfWriter;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Compares the template renderer with the paragraph-by-paragraph OpenPDF path it replaced,
+ * measuring documents per second and bytes allocated per document on the calling thread. Tagged
+ * {@code perf}, so it only runs with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+class PdfRenderingBenchmarkTest {
+    private static final int WARMUP = 2_000;
+    private static final int DOCUMENTS = 5_000;
+
+    @Test
+    void templateRendererAllocatesLessThanParagraphRenderer() {
+        OwnerInvoice invoice = invoice();
+        InvoicePdfService templated = new InvoicePdfService();
+
+        Result paragraphs = measure(i -> paragraphPdf(invoice).length);
+        Result template = measure(i -> templated.buildInvoicePdf(invoice).length);
+
+        assertTrue(template.bytesPerDoc() * 4 < paragraphs.bytesPerDoc(), String.format(
+                "template %.0f docs/s, %d B/doc vs paragraphs %.0f docs/s, %d B/doc", template.docsPerSecond(),
+                template.bytesPerDoc(), paragraphs.docsPerSecond(), paragraphs.bytesPerDoc()));
+    }
+
+    private static Result measure(ToIntFunction<Integer> render) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += render.applyAsInt(i);
+        }
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            sink += render.applyAsInt(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        assertTrue(sink > 0);
+        return new Result(DOCUMENTS * 1e9 / elapsed, allocated / DOCUMENTS);
+    }
+
+    /** The rendering path used before templates, kept as the benchmark baseline. */
+    private static byte[] paragraphPdf(OwnerInvoice invoice) {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            Document document = new Document();
+            PdfWriter.getInstance(document, out);
+            document.open();
+            document.add(new Paragraph("Owner Monthly Invoice"));
+            document.add(new Paragraph("Invoice ID: " + invoice.getId()));
+            document.add(new Paragraph("Owner ID: " + invoice.getOwner().getOwnerId()));
+            document.add(new Paragraph("First Name: " + invoice.getOwner().getFirstName()));
+            document.add(new Paragraph("Email: " + invoice.getOwner().getEmail()));
+            document.add(new Paragraph("Period: " + invoice.getPeriodYear() + "-" + String.format("%02d", invoice.getPeriodMonth())));
+            document.add(new Paragraph(" "));
+            document.add(new Paragraph("Cattle Count: " + invoice.getCattleCount()));
+            document.add(new Paragraph("Goat Count: " + invoice.getGoatCount()));
+            document.add(new Paragraph("Ram Count: " + invoice.getRamCount()));
+            document.add(new Paragraph("Pig Count: " + invoice.getPigCount()));
+            document.add(new Paragraph(" "));
+            document.add(new Paragraph("Current Charge: " + invoice.getCurrentCharge()));
+            document.add(new Paragraph("Previous Unpaid Balance: " + invoice.getPreviousUnpaidBalance()));
+            document.add(new Paragraph("Total Due: " + invoice.getTotalDue()));
+            document.add(new Paragraph("Paid: " + invoice.isPaid()));
+            document.close();
+            return out.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static OwnerInvoice invoice() {
+        Owner owner = new Owner();
+        ReflectionTestUtils.setField(owner, "ownerId", UUID.fromString("00000000-0000-0000-0000-000000000001"));
+        owner.setFirstName("Ada");
+        owner.setEmail("ada@example.com");
+        OwnerInvoice invoice = new OwnerInvoice();
+        ReflectionTestUtils.setField(invoice, "id", 42L);
+        invoice.setOwner(owner);
+        invoice.setPeriodYear(2026);
+        invoice.setPeriodMonth(9);
+        invoice.setCattleCount(12);
+        invoice.setGoatCount(30);
+        invoice.setRamCount(4);
+        invoice.setPigCount(7);
+        invoice.setCurrentCharge(new BigDecimal("1250.00"));
+        invoice.setPreviousUnpaidBalance(new BigDecimal("80.50"));
+        invoice.setTotalDue(new BigDecimal("1330.50"));
+        return invoice;
+    }
+
+    private record Result(double docsPerSecond, long bytesPerDoc) {
+    }
+}
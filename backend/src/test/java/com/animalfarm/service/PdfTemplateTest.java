@@ -0,0 +1,63 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class PdfTemplateTest {
+    private static final PdfTemplate TEMPLATE = PdfTemplate.builder()
+            .line("Report for {} ({})")
+            .blank()
+            .row("Row {}: {}")
+            .empty("Nothing here.")
+            .compile();
+
+    @Test
+    void render_fillsFieldsAndEscapesText() throws Exception {
+        byte[] pdf = TEMPLATE.render(new Object[] {"Smith", 42L}, List.of("a (b) \\c"), (value, fields) -> {
+            fields[0] = 1;
+            fields[1] = value;
+        });
+
+        PdfReader reader = new PdfReader(pdf);
+        String text = new PdfTextExtractor(reader).getTextFromPage(1);
+        assertEquals(1, reader.getNumberOfPages());
+        assertTrue(text.contains("Report for Smith (42)"), text);
+        assertTrue(text.contains("Row 1: a (b) \\c"), text);
+    }
+
+    @Test
+    void render_writesEmptyLineWithoutRows() throws Exception {
+        byte[] pdf = TEMPLATE.render(new Object[] {"Smith", 1}, List.<String>of(), (value, fields) -> { });
+
+        String text = new PdfTextExtractor(new PdfReader(pdf)).getTextFromPage(1);
+        assertTrue(text.contains("Nothing here."), text);
+    }
+
+    @Test
+    void render_wrapsLongLinesAndBreaksPages() throws Exception {
+        List<Integer> rows = IntStream.range(0, 100).boxed().toList();
+        String longValue = "word ".repeat(40).trim();
+
+        byte[] pdf = TEMPLATE.render(new Object[] {"Smith", 1}, rows, (value, fields) -> {
+            fields[0] = value;
+            fields[1] = longValue;
+        });
+
+        PdfReader reader = new PdfReader(pdf);
+        assertEquals(8, reader.getNumberOfPages());
+        String last = new PdfTextExtractor(reader).getTextFromPage(8);
+        assertTrue(last.contains("Row 99: word"), last);
+    }
+
+    @Test
+    void render_rejectsWrongHeaderValueCount() {
+        assertThrows(IllegalArgumentException.class, () -> TEMPLATE.render("only one"));
+    }
+}
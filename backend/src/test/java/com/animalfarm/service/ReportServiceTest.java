@@ -0,0 +1,115 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.animalfarm.dto.OwnerAnimalTypeCounts;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ReportServiceTest {
+
+    @Mock
+    private AnimalService animalService;
+
+    @Mock
+    private OwnerService ownerService;
+
+    @Mock
+    private OwnerTypeCrosstabService ownerTypeCrosstabService;
+
+    private static final Pattern OWNER_ROW = Pattern.compile("\\bOwner(\\d+) ");
+
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        reportService = new ReportService(animalService, ownerService, ownerTypeCrosstabService);
+    }
+
+    @Test
+    void ownerAnimalTypeCountsPdf_rendersCrosstabRowsWithoutLoadingAnimals() throws Exception {
+        UUID ownerId = UUID.randomUUID();
+        stubRows(3, ownerId);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        reportService.ownerAnimalTypeCountsPdf(out);
+
+        String text = new PdfTextExtractor(new PdfReader(out.toByteArray())).getTextFromPage(1);
+        assertTrue(text.contains("owner_id firstname Cattle Goats Rams Pigs"), text);
+        assertTrue(text.contains("Owner2 2 2 2 0"), text);
+        verifyNoInteractions(animalService, ownerService);
+    }
+
+    /**
+     * Two full 500-row flushes and a partial one: every owner must come out once and in order, and
+     * the caller's stream must be left open.
+     */
+    @Test
+    void ownerAnimalTypeCountsPdf_writesEveryRowAcrossFlushBoundaries() throws Exception {
+        int owners = 1_100;
+        stubRows(owners, UUID.randomUUID());
+        CountingStream out = new CountingStream();
+
+        reportService.ownerAnimalTypeCountsPdf(out);
+
+        PdfReader reader = new PdfReader(out.bytes.toByteArray());
+        PdfTextExtractor extractor = new PdfTextExtractor(reader);
+        List<Integer> rows = new ArrayList<>();
+        for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+            Matcher row = OWNER_ROW.matcher(extractor.getTextFromPage(page));
+            while (row.find()) {
+                rows.add(Integer.parseInt(row.group(1)));
+            }
+        }
+        assertEquals(IntStream.range(0, owners).boxed().toList(), rows);
+        assertEquals(0, out.closed);
+    }
+
+    private void stubRows(int owners, UUID ownerId) throws Exception {
+        when(ownerTypeCrosstabService.forEachOwner(any())).thenAnswer(inv -> {
+            OwnerTypeCrosstabService.RowHandler handler = inv.getArgument(0);
+            for (int i = 0; i < owners; i++) {
+                handler.accept(new OwnerAnimalTypeCounts(ownerId, "Owner" + i, i % 7, i % 5, i % 3, i % 2));
+            }
+            return (long) owners;
+        });
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private int closed;
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closed++;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.animalfarm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.animalfarm.auth.AuthSession;
+import com.animalfarm.exception.ApiException;
+import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Animal;
+import com.animalfarm.model.AnimalType;
+import com.animalfarm.model.Owner;
+import com.animalfarm.model.TransferRequest;
+import com.animalfarm.model.TransferStatus;
+import com.animalfarm.repository.AnimalRepository;
+import com.animalfarm.repository.OwnerRepository;
+import com.animalfarm.repository.TransferRequestRepository;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+
+/**
+ * Hammers approvals and sales on the same animals from many threads against an in-memory database
+ * and checks the version counters: every committed change must be visible exactly once. Tagged
+ * {@code perf}, so it only runs with {@code mvn test -Pperf}.
+ */
+@Tag("perf")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:transfer-stress;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "app.audit.partitioning.enabled=false",
+        "app.audit.spill-file=target/transfer-stress/audit-spill.ndjson",
+        "app.images.dir=target/transfer-stress/images",
+        "app.invoice.pdf-cache.dir=target/transfer-stress/pdf-cache",
+        "app.invoice.outbox.poll-millis=3600000",
+        "app.transfers.max-attempts=200",
+        "logging.level.org.springframework.mail=INFO"
+})
+class TransferConcurrencyStressTest {
+    private static final AuthSession ADMIN = new AuthSession(1L, "admin", ActorRole.ADMIN, null, false);
+    private static final int THREADS = 8;
+    private static final int SALE_ATTEMPTS = 50;
+
+    @Autowired
+    private TransferRequestService transferRequestService;
+
+    @Autowired
+    private AnimalService animalService;
+
+    @Autowired
+    private OwnerRepository ownerRepository;
+
+    @Autowired
+    private AnimalRepository animalRepository;
+
+    @Autowired
+    private TransferRequestRepository transferRequestRepository;
+
+    @Test
+    void concurrentApprovalsOfOneRequest_transferExactlyOnce() throws Exception {
+        List<Owner> owners = owners(2);
+        List<Animal> animals = animals(owners.get(0), 5);
+        TransferRequest request = request(owners.get(0), owners.get(1), animals);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger alreadyProcessed = new AtomicInteger();
+
+        runConcurrently(16, i -> {
+            try {
+                transferRequestService.approve(request.getId(), ADMIN);
+                approved.incrementAndGet();
+            } catch (ApiException e) {
+                assertEquals("Transfer request is already processed.", e.getMessage());
+                alreadyProcessed.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, approved.get());
+        assertEquals(15, alreadyProcessed.get());
+        assertEquals(TransferStatus.APPROVED, transferRequestRepository.findById(request.getId()).orElseThrow().getStatus());
+        for (Animal animal : reload(animals)) {
+            assertEquals(1, animal.getVersion());
+            assertEquals(owners.get(1).getId(), animal.getOwner().getId());
+        }
+    }
+
+    @Test
+    void overlappingApprovalsAndSales_loseNoUpdates() throws Exception {
+        List<Owner> owners = owners(4);
+        List<Animal> animals = animals(owners.get(0), 8);
+        List<TransferRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            requests.add(request(owners.get(i % 4), owners.get((i + 1) % 4), animals));
+        }
+        Animal sold = animals.get(animals.size() - 1);
+        AtomicInteger approved = new AtomicInteger();
+        AtomicInteger blockedBySale = new AtomicInteger();
+        ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+
+        runConcurrently(requests.size() + 1, i -> {
+            try {
+                int half = requests.size() / 2;
+                if (i == half) {
+                    sellWithRetry(sold.getAnimalId());
+                    return;
+                }
+                transferRequestService.approve(requests.get(i < half ? i : i - 1).getId(), ADMIN);
+                approved.incrementAndGet();
+            } catch (ApiException e) {
+                if (e.getMessage().startsWith("Animal already sold to market")) {
+                    blockedBySale.incrementAndGet();
+                } else {
+                    unexpected.add(e);
+                }
+            } catch (RuntimeException e) {
+                unexpected.add(e);
+            }
+        });
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertEquals(requests.size(), approved.get() + blockedBySale.get());
+        Map<TransferStatus, Long> statuses = transferRequestRepository.findAllById(
+                        requests.stream().map(TransferRequest::getId).toList()).stream()
+                .collect(Collectors.groupingBy(TransferRequest::getStatus, Collectors.counting()));
+        long approvedRows = statuses.getOrDefault(TransferStatus.APPROVED, 0L);
+        assertEquals(approved.get(), approvedRows);
+        assertEquals(requests.size() - approvedRows, statuses.getOrDefault(TransferStatus.PENDING, 0L));
+        for (Animal animal : reload(animals)) {
+            long sales = animal.getAnimalId().equals(sold.getAnimalId()) ? 1 : 0;
+            assertEquals(approvedRows + sales, animal.getVersion(), "version of " + animal.getAnimalId());
+        }
+        assertTrue(reload(List.of(sold)).get(0).isSold());
+    }
+
+    private void sellWithRetry(UUID animalId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                animalService.sellAnimalToMarket(animalId, ADMIN);
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == SALE_ATTEMPTS) {
+                    throw e;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Math.min(50, attempt * 5L)));
+            }
+        }
+    }
+
+    private void runConcurrently(int tasks, IntTask task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private List<Owner> owners(int count) {
+        List<Owner> owners = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Owner owner = new Owner();
+            owner.setFirstName("Stress" + i);
+            owner.setLastName("Test");
+            owner.setEmail("stress-" + UUID.randomUUID() + "@example.com");
+            owner.setPhoneNumber("555-01" + i);
+            owner.setAddress("Stress road " + i);
+            owners.add(ownerRepository.save(owner));
+        }
+        return owners;
+    }
+
+    private List<Animal> animals(Owner owner, int count) {
+        List<Animal> animals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Animal animal = new Animal();
+            animal.setColor("white");
+            animal.setDateOfBirth(LocalDate.of(2024, 2, 1 + i));
+            animal.setBreed("Saanen");
+            animal.setType(AnimalType.GOAT);
+            animal.setOwner(owner);
+            animals.add(animalRepository.save(animal));
+        }
+        return animals;
+    }
+
+    private TransferRequest request(Owner from, Owner to, List<Animal> animals) {
+        TransferRequest request = new TransferRequest();
+        request.setFromOwner(from);
+        request.setToOwner(to);
+        request.setAnimalIds(new ArrayList<>(animals.stream().map(Animal::getAnimalId).toList()));
+        request.setOwnerEmailMessage("stress");
+        return transferRequestRepository.save(request);
+    }
+
+    private List<Animal> reload(List<Animal> animals) {
+        return animalRepository.findByAnimalIdIn(animals.stream().map(Animal::getAnimalId).toList());
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index) throws Exception;
+    }
+}
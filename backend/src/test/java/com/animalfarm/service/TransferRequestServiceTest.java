@@ -3,6 +3,9 @@ package com.animalfarm.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -10,6 +13,7 @@ import com.animalfarm.dto.TransferRequestCreate;
 import com.animalfarm.exception.ApiException;
 import com.animalfarm.auth.AuthSession;
 import com.animalfarm.model.ActorRole;
+import com.animalfarm.model.Animal;
 import com.animalfarm.model.Owner;
 import com.animalfarm.model.TransferRequest;
 import com.animalfarm.model.TransferStatus;
@@ -22,7 +26,10 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @ExtendWith(MockitoExtension.class)
 class TransferRequestServiceTest {
@@ -40,7 +47,8 @@ class TransferRequestServiceTest {
 
     @BeforeEach
     void setUp() {
-        transferRequestService = new TransferRequestService(transferRequestRepository, ownerService, animalService);
+        transferRequestService = new TransferRequestService(transferRequestRepository, ownerService, animalService,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), 3);
     }
 
     @Test
@@ -70,11 +78,47 @@ class TransferRequestServiceTest {
         ReflectionTestUtils.setField(request, "id", 5L);
 
         when(transferRequestRepository.findById(5L)).thenReturn(Optional.of(request));
+        when(transferRequestRepository.transition(5L, TransferStatus.PENDING, TransferStatus.APPROVED)).thenReturn(1);
 
         transferRequestService.approve(5L, new AuthSession(1L, "admin", ActorRole.ADMIN, null, false));
 
         verify(animalService).transferAnimals(any(), any());
-        assertEquals(TransferStatus.APPROVED, request.getStatus());
+    }
+
+    @Test
+    void approve_failsWhenAnotherAdminClaimedTheRequestFirst() {
+        TransferRequest request = transferRequest(owner(1L, UUID.randomUUID()), owner(2L, UUID.randomUUID()),
+                List.of(UUID.randomUUID()), TransferStatus.PENDING);
+
+        when(transferRequestRepository.findById(5L)).thenReturn(Optional.of(request));
+        when(transferRequestRepository.transition(5L, TransferStatus.PENDING, TransferStatus.APPROVED)).thenReturn(0);
+
+        ApiException ex = assertThrows(ApiException.class, () ->
+                transferRequestService.approve(5L, new AuthSession(1L, "admin", ActorRole.ADMIN, null, false)));
+
+        assertEquals("Transfer request is already processed.", ex.getMessage());
+        verify(animalService, never()).transferAnimals(any(), any());
+    }
+
+    @Test
+    void approve_retriesOnConflictThenGivesUp() {
+        TransferRequest request = transferRequest(owner(1L, UUID.randomUUID()), owner(2L, UUID.randomUUID()),
+                List.of(UUID.randomUUID()), TransferStatus.PENDING);
+
+        when(transferRequestRepository.findById(5L)).thenReturn(Optional.of(request));
+        when(transferRequestRepository.transition(5L, TransferStatus.PENDING, TransferStatus.APPROVED)).thenReturn(1);
+        when(animalService.transferAnimals(any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Animal.class, 1L))
+                .thenReturn(List.of());
+
+        transferRequestService.approve(5L, new AuthSession(1L, "admin", ActorRole.ADMIN, null, false));
+        verify(animalService, times(2)).transferAnimals(any(), any());
+
+        when(animalService.transferAnimals(any(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Animal.class, 1L));
+        assertThrows(ObjectOptimisticLockingFailureException.class, () ->
+                transferRequestService.approve(5L, new AuthSession(1L, "admin", ActorRole.ADMIN, null, false)));
+        verify(animalService, times(5)).transferAnimals(any(), any());
     }
 
     @Test
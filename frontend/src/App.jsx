@@ -346,12 +346,21 @@ function AdminPage({ session, onLogout }) {
         month: Number(generationPeriod.month),
         smtpPassword: smtpPassword || null
       };
-      const generated = await api.generateAndEmailMonthlyInvoices(payload);
-      setGeneratedInvoices(generated);
+      let run = await api.generateAndEmailMonthlyInvoices(payload);
+      setSmtpPassword("");
+      while (run.running) {
+        setMessage(`Billing run ${run.runId}: ${run.processedOwners}/${run.totalOwners} owner(s) processed...`);
+        await new Promise((resolve) => setTimeout(resolve, 2000));
+        run = await api.getInvoiceRun(run.runId);
+      }
       const history = await api.getInvoiceHistory(payload);
+      setGeneratedInvoices(history);
       setInvoiceHistory(history);
-      setSmtpPassword("");
-      setMessage(`Generated ${generated.length} invoice(s) and attempted email delivery.`);
+      const failed = run.owners?.FAILED || 0;
+      setMessage(run.status === "COMPLETED"
+        ? `Billing run ${run.runId} created ${run.invoicesCreated} invoice(s) and queued ${run.emailsQueued} email(s)`
+          + (failed ? `; ${failed} owner(s) failed.` : ".")
+        : `Billing run ${run.runId} failed: ${run.error}`);
     } catch (err) {
       setMessage(err.message);
     }
@@ -126,7 +126,16 @@ export const authApi = {
 };
 
 export const api = {
-  getAnimals: () => request("/animals"),
+  getAnimals: async () => {
+    const animals = [];
+    let cursor = "";
+    do {
+      const page = await request(`/animals?limit=500${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ""}`);
+      animals.push(...page.items);
+      cursor = page.nextCursor;
+    } while (cursor);
+    return animals;
+  },
   registerOwner: (payload) => request("/owners", { method: "POST", body: JSON.stringify(payload) }),
   registerAnimal: (payload) => {
     const form = new FormData();
@@ -160,6 +169,7 @@ export const api = {
   getMonthlyOwnersInvoices: () => request("/invoices/monthly/owners"),
   generateAndEmailMonthlyInvoices: (payload) =>
     request("/invoices/monthly/generate-and-email", { method: "POST", body: JSON.stringify(payload || {}) }),
+  getInvoiceRun: (runId) => request(`/invoices/monthly/runs/${runId}`),
   markInvoicePaid: (invoiceId) => request(`/invoices/${invoiceId}/mark-paid`, { method: "POST" }),
   getInvoiceHistory: ({ ownerId, year, month } = {}) => {
     const params = new URLSearchParams();